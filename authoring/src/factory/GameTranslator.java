@@ -75,6 +75,7 @@ public class GameTranslator {
         newLevel.setMusic(authLevel.getPropertyMap().get(LevelField.MUSIC));
         newLevel.setWidth(Double.parseDouble(authLevel.getPropertyMap().get(LevelField.WIDTH)));
         newLevel.setHeight(Double.parseDouble(authLevel.getPropertyMap().get(LevelField.HEIGHT)));
+        newLevel.setTwoPhaseEvents(Boolean.parseBoolean(authLevel.getPropertyMap().get(LevelField.TWOPHASEEVENTS)));
 
         saveLevelEntities(authLevel, newLevel);
         checkRequiredComponents(newLevel);
@@ -188,6 +189,7 @@ public class GameTranslator {
             newLevel.getPropertyMap().put(LevelField.WIDTH, String.valueOf(level.getWidth()));
             newLevel.getPropertyMap().put(LevelField.BACKGROUND, level.getBackground());
             newLevel.getPropertyMap().put(LevelField.MUSIC, level.getMusic());
+            newLevel.getPropertyMap().put(LevelField.TWOPHASEEVENTS, String.valueOf(level.isTwoPhaseEvents()));
             myObjectManager.addLevel(newLevel);
             currentLevel.setValue(newLevel);
 
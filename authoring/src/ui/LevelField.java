@@ -5,5 +5,5 @@ package ui;
  * @author Harry Ross
  */
 public enum LevelField {
-    LABEL, WIDTH, HEIGHT, BACKGROUND, MUSIC
+    LABEL, WIDTH, HEIGHT, BACKGROUND, MUSIC, TWOPHASEEVENTS
 }
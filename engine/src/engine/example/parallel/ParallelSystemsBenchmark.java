@@ -0,0 +1,100 @@
+package engine.example.parallel;
+
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.Level;
+import engine.external.component.Component;
+import engine.external.component.HealthComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.XAccelerationComponent;
+import engine.external.component.XPositionComponent;
+import engine.external.component.XVelocityComponent;
+import engine.external.component.YAccelerationComponent;
+import engine.external.component.YPositionComponent;
+import engine.external.component.YVelocityComponent;
+import engine.external.component.ZPositionComponent;
+import engine.internal.systems.HealthSystem;
+import engine.internal.systems.MovementSystem;
+import engine.internal.systems.VoogaSystem;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+
+// rough timing of one MovementSystem and one HealthSystem game loop over a large crowd, as plain loops and split into
+// parallel chunks from ParallelEntityThreshold in EngineSettings (or the first argument) on. The crowd stays on screen
+// and alive, so the loops do the same work every time and nothing waits for a sync point. The speedup depends on the
+// cores of the machine, so run it on the target machines; the first rounds include JIT warm-up, so compare the numbers
+// of the last round
+public class ParallelSystemsBenchmark {
+    private static final ResourceBundle ENGINE_SETTINGS = ResourceBundle.getBundle("EngineSettings");
+    private static final int ROUNDS = 3;
+    private static final int ENTITIES = 200_000;
+    private static final int GAME_LOOPS = 200;
+    private static final int NEVER = Integer.MAX_VALUE;
+    private static final double ROOM_SIZE = 1e12;
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+
+    public static void main(String[] args) {
+        int threshold = args.length > 0 ? Integer.parseInt(args[0])
+                : Integer.parseInt(ENGINE_SETTINGS.getString("ParallelEntityThreshold"));
+        Engine engine = createEngine();
+        Collection<Class<? extends Component>> moving = Arrays.asList(XPositionComponent.class,
+                YPositionComponent.class, ZPositionComponent.class);
+        VoogaSystem movement = new MovementSystem(moving, engine);
+        VoogaSystem health = new HealthSystem(Collections.singletonList(HealthComponent.class), engine);
+
+        System.out.println(ENTITIES + " Entities, threshold " + threshold + ", common pool parallelism "
+                + ForkJoinPool.getCommonPoolParallelism());
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("round " + round);
+            compare("MovementSystem", movement, threshold);
+            compare("HealthSystem", health, threshold);
+        }
+    }
+
+    private static void compare(String label, VoogaSystem system, int threshold) {
+        system.setParallelThreshold(NEVER);
+        double sequential = time(system);
+        system.setParallelThreshold(threshold);
+        double chunked = time(system);
+        System.out.println(String.format("%-16s %10.1f us/loop sequential %10.1f us/loop chunked   speedup %.2fx",
+                label, sequential, chunked, sequential / chunked));
+    }
+
+    private static double time(VoogaSystem system) {
+        long start = System.nanoTime();
+        for (int loop = 0; loop < GAME_LOOPS; loop++) {
+            system.update(NO_INPUTS);
+        }
+        return (System.nanoTime() - start) / 1000.0 / GAME_LOOPS;
+    }
+
+    // Room large enough that MovementSystem never marks an Entity off screen
+    private static Engine createEngine() {
+        Random random = new Random(13);
+        Level level = new Level();
+        level.setWidth(ROOM_SIZE);
+        level.setHeight(ROOM_SIZE);
+        for (int k = 0; k < ENTITIES; k++) {
+            Entity entity = new Entity();
+            entity.addComponent(new NameComponent("entity" + k));
+            entity.addComponent(new XPositionComponent(random.nextDouble() * 800));
+            entity.addComponent(new YPositionComponent(random.nextDouble() * 600));
+            entity.addComponent(new ZPositionComponent(0.0));
+            entity.addComponent(new XVelocityComponent(random.nextDouble() * 4 - 2));
+            entity.addComponent(new YVelocityComponent(random.nextDouble() * 4 - 2));
+            entity.addComponent(new XAccelerationComponent(random.nextDouble() * 0.02 - 0.01));
+            entity.addComponent(new YAccelerationComponent(random.nextDouble() * 0.02 - 0.01));
+            entity.addComponent(new HealthComponent(1.0 + random.nextDouble()));
+            level.addEntity(entity);
+        }
+        return new Engine(level);
+    }
+}
@@ -0,0 +1,124 @@
+package engine.example.spawn;
+
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.Level;
+import engine.external.component.CollisionComponent;
+import engine.external.component.GroupComponent;
+import engine.external.component.HeightComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.SpriteComponent;
+import engine.external.component.WidthComponent;
+import engine.external.component.XPositionComponent;
+import engine.external.component.XVelocityComponent;
+import engine.external.component.YPositionComponent;
+import engine.external.component.YVelocityComponent;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ResourceBundle;
+
+// rough timing of spawning a projectile-like template: reflective copyEntity against Engine.spawn, which compiles the
+// template into a Prefab; then a shooter-like churn of bullets spawned into and destroyed from a running Engine, with
+// the garbage collections it caused. Recycling follows RecycleEntities in EngineSettings, so run once with it off and
+// once with it on to compare. The first rounds include JIT warm-up, so compare the numbers of the last round
+public class SpawnBenchmark {
+    private static final ResourceBundle ENGINE_SETTINGS = ResourceBundle.getBundle("EngineSettings");
+    private static final int ROUNDS = 3;
+    private static final int ITERATIONS = 200_000;
+    private static final int CHURN_ITERATIONS = 2_000_000;
+    private static final int BULLETS_IN_FLIGHT = 512;
+
+    public static void main(String[] args) {
+        Entity template = new Entity();
+        template.addComponent(new NameComponent("bullet"));
+        template.addComponent(new GroupComponent("projectiles"));
+        template.addComponent(new XPositionComponent(10.0));
+        template.addComponent(new YPositionComponent(20.0));
+        template.addComponent(new XVelocityComponent(5.0));
+        template.addComponent(new YVelocityComponent(0.0));
+        template.addComponent(new WidthComponent(4.0));
+        template.addComponent(new HeightComponent(4.0));
+        template.addComponent(new SpriteComponent("bullet.png"));
+        template.addComponent(new CollisionComponent(true));
+        Engine engine = createEngine();
+        // keep results alive so the JIT cannot drop the copies
+        long sink = 0;
+
+        System.out.println("RecycleEntities=" + ENGINE_SETTINGS.getString("RecycleEntities"));
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("round " + round);
+            long start = System.nanoTime();
+            for (int k = 0; k < ITERATIONS; k++) {
+                sink += template.copyEntity().getComponentMap().size();
+            }
+            double reflective = report("copyEntity", start);
+
+            start = System.nanoTime();
+            for (int k = 0; k < ITERATIONS; k++) {
+                sink += engine.spawn(template).getComponentMap().size();
+            }
+            double compiled = report("Engine.spawn", start);
+            System.out.println(String.format("speedup %.1fx", reflective / compiled));
+
+            sink += churn(engine, template);
+        }
+        System.out.println("(" + sink + ")");
+    }
+
+    private static Engine createEngine() {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        return new Engine(level);
+    }
+
+    // Spawns bullets, moves them, and destroys the oldest once BULLETS_IN_FLIGHT are alive, as CleanupSystem would
+    private static long churn(Engine engine, Entity template) {
+        Entity[] inFlight = new Entity[BULLETS_IN_FLIGHT];
+        long sink = 0;
+        long collections = collectionCount();
+        long pauses = collectionMillis();
+        long start = System.nanoTime();
+        for (int k = 0; k < CHURN_ITERATIONS; k++) {
+            int slot = k % BULLETS_IN_FLIGHT;
+            if (inFlight[slot] != null) {
+                engine.destroyEntity(inFlight[slot]);
+            }
+            Entity bullet = engine.spawn(template);
+            engine.addEntity(bullet);
+            ((XPositionComponent) bullet.getComponent(XPositionComponent.class)).setDouble(k);
+            sink += bullet.getComponentMap().size();
+            inFlight[slot] = bullet;
+        }
+        for (Entity bullet : inFlight) {
+            engine.destroyEntity(bullet);
+        }
+        double nanos = (System.nanoTime() - start) / (double) CHURN_ITERATIONS;
+        System.out.println(String.format("%-32s %8.1f ns/op, %d collections, %d ms in GC", "churn", nanos,
+                collectionCount() - collections, collectionMillis() - pauses));
+        return sink;
+    }
+
+    private static long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static double report(String label, long start) {
+        double nanos = (System.nanoTime() - start) / (double) ITERATIONS;
+        System.out.println(String.format("%-32s %8.1f ns/op", label, nanos));
+        return nanos;
+    }
+}
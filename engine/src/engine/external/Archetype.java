@@ -0,0 +1,209 @@
+package engine.external;
+
+import engine.external.component.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author engine
+ *
+ * An Archetype groups every attached Entity that carries exactly the same set of Component classes (its signature).
+ * The Components of those Entities are stored column by column: one contiguous array per Component class, indexed by
+ * the row the Entity occupies inside the Archetype. Systems that need the same Component from many Entities can walk
+ * a read-only Column directly instead of asking each Entity's map one at a time.
+ *
+ * Rows are kept dense; removing an Entity moves the last row into the freed slot.
+ */
+public class Archetype {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int NO_COLUMN = -1;
+
+    private final BitSet mySignature;
+    private final List<Class<? extends Component>> myComponentTypes;
+    private final int[] myColumnIndex;
+    private final Map<Integer, Archetype> myAddEdges;
+    private final Map<Integer, Archetype> myRemoveEdges;
+    private Component<?>[][] myColumns;
+    private final Column[] myColumnViews;
+    private Entity[] myEntities;
+    private int mySize;
+    private int myModificationCount;
+
+    /**
+     * Create an empty Archetype for a given set of Component classes
+     * @param componentTypes the Component classes shared by every Entity in this Archetype
+     */
+    Archetype(Collection<Class<? extends Component>> componentTypes) {
+        myComponentTypes = new ArrayList<>(componentTypes);
+        mySignature = ComponentRegistry.signatureOf(myComponentTypes);
+        myColumnIndex = new int[mySignature.length()];
+        Arrays.fill(myColumnIndex, NO_COLUMN);
+        for (int column = 0; column < myComponentTypes.size(); column++) {
+            myColumnIndex[ComponentRegistry.idOf(myComponentTypes.get(column))] = column;
+        }
+        myColumns = new Component<?>[myComponentTypes.size()][INITIAL_CAPACITY];
+        myColumnViews = new Column[myComponentTypes.size()];
+        for (int column = 0; column < myColumnViews.length; column++) {
+            myColumnViews[column] = new Column(column);
+        }
+        myEntities = new Entity[INITIAL_CAPACITY];
+        myAddEdges = new HashMap<>();
+        myRemoveEdges = new HashMap<>();
+    }
+
+    /**
+     * @param required signature of the Component classes a System requires
+     * @return true if every Component class in the required signature is part of this Archetype
+     */
+    public boolean matches(BitSet required) {
+        for (int id = required.nextSetBit(0); id >= 0; id = required.nextSetBit(id + 1)) {
+            if (!hasComponent(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param componentId id assigned by the ComponentRegistry
+     * @return true if Entities of this Archetype carry the Component with the given id
+     */
+    public boolean hasComponent(int componentId) {
+        return componentId < myColumnIndex.length && myColumnIndex[componentId] != NO_COLUMN;
+    }
+
+    /**
+     * @return the Component classes shared by every Entity of this Archetype
+     */
+    public List<Class<? extends Component>> getComponentTypes() {
+        return Collections.unmodifiableList(myComponentTypes);
+    }
+
+    /**
+     * @return number of Entities currently stored in this Archetype
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * @param row row index, between 0 and size()-1
+     * @return the Entity stored in the given row
+     */
+    public Entity getEntity(int row) {
+        return myEntities[row];
+    }
+
+    /**
+     * Read-only access to the column of a Component class
+     * @param clazz Component class of the column
+     * @return a live view of the column, or null if this Archetype does not store that Component class
+     */
+    public Column getColumn(Class<? extends Component> clazz) {
+        int id = ComponentRegistry.idOf(clazz);
+        return hasComponent(id) ? myColumnViews[myColumnIndex[id]] : null;
+    }
+
+    /**
+     * @return a counter bumped every time an Entity enters or leaves this Archetype
+     */
+    public int getModificationCount() {
+        return myModificationCount;
+    }
+
+    Component<?> get(int componentId, int row) {
+        return hasComponent(componentId) ? myColumns[myColumnIndex[componentId]][row] : null;
+    }
+
+    void set(int componentId, int row, Component<?> component) {
+        myColumns[myColumnIndex[componentId]][row] = component;
+    }
+
+    BitSet getSignature() {
+        return mySignature;
+    }
+
+    Map<Integer, Archetype> getAddEdges() {
+        return myAddEdges;
+    }
+
+    Map<Integer, Archetype> getRemoveEdges() {
+        return myRemoveEdges;
+    }
+
+    // Append an Entity and copy its Components into the columns; returns the row the Entity now occupies
+    int add(Entity entity, Map<Class<? extends Component>, Component<?>> components) {
+        ensureCapacity(mySize + 1);
+        int row = mySize++;
+        myEntities[row] = entity;
+        for (int column = 0; column < myComponentTypes.size(); column++) {
+            myColumns[column][row] = components.get(myComponentTypes.get(column));
+        }
+        myModificationCount++;
+        return row;
+    }
+
+    // Remove the Entity stored at a row by moving the last row into it; returns the moved Entity, or null if none moved
+    Entity remove(int row) {
+        int last = --mySize;
+        Entity moved = null;
+        if (row != last) {
+            moved = myEntities[last];
+            myEntities[row] = moved;
+            for (Component<?>[] column : myColumns) {
+                column[row] = column[last];
+            }
+        }
+        myEntities[last] = null;
+        for (Component<?>[] column : myColumns) {
+            column[last] = null;
+        }
+        myModificationCount++;
+        return moved;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= myEntities.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, myEntities.length * 2);
+        myEntities = Arrays.copyOf(myEntities, newCapacity);
+        for (int column = 0; column < myColumns.length; column++) {
+            myColumns[column] = Arrays.copyOf(myColumns[column], newCapacity);
+        }
+    }
+
+    /**
+     * The Components of one class stored by an Archetype, row by row. The view follows the Archetype, so it reads the
+     * Components of the Entities currently in each row; the store alone changes what is in them
+     */
+    public final class Column {
+        private final int myIndex;
+
+        private Column(int index) {
+            myIndex = index;
+        }
+
+        /**
+         * @param row row index, between 0 and size()-1
+         * @return the Component of the Entity stored in the given row
+         */
+        public Component<?> get(int row) {
+            return myColumns[myIndex][row];
+        }
+
+        /**
+         * @return number of rows, i.e. the size() of the Archetype
+         */
+        public int size() {
+            return mySize;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package engine.external;
+
+import engine.external.component.ChangeClock;
+import engine.external.component.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author engine
+ *
+ * Owns the Archetypes of a running game. Every Entity attached to the store lives in exactly one Archetype, the one
+ * whose signature equals the Entity's current set of Component classes. Entity.addComponent and removeComponent notify
+ * the store, which moves the Entity to the neighbouring Archetype; transitions between Archetypes are cached as edges so
+ * that repeated structural changes (e.g. DestroyComponents added by Actions) do not have to
+ * rebuild signatures.
+ *
+ * Systems register EntityViews with the store; each view learns about the Archetypes matching its signature as they are
+ * created, so membership is maintained by structural changes rather than by re-filtering every Entity on every loop.
+ * The store numbers Entities in the order they are attached, which views list them in, whatever Archetype they are in.
+ *
+ * Every attached Entity also holds a dense id (see EntityIds); data other parts of the Engine keep per Entity lives in
+ * EntityTables created by the store, which forgets an Entity's entries when it is detached.
+ *
+ * ComponentListeners registered for a Component class hear about every Component of that class entering or leaving
+ * the store, so that they can track those Components without scanning the Entities on every loop. Every Component
+ * entering the store is attached to the ChangeClock of the store's Engine, which it stamps its changes with.
+ */
+public class ArchetypeStore {
+
+    private Map<BitSet, Archetype> myArchetypes;
+    private List<Archetype> myArchetypeList;
+    private List<EntityView> myViews;
+    private EntityIds myIds;
+    private List<Class<? extends Component>> myListenedClasses;
+    private List<ComponentListener> myListeners;
+    private ChangeClock myClock;
+    private long myAttachCount;
+
+    /**
+     * @param clock ChangeClock of the running game, which the Components of attached Entities stamp their changes with
+     */
+    public ArchetypeStore(ChangeClock clock) {
+        myClock = clock;
+        myArchetypes = new HashMap<>();
+        myArchetypeList = new ArrayList<>();
+        myViews = new ArrayList<>();
+        myIds = new EntityIds();
+        myListenedClasses = new ArrayList<>();
+        myListeners = new ArrayList<>();
+    }
+
+    /**
+     * Register a listener for the Components of a class; Components already attached are not reported
+     * @param clazz Component class to listen for
+     * @param listener listener told about every Component of that class attached to or detached from this store
+     */
+    public void addComponentListener(Class<? extends Component> clazz, ComponentListener listener) {
+        myListenedClasses.add(clazz);
+        myListeners.add(listener);
+    }
+
+    /**
+     * Create a table of per-Entity data indexed by the ids of this store; an Entity's entry is cleared when the Entity
+     * is detached
+     * @param <T> data stored per Entity
+     * @return the registered table
+     */
+    public <T> EntityTable<T> createTable() {
+        return myIds.createTable();
+    }
+
+    /**
+     * Create a live view of the attached Entities carrying a set of Components; the view is kept up to date by the
+     * store as Entities are attached, detached, or change their Components
+     * @param required Component classes an Entity must carry to be part of the view
+     * @return the registered view
+     */
+    public EntityView createView(Collection<Class<? extends Component>> required) {
+        EntityView view = new EntityView(ComponentRegistry.signatureOf(required));
+        for (Archetype archetype : myArchetypeList) {
+            if (archetype.matches(view.getRequired())) {
+                view.addArchetype(archetype);
+            }
+        }
+        myViews.add(view);
+        return view;
+    }
+
+    /**
+     * Start tracking an Entity; an Entity still attached to another store is detached from it first
+     * @param entity Entity to attach
+     */
+    public void attach(Entity entity) {
+        if (entity.getStore() == this) {
+            return;
+        }
+        if (entity.getStore() != null) {
+            entity.getStore().detach(entity);
+        }
+        place(entity, findArchetype(entity.getComponentMap().keySet()));
+        entity.setStore(this);
+        entity.setSequence(myAttachCount++);
+        myIds.assign(entity);
+        for (Component<?> component : entity.getComponentMap().values()) {
+            component.attach(myClock);
+        }
+        for (int k = 0; k < myListeners.size(); k++) {
+            Component<?> component = entity.getComponent(myListenedClasses.get(k));
+            if (component != null) {
+                myListeners.get(k).componentAttached(entity, component);
+            }
+        }
+    }
+
+    /**
+     * Stop tracking an Entity; the Entity keeps all of its Components and falls back to its own map
+     * @param entity Entity to detach
+     */
+    public void detach(Entity entity) {
+        if (entity.getStore() != this) {
+            return;
+        }
+        for (int k = 0; k < myListeners.size(); k++) {
+            Component<?> component = entity.getComponent(myListenedClasses.get(k));
+            if (component != null) {
+                myListeners.get(k).componentDetached(entity, component);
+            }
+        }
+        for (Component<?> component : entity.getComponentMap().values()) {
+            component.detach(myClock);
+        }
+        displace(entity);
+        myIds.release(entity);
+        entity.setStore(null);
+        entity.setLocation(null, 0);
+    }
+
+    /**
+     * @return all Archetypes created so far, in creation order
+     */
+    public List<Archetype> getArchetypes() {
+        return Collections.unmodifiableList(myArchetypeList);
+    }
+
+    /**
+     * @param required signature of the Component classes an Entity must carry
+     * @return every Archetype whose Entities carry all required Component classes
+     */
+    public List<Archetype> getMatchingArchetypes(BitSet required) {
+        List<Archetype> matching = new ArrayList<>();
+        for (Archetype archetype : myArchetypeList) {
+            if (archetype.matches(required)) {
+                matching.add(archetype);
+            }
+        }
+        return matching;
+    }
+
+    // Called by Entity after a Component class it did not have before was put in its map
+    void componentAdded(Entity entity, Class<? extends Component> clazz) {
+        int id = ComponentRegistry.idOf(clazz);
+        Archetype target = entity.getArchetype().getAddEdges().get(id);
+        if (target == null) {
+            target = findArchetype(entity.getComponentMap().keySet());
+            entity.getArchetype().getAddEdges().put(id, target);
+        }
+        move(entity, target);
+        Component<?> component = entity.getComponent(clazz);
+        component.attach(myClock);
+        notifyAttached(entity, clazz, component);
+    }
+
+    // Called by Entity after a Component class it had was removed from its map
+    void componentRemoved(Entity entity, Class<? extends Component> clazz) {
+        int id = ComponentRegistry.idOf(clazz);
+        // the Archetype still holds the removed Component until the Entity moves
+        Component<?> component = entity.getComponent(clazz);
+        component.detach(myClock);
+        notifyDetached(entity, clazz, component);
+        Archetype target = entity.getArchetype().getRemoveEdges().get(id);
+        if (target == null) {
+            target = findArchetype(entity.getComponentMap().keySet());
+            entity.getArchetype().getRemoveEdges().put(id, target);
+        }
+        move(entity, target);
+    }
+
+    // Called by Entity after an existing Component was replaced by a new instance of the same class
+    void componentReplaced(Entity entity, Class<? extends Component> clazz, Component<?> component) {
+        Component<?> previous = entity.getComponent(clazz);
+        entity.getArchetype().set(ComponentRegistry.idOf(clazz), entity.getRow(), component);
+        if (previous != component) {
+            previous.detach(myClock);
+            component.attach(myClock);
+            notifyDetached(entity, clazz, previous);
+            notifyAttached(entity, clazz, component);
+        }
+    }
+
+    private void notifyAttached(Entity entity, Class<? extends Component> clazz, Component<?> component) {
+        for (int k = 0; k < myListeners.size(); k++) {
+            if (myListenedClasses.get(k) == clazz) {
+                myListeners.get(k).componentAttached(entity, component);
+            }
+        }
+    }
+
+    private void notifyDetached(Entity entity, Class<? extends Component> clazz, Component<?> component) {
+        for (int k = 0; k < myListeners.size(); k++) {
+            if (myListenedClasses.get(k) == clazz) {
+                myListeners.get(k).componentDetached(entity, component);
+            }
+        }
+    }
+
+    private void move(Entity entity, Archetype target) {
+        displace(entity);
+        place(entity, target);
+    }
+
+    private void place(Entity entity, Archetype archetype) {
+        entity.setLocation(archetype, archetype.add(entity, entity.getComponentMap()));
+    }
+
+    private void displace(Entity entity) {
+        Archetype archetype = entity.getArchetype();
+        Entity moved = archetype.remove(entity.getRow());
+        if (moved != null) {
+            moved.setLocation(archetype, entity.getRow());
+        }
+    }
+
+    private Archetype findArchetype(Collection<Class<? extends Component>> componentTypes) {
+        BitSet signature = ComponentRegistry.signatureOf(componentTypes);
+        Archetype archetype = myArchetypes.get(signature);
+        if (archetype == null) {
+            archetype = new Archetype(componentTypes);
+            myArchetypes.put(signature, archetype);
+            myArchetypeList.add(archetype);
+            for (EntityView view : myViews) {
+                if (archetype.matches(view.getRequired())) {
+                    view.addArchetype(archetype);
+                }
+            }
+        }
+        return archetype;
+    }
+}
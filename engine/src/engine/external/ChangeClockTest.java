@@ -0,0 +1,84 @@
+package engine.external;
+
+import engine.external.component.LivesComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.XPositionComponent;
+
+import javafx.scene.input.KeyCode;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author engine
+ * Tests that every Engine keeps a change clock of its own, so that the tick a System or the Runner remembers keeps
+ * meaning the game loop of its own Engine while other Engines run in the same JVM
+ */
+public class ChangeClockTest {
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+
+    /**
+     * Test that game loops of another Engine neither move the clock of an Engine nor make its unchanged Components
+     * look changed, and that a change is stamped with the tick of its own Engine
+     */
+    @Test
+    public void testEnginesKeepTheirOwnClock() {
+        Entity mario = createEntity("mario");
+        Engine first = createEngine(mario);
+        Engine second = createEngine(createEntity("luigi"));
+        first.updateState(NO_INPUTS);
+        long since = first.getChangeTick() + 1;
+
+        for (int loop = 0; loop < 3; loop++) {
+            second.updateState(NO_INPUTS);
+        }
+
+        assertEquals(since - 1, first.getChangeTick());
+        assertTrue(first.getChangedEntities(XPositionComponent.class, since).isEmpty());
+        first.updateState(NO_INPUTS);
+        ((XPositionComponent) mario.getComponent(XPositionComponent.class)).setValue(10.0);
+        assertEquals(since, mario.getComponent(XPositionComponent.class).getChangeTick());
+        assertEquals(Collections.singletonList(mario), first.getChangedEntities(XPositionComponent.class, since));
+    }
+
+    /**
+     * Test that an Entity counts as changed on the game loop it enters the running game, whenever its Components were
+     * created
+     */
+    @Test
+    public void testAddedEntityCountsAsChanged() {
+        Engine engine = createEngine(createEntity("mario"));
+        Entity luigi = createEntity("luigi");
+        engine.updateState(NO_INPUTS);
+        engine.updateState(NO_INPUTS);
+        long since = engine.getChangeTick();
+
+        engine.addEntity(luigi);
+
+        assertEquals(since, luigi.getComponent(XPositionComponent.class).getChangeTick());
+        assertEquals(Collections.singletonList(luigi), engine.getChangedEntities(XPositionComponent.class, since));
+    }
+
+    private Entity createEntity(String name) {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent(name));
+        entity.addComponent(new XPositionComponent(0.0));
+        return entity;
+    }
+
+    // LivesSystem expects a player with lives on every game loop
+    private Engine createEngine(Entity entity) {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        level.addEntity(entity);
+        Entity player = new Entity();
+        player.addComponent(new LivesComponent(3.0));
+        level.addEntity(player);
+        return new Engine(level);
+    }
+}
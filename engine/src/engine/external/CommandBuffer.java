@@ -0,0 +1,155 @@
+package engine.external;
+
+import engine.external.component.Component;
+
+import java.util.Arrays;
+
+/**
+ * @author engine
+ *
+ * Structural changes (adding or removing Entities, attaching or detaching Components) recorded by the Systems of an
+ * Engine during a game loop. Nothing recorded touches the game until the Engine plays the buffer back at its next
+ * sync point, i.e. once the System, or the wave of concurrent Systems, that recorded it has finished (see
+ * SystemScheduler). Systems can therefore iterate their snapshot of Entities without copying it and without meeting
+ * Entities that appear or vanish half-way through.
+ *
+ * Commands are played back in the order they were recorded. Recording is thread-safe, but only a System running on
+ * its own gets a deterministic order; Systems running concurrently attach Components through
+ * VoogaSystem.addComponent instead.
+ */
+public final class CommandBuffer {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte ADD_ENTITY = 0;
+    private static final byte REMOVE_ENTITY = 1;
+    private static final byte ADD_COMPONENT = 2;
+    private static final byte REMOVE_COMPONENT = 3;
+    private static final byte DESTROY_ENTITY = 4;
+
+    private byte[] myCommands;
+    private Entity[] myEntities;
+    private Object[] myArguments;
+    private int mySize;
+
+    CommandBuffer() {
+        myCommands = new byte[INITIAL_CAPACITY];
+        myEntities = new Entity[INITIAL_CAPACITY];
+        myArguments = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Add an Entity to the running game at the next sync point
+     * @param entity Entity to add
+     */
+    public void addEntity(Entity entity) {
+        record(ADD_ENTITY, entity, null);
+    }
+
+    /**
+     * Remove an Entity from the running game at the next sync point
+     * @param entity Entity to remove
+     */
+    public void removeEntity(Entity entity) {
+        record(REMOVE_ENTITY, entity, null);
+    }
+
+    /**
+     * Destroy an Entity at the next sync point, see Engine.destroyEntity
+     * @param entity Entity to destroy
+     */
+    public void destroyEntity(Entity entity) {
+        record(DESTROY_ENTITY, entity, null);
+    }
+
+    /**
+     * Attach a Component to an Entity at the next sync point, replacing any Component of the same class
+     * @param entity Entity to attach the Component to
+     * @param component Component to attach
+     */
+    public void addComponent(Entity entity, Component<?> component) {
+        record(ADD_COMPONENT, entity, component);
+    }
+
+    /**
+     * Detach a Component class from an Entity at the next sync point
+     * @param entity Entity to detach the Component from
+     * @param componentClass class of the Component to detach
+     */
+    public void removeComponent(Entity entity, Class<? extends Component> componentClass) {
+        record(REMOVE_COMPONENT, entity, componentClass);
+    }
+
+    /**
+     * @return true if no command is waiting for the next sync point
+     */
+    public synchronized boolean isEmpty() {
+        return mySize == 0;
+    }
+
+    /**
+     * Apply the recorded commands to the game of an Engine in the order they were recorded, then forget them; expected
+     * to be called by Engine only, at every sync point
+     * @param engine Engine running the game the commands change
+     */
+    public void playback(Engine engine) {
+        int played = 0;
+        try {
+            // commands recorded while playing back are played back as well
+            while (played < size()) {
+                play(engine, played);
+                played++;
+            }
+        } finally {
+            clear();
+        }
+    }
+
+    private synchronized void record(byte command, Entity entity, Object argument) {
+        if (mySize == myCommands.length) {
+            int capacity = mySize * 2;
+            myCommands = Arrays.copyOf(myCommands, capacity);
+            myEntities = Arrays.copyOf(myEntities, capacity);
+            myArguments = Arrays.copyOf(myArguments, capacity);
+        }
+        myCommands[mySize] = command;
+        myEntities[mySize] = entity;
+        myArguments[mySize] = argument;
+        mySize++;
+    }
+
+    private synchronized int size() {
+        return mySize;
+    }
+
+    private void play(Engine engine, int index) {
+        Entity entity;
+        Object argument;
+        byte command;
+        synchronized (this) {
+            command = myCommands[index];
+            entity = myEntities[index];
+            argument = myArguments[index];
+        }
+        switch (command) {
+            case ADD_ENTITY:
+                engine.addEntity(entity);
+                break;
+            case REMOVE_ENTITY:
+                engine.removeEntity(entity);
+                break;
+            case DESTROY_ENTITY:
+                engine.destroyEntity(entity);
+                break;
+            case ADD_COMPONENT:
+                entity.addComponent((Component<?>) argument);
+                break;
+            default:
+                entity.removeComponent((Class<? extends Component>) argument);
+        }
+    }
+
+    private synchronized void clear() {
+        Arrays.fill(myEntities, 0, mySize, null);
+        Arrays.fill(myArguments, 0, mySize, null);
+        mySize = 0;
+    }
+}
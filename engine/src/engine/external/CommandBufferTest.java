@@ -0,0 +1,121 @@
+package engine.external;
+
+import engine.external.component.Component;
+import engine.external.component.HealthComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.ValueComponent;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author engine
+ * Tests that the structural changes recorded in the CommandBuffer of an Engine reach the game in the order they were
+ * recorded, including changes recorded while the buffer is being played back
+ */
+public class CommandBufferTest {
+
+    /**
+     * Test that commands touching the same Entity or Component class are played back in recording order, and that
+     * Entities receiving a Component join its Archetype in recording order
+     */
+    @Test
+    public void testPlaybackFollowsRecordingOrder() {
+        Entity first = createEntity("first");
+        Entity second = createEntity("second");
+        Entity third = createEntity("third");
+        Engine engine = createEngine(first, second, third);
+        CommandBuffer buffer = engine.getCommandBuffer();
+        Entity spawned = createEntity("spawned");
+
+        buffer.addComponent(first, new HealthComponent(1.0));
+        buffer.removeComponent(first, HealthComponent.class);
+        buffer.addComponent(third, new ValueComponent(1.0));
+        buffer.addComponent(first, new ValueComponent(1.0));
+        buffer.addComponent(first, new ValueComponent(2.0));
+        buffer.addComponent(second, new ValueComponent(1.0));
+        buffer.removeComponent(second, ValueComponent.class);
+        buffer.addComponent(second, new ValueComponent(3.0));
+        buffer.addEntity(spawned);
+        buffer.removeEntity(spawned);
+        assertFalse(buffer.isEmpty());
+        buffer.playback(engine);
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(2.0, valueOf(first));
+        assertEquals(3.0, valueOf(second));
+        assertFalse(first.hasComponents(HealthComponent.class));
+        assertFalse(engine.getEntities().contains(spawned));
+        assertEquals(Arrays.asList(third, first, second), entitiesWith(engine, ValueComponent.class));
+    }
+
+    /**
+     * Test that commands recorded while the buffer is played back, e.g. by an Entity reacting to a Component, are
+     * played back in the same sync point, after the commands recorded before
+     */
+    @Test
+    public void testCommandsRecordedDuringPlaybackRun() {
+        List<Entity> reacting = new ArrayList<>();
+        Entity second = createEntity("second");
+        Engine[] engine = new Engine[1];
+        Entity first = new Entity() {
+            @Override
+            public void addComponent(Collection<Component<?>> components) {
+                super.addComponent(components);
+                if (engine[0] != null) {
+                    reacting.add(this);
+                    engine[0].getCommandBuffer().addComponent(second, new ValueComponent(2.0));
+                }
+            }
+        };
+        first.addComponent(new NameComponent("first"));
+        engine[0] = createEngine(first, second);
+        CommandBuffer buffer = engine[0].getCommandBuffer();
+
+        buffer.addComponent(first, new ValueComponent(1.0));
+        buffer.addComponent(second, new ValueComponent(1.0));
+        buffer.playback(engine[0]);
+
+        assertEquals(Collections.singletonList(first), reacting);
+        assertTrue(buffer.isEmpty());
+        assertEquals(2.0, valueOf(second));
+    }
+
+    private Entity createEntity(String name) {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent(name));
+        return entity;
+    }
+
+    private Engine createEngine(Entity... entities) {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        for (Entity entity : entities) {
+            level.addEntity(entity);
+        }
+        return new Engine(level);
+    }
+
+    private double valueOf(Entity entity) {
+        return ((ValueComponent) entity.getComponent(ValueComponent.class)).getDouble();
+    }
+
+    private List<Entity> entitiesWith(Engine engine, Class<? extends Component> clazz) {
+        List<Entity> entities = new ArrayList<>();
+        for (Archetype archetype : engine.getArchetypes(Collections.singletonList(clazz))) {
+            for (int row = 0; row < archetype.size(); row++) {
+                entities.add(archetype.getEntity(row));
+            }
+        }
+        return entities;
+    }
+}
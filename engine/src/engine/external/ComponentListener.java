@@ -0,0 +1,24 @@
+package engine.external;
+
+import engine.external.component.Component;
+
+/**
+ * @author engine
+ *
+ * Told by an ArchetypeStore when a Component of the class it was registered for enters or leaves the running game:
+ * its Entity is attached or detached, or the Component is added, removed or replaced on an attached Entity. Moves of an
+ * Entity between Archetypes are not reported.
+ */
+public interface ComponentListener {
+    /**
+     * @param entity attached Entity carrying the Component
+     * @param component Component that is now part of the running game
+     */
+    void componentAttached(Entity entity, Component<?> component);
+
+    /**
+     * @param entity Entity that carried the Component
+     * @param component Component that is no longer part of the running game
+     */
+    void componentDetached(Entity entity, Component<?> component);
+}
@@ -0,0 +1,57 @@
+package engine.external;
+
+import engine.external.component.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author engine
+ *
+ * Assigns every Component class a small, dense integer id the first time it is seen. The ids index the columns of an
+ * Archetype and the bits of a component signature, so that checking whether an Entity carries a set of Components
+ * becomes a bit test instead of hashing a Class object for every lookup.
+ */
+public final class ComponentRegistry {
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private static final ClassValue<Integer> IDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return NEXT_ID.getAndIncrement();
+        }
+    };
+
+    private ComponentRegistry() {
+        // static utility, never instantiated
+    }
+
+    /**
+     * @param clazz Component class to look up
+     * @return dense id of the Component class, stable for the lifetime of the JVM
+     */
+    public static int idOf(Class<? extends Component> clazz) {
+        return IDS.get(clazz);
+    }
+
+    /**
+     * @return number of Component classes that have been assigned an id so far
+     */
+    public static int size() {
+        return NEXT_ID.get();
+    }
+
+    /**
+     * Build the signature (set of Component ids) of a collection of Component classes
+     * @param components Component classes to include in the signature
+     * @return BitSet with the id of every Component class set
+     */
+    public static BitSet signatureOf(Collection<Class<? extends Component>> components) {
+        BitSet signature = new BitSet();
+        for (Class<? extends Component> clazz : components) {
+            signature.set(idOf(clazz));
+        }
+        return signature;
+    }
+}
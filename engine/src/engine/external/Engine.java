@@ -1,8 +1,14 @@
 package engine.external;
 
+import engine.external.component.ChangeClock;
 import engine.external.component.Component;
+import engine.external.component.GroupComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.TimerComponent;
+import engine.external.component.TimerWheel;
 import engine.internal.systems.CollisionSystem;
 import engine.internal.systems.SaveGameSystem;
+import engine.internal.systems.SystemScheduler;
 import engine.internal.systems.VoogaSystem;
 import javafx.scene.input.KeyCode;
 import voogasalad.util.reflection.Reflection;
@@ -11,8 +17,11 @@ import voogasalad.util.reflection.ReflectionException;
 import java.util.ResourceBundle;
 import java.util.HashMap;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Enumeration;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Hsingchih Tang
@@ -23,20 +32,35 @@ public class Engine {
     private final ResourceBundle SYSTEM_COMPONENTS_RESOURCES = ResourceBundle.getBundle("SystemRequiredComponents");
     private final ResourceBundle SYSTEM_ORDER_RESOURCES = ResourceBundle.getBundle("SystemUpdateOrder");
     private final ResourceBundle REMOVABLE_COMPONENTS_RESOURCES = ResourceBundle.getBundle("SystemRemoveComponents");
+    private final ResourceBundle SYSTEM_ACCESS_RESOURCES = ResourceBundle.getBundle("SystemComponentAccess");
+    private final ResourceBundle ENGINE_SETTINGS_RESOURCES = ResourceBundle.getBundle("EngineSettings");
 
     public static final String SYSTEMS_PACKAGE_PATH = "engine.internal.systems.";
     public static final String COMPONENTS_PACKAGE_PATH = "engine.external.component.";
     private static final String EVENT_HANDLER_SYSTEM = "EventHandlerSystem";
     private static final String COLLISION_SYSTEM = "CollisionSystem";
     private static final String SAVE_GAME_SYSTEM = "SaveGameSystem";
+    private static final String PARALLEL_SYSTEMS = "ParallelSystems";
+    private static final String RECYCLE_ENTITIES = "RecycleEntities";
+    private static final String PREFAB_POOL_SIZE = "PrefabPoolSize";
+    private static final String SIMULATION_THREAD = "SimulationThread";
 
     private HashMap<Integer,VoogaSystem> mySystems;
     private CollisionSystem myCollisionSystem;
     private SaveGameSystem mySaveGameSystem;
+    private SystemScheduler mySystemScheduler;
     private Collection<Entity> myEntities;
+    private ArchetypeStore myArchetypeStore;
+    private CommandBuffer myCommandBuffer;
+    private PrefabRegistry myPrefabs;
+    private TimerWheel myTimerWheel;
+    private SymbolTable mySymbolTable;
+    private ChangeClock myChangeClock;
+    private EntityView myRenderView;
     private Collection<IEventEngine> myEvents;
     private Double myLevelHeight;
     private Double myLevelWidth;
+    private boolean myTwoPhaseEvents;
 
     /**
      * An Engine is expected be initialized by a GameRunner and accepts a Level object containing all data (Entities and
@@ -49,22 +73,27 @@ public class Engine {
         myEvents = level.getEvents();
         myLevelHeight = level.getHeight();
         myLevelWidth = level.getWidth();
+        myTwoPhaseEvents = level.isTwoPhaseEvents();
+        myCommandBuffer = new CommandBuffer();
+        myPrefabs = new PrefabRegistry(Boolean.parseBoolean(ENGINE_SETTINGS_RESOURCES.getString(RECYCLE_ENTITIES)),
+                Integer.parseInt(ENGINE_SETTINGS_RESOURCES.getString(PREFAB_POOL_SIZE)));
+        initArchetypeStore();
         initSystemMap();
+        initSystemScheduler();
     }
 
     /**
      * Call expected to be made by GameRunner. Accepts a Collection of KeyCode inputs received from GameRunner on
-     * the front end, and invokes all Systems one by one to update Entities' status and execute Events
+     * the front end, and invokes all Systems in their update order to update Entities' status and execute Events.
+     * Systems that do not touch each other's Components may run concurrently, see SystemScheduler
      * @param inputs collection of user Keycode inputs received on this game loop
      * @return all game Entities after being updated by Systems in current game loop
      */
     public synchronized Collection<Entity> updateState(Collection<KeyCode> inputs){
-        for(int i = 0; i<SYSTEM_ORDER_RESOURCES.keySet().size(); i++){
-            if(mySystems.get(i)!=null){
-
-                mySystems.get(i).update(myEntities,inputs);
-            }
-        }
+        myChangeClock.advance();
+        EnumSet<KeyCode> pressed = EnumSet.noneOf(KeyCode.class);
+        pressed.addAll(inputs);
+        mySystemScheduler.update(pressed);
         myCollisionSystem.adjustCollidedEntities();
         return this.getEntities();
     }
@@ -77,19 +106,135 @@ public class Engine {
     }
 
     /**
-     * Expected to be called by CleanupSystem for permanently removing an Entity from the running game
+     * Allows Systems to inspect the Events of the running game, e.g. CollisionSystem deriving which collisions any
+     * Event can react to
+     * @return read-only view of the Events of the running game
+     */
+    public Collection<IEventEngine> getEvents(){
+        return Collections.unmodifiableCollection(myEvents);
+    }
+
+    /**
+     * Allows Systems to record structural changes while they iterate their Entities; the Engine plays them back once
+     * the recording System (or wave of Systems) has finished
+     * @return the command buffer of the running game
+     */
+    public CommandBuffer getCommandBuffer(){
+        return myCommandBuffer;
+    }
+
+    /**
+     * Expected to be advanced by TimerSystem once per game loop
+     * @return the clock driving the TimerComponents of the running game
+     */
+    public TimerWheel getTimerWheel(){
+        return myTimerWheel;
+    }
+
+    /**
+     * Allows Systems and Conditions to compare the names and groups of the running game as symbols
+     * @return the table interning the names and groups of the running game
+     */
+    public SymbolTable getSymbolTable(){
+        return mySymbolTable;
+    }
+
+    /**
+     * Allows Systems and Runner to remember when they last looked at the running game, see getChangedEntities
+     * @return current tick of the change clock of this Engine, which moves forward at the start of every game loop
+     */
+    public long getChangeTick(){
+        return myChangeClock.getTick();
+    }
+
+    /**
+     * Permanently removes an Entity from the running game. Systems record the removal in getCommandBuffer() instead
      * @param e Entity to be removed
      */
     public void removeEntity(Entity e){
         myEntities.remove(e);
+        myArchetypeStore.detach(e);
+        myCollisionSystem.forgetEntity(e);
+    }
+
+    /**
+     * Removes an Entity whose DestroyComponent is set, for good: when RecycleEntities (see EngineSettings) is on and
+     * the Entity was spawned from a template, its Components are reset and kept for the next spawn of that template,
+     * so nothing may hold on to the Entity afterwards. Systems record the destruction in getCommandBuffer() instead
+     * @param e Entity to be destroyed
+     */
+    public void destroyEntity(Entity e){
+        removeEntity(e);
+        myPrefabs.recycle(e);
+    }
+
+    /**
+     * Expected to be called by AddEntitySystem for spawning a copy of a template Entity (the value of a
+     * SpawnEntityComponent). Gives the same copy as template.copyEntity(), through copiers compiled once per template,
+     * in a destroyed Entity of the same template if one has been recycled
+     * @param template Entity to copy
+     * @return the copy, not yet part of the running game
+     */
+    public Entity spawn(Entity template){
+        return myPrefabs.spawn(template);
     }
 
     /**
-     * Expected to be called by AddEntitySystem for adding an Entity to the running game
+     * Adds an Entity to the running game. Systems record the addition in getCommandBuffer() instead
      * @param e Entity to be added
      */
     public void addEntity(Entity e){
         myEntities.add(e);
+        myArchetypeStore.attach(e);
+    }
+
+    /**
+     * Allows Systems to keep data per Entity without holding on to removed Entities
+     * @param <T> data stored per Entity
+     * @return table indexed by Entity id, whose entries are cleared when their Entity leaves the running game
+     */
+    public <T> EntityTable<T> createEntityTable(){
+        return myArchetypeStore.createTable();
+    }
+
+    /**
+     * Allows Systems and Runner to process only what changed, e.g. the Entities whose position moved since they were
+     * last drawn. Remember getChangeTick() when looking, and pass it in the next time
+     * @param clazz Component class to check
+     * @param since tick of the change clock of this Engine (see getChangeTick()) from which on changes count
+     * @return Entities of the running game whose Component of the given class entered the game or was set on that tick
+     * or later
+     */
+    public List<Entity> getChangedEntities(Class<? extends Component> clazz, long since){
+        List<Entity> changed = new ArrayList<>();
+        for (Archetype archetype : getArchetypes(Collections.singletonList(clazz))) {
+            Archetype.Column column = archetype.getColumn(clazz);
+            for (int row = 0; row < archetype.size(); row++) {
+                if (column.get(row).hasChangedSince(since)) {
+                    changed.add(archetype.getEntity(row));
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Allows Systems to iterate the Component columns of all Entities that carry a given set of Components
+     * @param requiredComponents Component classes an Entity must carry
+     * @return every Archetype of the running game matching the required Components
+     */
+    public List<Archetype> getArchetypes(Collection<Class<? extends Component>> requiredComponents){
+        return myArchetypeStore.getMatchingArchetypes(ComponentRegistry.signatureOf(requiredComponents));
+    }
+
+    /**
+     * Expected to be called by every System on construction, so that its matching Entities are tracked incrementally
+     * instead of being filtered out of all Entities on each game loop
+     * @param requiredComponents Component classes an Entity must carry to be part of the view
+     * @return live view of the matching Entities
+     */
+    public EntityView createView(Collection<Class<? extends Component>> requiredComponents){
+        return myArchetypeStore.createView(requiredComponents);
     }
 
     /**
@@ -116,6 +261,48 @@ public class Engine {
         return myLevelWidth;
     }
 
+    /**
+     * Expected to be called by the Runner, or by Simulation, once a game loop has finished
+     * @return what the Runner needs to draw the current state of the game
+     */
+    public synchronized RenderSnapshot createRenderSnapshot(){
+        if (myRenderView == null) {
+            myRenderView = myArchetypeStore.createView(RenderSnapshot.REQUIRED_COMPONENTS);
+        }
+        return new RenderSnapshot(myRenderView.getArchetypes());
+    }
+
+    /**
+     * @return true if the Runner should run this Engine on a dedicated simulation thread (see Simulation) and draw
+     * its RenderSnapshots, false if it should call updateState() and draw the Entities itself
+     */
+    public boolean isSimulationThreadEnabled(){
+        return Boolean.parseBoolean(ENGINE_SETTINGS_RESOURCES.getString(SIMULATION_THREAD));
+    }
+
+    /**
+     * @return true if the Events of the current game level use two-phase evaluation, see Level.setTwoPhaseEvents
+     */
+    public boolean isTwoPhaseEvents(){
+        return myTwoPhaseEvents;
+    }
+
+    // Attach every Entity of the Level to a fresh ArchetypeStore so Component lookups are served from Archetype columns,
+    // with the TimerWheel listening for the TimerComponents and the SymbolTable for the names and groups that enter and
+    // leave the game
+    private void initArchetypeStore() {
+        myChangeClock = new ChangeClock();
+        myArchetypeStore = new ArchetypeStore(myChangeClock);
+        myTimerWheel = new TimerWheel();
+        mySymbolTable = new SymbolTable();
+        myArchetypeStore.addComponentListener(TimerComponent.class, myTimerWheel);
+        myArchetypeStore.addComponentListener(NameComponent.class, mySymbolTable);
+        myArchetypeStore.addComponentListener(GroupComponent.class, mySymbolTable);
+        for (Entity entity : myEntities) {
+            myArchetypeStore.attach(entity);
+        }
+    }
+
     // Loop over the System class names in the properties file, instantiate the concrete Systems, and store the Systems
     // mapped by their corresponding updating order on each game loop
     private void initSystemMap() {
@@ -127,6 +314,20 @@ public class Engine {
         }
     }
 
+    // Hand the Systems to a SystemScheduler in their update order, so that it can work out which of them may run
+    // concurrently from the Components they declare to read and write
+    private void initSystemScheduler() {
+        List<VoogaSystem> orderedSystems = new ArrayList<>();
+        for(int i = 0; i<SYSTEM_ORDER_RESOURCES.keySet().size(); i++){
+            if(mySystems.get(i)!=null){
+                orderedSystems.add(mySystems.get(i));
+            }
+        }
+        boolean parallel = Boolean.parseBoolean(ENGINE_SETTINGS_RESOURCES.getString(PARALLEL_SYSTEMS));
+        mySystemScheduler = new SystemScheduler(orderedSystems, SYSTEM_ACCESS_RESOURCES, parallel,
+                () -> myCommandBuffer.playback(this));
+    }
+
     // Use the reflection utility module's wrapper methods to instantiate the concrete System classes with the
     // corresponding set of required Components. EventHandlerSystem has a different constructor from the other Systems
     // and thus is instantiated differently, while SaveGameSystem and CollisionSystem have special methods (aside from
@@ -6,8 +6,11 @@ import engine.external.component.WidthComponent;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Lucas Liu
@@ -20,10 +23,21 @@ import java.util.Map;
  * constrained by the clever use of a map that takes Component class type as a key, and the actual instance of that component as the value. Each
  * Entity can only have one of each type of Component. This organization makes modifications of State easy (which happens quite frequently in a
  * game). The map also makes querying for relevant Components relatively streamlined.
+ *
+ * Once an Engine attaches the Entity to its ArchetypeStore, the Entity becomes a thin handle onto a row of the
+ * Archetype matching its set of Components, and lookups are served from the Archetype's columns. The map remains the
+ * serialized form of the Entity and is kept in step with the store on every add/remove.
  */
 public class Entity implements Serializable {
 
     private Map<Class<? extends Component>, Component<?>> myComponents;
+    private transient ArchetypeStore myStore;
+    private transient Archetype myArchetype;
+    private transient int myRow;
+    private transient int myId;
+    private transient int myGeneration;
+    private transient int myStructureVersion;
+    private transient long mySequence;
 
     public Entity() {
         myComponents = new HashMap<>();
@@ -51,7 +65,16 @@ public class Entity implements Serializable {
 
     public void addComponent(Collection<Component<?>> components) {
         for (Component<?> component: components) {
-            myComponents.put(component.getClass(), component);
+            Component<?> previous = myComponents.put(component.getClass(), component);
+            myStructureVersion++;
+            if (myStore == null) {
+                continue;
+            }
+            if (previous == null) {
+                myStore.componentAdded(this, component.getClass());
+            } else {
+                myStore.componentReplaced(this, component.getClass(), component);
+            }
         }
     }
 
@@ -61,7 +84,11 @@ public class Entity implements Serializable {
 
     public void removeComponent(Collection<Class<? extends Component>> componentClazzes){
         for (Class<? extends Component> clazz: componentClazzes) {
-            myComponents.remove(clazz);
+            Component<?> removed = myComponents.remove(clazz);
+            myStructureVersion++;
+            if (removed != null && myStore != null) {
+                myStore.componentRemoved(this, clazz);
+            }
         }
     }
 
@@ -86,19 +113,131 @@ public class Entity implements Serializable {
      * @return
      */
     public boolean hasComponents(Collection<Class<? extends Component>> components) {
-        return myComponents.keySet().containsAll(components);
+        if (myArchetype == null) {
+            return myComponents.keySet().containsAll(components);
+        }
+        for (Class<? extends Component> clazz: components) {
+            if (clazz == null || !myArchetype.hasComponent(ComponentRegistry.idOf(clazz))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean hasComponents(Class<? extends Component> component) {
-        return hasComponents(Arrays.asList(component));
+        if (myArchetype == null || component == null) {
+            return myComponents.containsKey(component);
+        }
+        return myArchetype.hasComponent(ComponentRegistry.idOf(component));
     }
 
     public Component<?> getComponent(Class<? extends Component> clazz) {
-        return myComponents.get(clazz);
+        if (myArchetype == null || clazz == null) {
+            return myComponents.get(clazz);
+        }
+        return myArchetype.get(ComponentRegistry.idOf(clazz), myRow);
     }
 
+    /**
+     * @return read-only view of the Components of this Entity mapped by their class; use addComponent/removeComponent
+     * to modify them so that an attached ArchetypeStore stays in step
+     */
     public Map<Class<? extends Component>, Component<?>> getComponentMap(){
-        return myComponents;
+        return Collections.unmodifiableMap(myComponents);
+    }
+
+    /**
+     * @return the Archetype this Entity currently belongs to, or null if it is not attached to an ArchetypeStore
+     */
+    public Archetype getArchetype() {
+        return myArchetype;
+    }
+
+    /**
+     * @return dense id assigned by the ArchetypeStore this Entity is attached to, or -1 if it is not attached; ids of
+     * removed Entities are reused, see getGeneration()
+     */
+    public int getId() {
+        return myGeneration == 0 ? -1 : myId;
+    }
+
+    /**
+     * @return generation of getId(), which differs between any two Entities that have held the same id; 0 if this
+     * Entity is not attached
+     */
+    public int getGeneration() {
+        return myGeneration;
+    }
+
+    void setId(int id, int generation) {
+        myId = id;
+        myGeneration = generation;
+    }
+
+    // Order in which the Entity was attached to its store, i.e. its place in Engine.getEntities(); see EntityView
+    long getSequence() {
+        return mySequence;
+    }
+
+    void setSequence(long sequence) {
+        mySequence = sequence;
+    }
+
+    // Used by Prefab to fill and empty Entities that are not attached to any store
+    void putComponent(Component<?> component) {
+        myComponents.put(component.getClass(), component);
+        myStructureVersion++;
+    }
+
+    void clearComponents() {
+        myComponents.clear();
+        myStructureVersion++;
+    }
+
+    // Resets the Components of the given classes to their original values and drops the others
+    void resetComponents(Set<Class<? extends Component>> componentClazzes) {
+        Iterator<Map.Entry<Class<? extends Component>, Component<?>>> entries = myComponents.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Class<? extends Component>, Component<?>> entry = entries.next();
+            if (componentClazzes.contains(entry.getKey())) {
+                entry.getValue().resetToOriginal();
+            } else {
+                entries.remove();
+                myStructureVersion++;
+            }
+        }
+    }
+
+    void dropComponent(Class<? extends Component> componentClazz) {
+        if (myComponents.remove(componentClazz) != null) {
+            myStructureVersion++;
+        }
+    }
+
+    int getComponentCount() {
+        return myComponents.size();
+    }
+
+    // Changes whenever a Component is added, replaced or removed
+    int getStructureVersion() {
+        return myStructureVersion;
+    }
+
+    ArchetypeStore getStore() {
+        return myStore;
+    }
+
+    void setStore(ArchetypeStore store) {
+        myStore = store;
+    }
+
+    int getRow() {
+        return myRow;
+    }
+
+    void setLocation(Archetype archetype, int row) {
+        myArchetype = archetype;
+        myRow = row;
     }
 
 
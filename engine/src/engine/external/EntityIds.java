@@ -0,0 +1,65 @@
+package engine.external;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author engine
+ *
+ * Hands out the dense ids of the Entities attached to an ArchetypeStore. The id of a detached Entity goes back to a
+ * free list and is reused by the next attached Entity, with its generation bumped so that the two Entities never
+ * share an (id, generation) pair. Releasing an id clears it in every EntityTable created by the store.
+ */
+final class EntityIds {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int FIRST_GENERATION = 1;
+
+    private int[] myGenerations;
+    private int[] myFreeIds;
+    private int myFreeCount;
+    private int myIdCount;
+    private List<EntityTable<?>> myTables;
+
+    EntityIds() {
+        myGenerations = new int[INITIAL_CAPACITY];
+        myFreeIds = new int[INITIAL_CAPACITY];
+        myTables = new ArrayList<>();
+    }
+
+    <T> EntityTable<T> createTable() {
+        EntityTable<T> table = new EntityTable<>();
+        myTables.add(table);
+        return table;
+    }
+
+    void assign(Entity entity) {
+        int id;
+        if (myFreeCount > 0) {
+            id = myFreeIds[--myFreeCount];
+        } else {
+            id = myIdCount++;
+            if (id == myGenerations.length) {
+                myGenerations = Arrays.copyOf(myGenerations, id * 2);
+            }
+            myGenerations[id] = FIRST_GENERATION;
+        }
+        entity.setId(id, myGenerations[id]);
+    }
+
+    void release(Entity entity) {
+        int id = entity.getId();
+        if (id < 0) {
+            return;
+        }
+        for (EntityTable<?> table : myTables) {
+            table.clear(id);
+        }
+        myGenerations[id]++;
+        if (myFreeCount == myFreeIds.length) {
+            myFreeIds = Arrays.copyOf(myFreeIds, myFreeCount * 2);
+        }
+        myFreeIds[myFreeCount++] = id;
+        entity.setId(0, 0);
+    }
+}
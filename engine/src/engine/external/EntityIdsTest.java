@@ -0,0 +1,86 @@
+package engine.external;
+
+import engine.external.component.ChangeClock;
+import engine.external.component.NameComponent;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author engine
+ * Tests that the id of a detached Entity is handed out again under a new generation, and that an EntityTable never
+ * mixes up an Entity with the one now holding its old id
+ */
+public class EntityIdsTest {
+
+    /**
+     * Test that an Entity attached after another was detached reuses its id with a different generation, and that
+     * attaching the detached Entity again does not give it back its old generation
+     */
+    @Test
+    public void testRecycledIdGetsNewGeneration() {
+        ArchetypeStore store = new ArchetypeStore(new ChangeClock());
+        Entity first = createEntity("first");
+        store.attach(first);
+        int id = first.getId();
+        int generation = first.getGeneration();
+
+        store.detach(first);
+        Entity second = createEntity("second");
+        store.attach(second);
+
+        assertEquals(id, second.getId());
+        assertNotEquals(generation, second.getGeneration());
+        store.detach(second);
+        store.attach(first);
+        assertEquals(id, first.getId());
+        assertNotEquals(generation, first.getGeneration());
+        assertNotEquals(second.getGeneration(), first.getGeneration());
+    }
+
+    /**
+     * Test that a detached Entity finds nothing in an EntityTable, neither its own entry, which detaching cleared, nor
+     * the entry of the Entity now holding its old id
+     */
+    @Test
+    public void testStaleEntityMissesTable() {
+        ArchetypeStore store = new ArchetypeStore(new ChangeClock());
+        EntityTable<String> table = store.createTable();
+        Entity first = createEntity("first");
+        store.attach(first);
+        table.put(first, "first");
+        Entity stale = copyHandle(first);
+
+        store.detach(first);
+        assertNull(table.get(first));
+        assertFalse(table.containsKey(first));
+        Entity second = createEntity("second");
+        store.attach(second);
+        table.put(second, "second");
+
+        assertEquals(stale.getId(), second.getId());
+        assertNull(table.get(stale));
+        assertFalse(table.containsKey(stale));
+        assertNull(table.remove(stale));
+        assertEquals("second", table.get(second));
+        assertTrue(table.containsKey(second));
+    }
+
+    private Entity createEntity(String name) {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent(name));
+        return entity;
+    }
+
+    // A handle that keeps the id and generation an Entity had while attached, as a System holding on to a destroyed
+    // Entity would see them if the Entity were not reset on detach
+    private Entity copyHandle(Entity entity) {
+        Entity handle = createEntity("handle");
+        handle.setId(entity.getId(), entity.getGeneration());
+        return handle;
+    }
+}
@@ -0,0 +1,90 @@
+package engine.external;
+
+import java.util.Arrays;
+
+/**
+ * @author engine
+ *
+ * Per-Entity data kept by a System (or any other part of the Engine), stored in an array indexed by the dense id the
+ * ArchetypeStore assigns to every attached Entity. Tables are created through Engine.createEntityTable, and the store
+ * clears an Entity's entry in every table the moment the Entity is detached, e.g. destroyed by CleanupSystem, so a
+ * table never outlives the Entities it describes.
+ *
+ * Every entry remembers the generation of the id it was stored under. Ids of detached Entities are reused, and an
+ * Entity handle that is no longer attached never sees the entry of the Entity now holding its old id. Entities that
+ * are not attached have no id; the table does not store anything for them.
+ *
+ * @param <T> data stored per Entity
+ */
+public final class EntityTable<T> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Object[] myValues;
+    private int[] myGenerations;
+
+    EntityTable() {
+        myValues = new Object[INITIAL_CAPACITY];
+        myGenerations = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @param entity any Entity
+     * @return the value stored for the Entity, or null if there is none
+     */
+    public T get(Entity entity) {
+        int id = entity.getId();
+        if (id < 0 || id >= myValues.length || myGenerations[id] != entity.getGeneration()) {
+            return null;
+        }
+        return (T) myValues[id];
+    }
+
+    /**
+     * @param entity any Entity
+     * @return true if a value is stored for the Entity
+     */
+    public boolean containsKey(Entity entity) {
+        int id = entity.getId();
+        return id >= 0 && id < myValues.length && myGenerations[id] == entity.getGeneration();
+    }
+
+    /**
+     * Store a value for an attached Entity, replacing the previous one; ignored for Entities that are not attached
+     * @param entity any Entity
+     * @param value value to store
+     */
+    public void put(Entity entity, T value) {
+        int id = entity.getId();
+        if (id < 0) {
+            return;
+        }
+        if (id >= myValues.length) {
+            int capacity = Math.max(id + 1, myValues.length * 2);
+            myValues = Arrays.copyOf(myValues, capacity);
+            myGenerations = Arrays.copyOf(myGenerations, capacity);
+        }
+        myValues[id] = value;
+        myGenerations[id] = entity.getGeneration();
+    }
+
+    /**
+     * @param entity any Entity
+     * @return the value that was stored for the Entity, or null if there was none
+     */
+    public T remove(Entity entity) {
+        if (!containsKey(entity)) {
+            return null;
+        }
+        T value = (T) myValues[entity.getId()];
+        clear(entity.getId());
+        return value;
+    }
+
+    // Called by the ArchetypeStore when the Entity holding an id is detached
+    void clear(int id) {
+        if (id < myValues.length) {
+            myValues[id] = null;
+            myGenerations[id] = 0;
+        }
+    }
+}
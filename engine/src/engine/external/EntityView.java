@@ -0,0 +1,97 @@
+package engine.external;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author engine
+ *
+ * A live view of every attached Entity carrying a given set of Components. The view is registered with an
+ * ArchetypeStore, which hands it each newly created Archetype matching its signature; membership then follows the
+ * Entities entering and leaving those Archetypes. The Entities are only re-collected when one of the matching
+ * Archetypes has actually changed since the last call, so an unchanged game costs one counter comparison per Archetype.
+ *
+ * Entities are listed in the order they were attached to the store, which is their order in Engine.getEntities(), as
+ * Systems walked them before Entities were stored by Archetype. Gaining or losing a Component moves an Entity to another
+ * Archetype, and leaving an Archetype moves its last Entity into the freed row, but neither changes its place here.
+ */
+public class EntityView {
+    private static final Comparator<Entity> ATTACH_ORDER = Comparator.comparingLong(Entity::getSequence);
+
+    private BitSet myRequired;
+    private List<Archetype> myArchetypes;
+    private int[] mySeenModificationCounts;
+    private List<Entity> mySnapshot;
+
+    EntityView(BitSet required) {
+        myRequired = required;
+        myArchetypes = new ArrayList<>();
+        mySeenModificationCounts = new int[0];
+        mySnapshot = Collections.emptyList();
+    }
+
+    /**
+     * Returns the Entities currently matching the view. The returned list is a stable snapshot: structural changes made
+     * while iterating it show up in the list returned by the next call, never in a list already handed out
+     * @return read-only list of matching Entities
+     */
+    public List<Entity> getEntities() {
+        if (isStale()) {
+            refresh();
+        }
+        return mySnapshot;
+    }
+
+    /**
+     * @return number of Entities currently matching the view
+     */
+    public int size() {
+        return getEntities().size();
+    }
+
+    /**
+     * @return read-only list of the Archetypes matching the view, in creation order; walking them visits the Entities
+     * grouped by Archetype, not in the order of getEntities()
+     */
+    public List<Archetype> getArchetypes() {
+        return Collections.unmodifiableList(myArchetypes);
+    }
+
+    BitSet getRequired() {
+        return myRequired;
+    }
+
+    // Called by the ArchetypeStore whenever it creates an Archetype matching this view
+    void addArchetype(Archetype archetype) {
+        myArchetypes.add(archetype);
+    }
+
+    private boolean isStale() {
+        if (mySeenModificationCounts.length != myArchetypes.size()) {
+            return true;
+        }
+        for (int k = 0; k < mySeenModificationCounts.length; k++) {
+            if (mySeenModificationCounts[k] != myArchetypes.get(k).getModificationCount()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refresh() {
+        List<Entity> entities = new ArrayList<>();
+        mySeenModificationCounts = new int[myArchetypes.size()];
+        for (int k = 0; k < myArchetypes.size(); k++) {
+            Archetype archetype = myArchetypes.get(k);
+            for (int row = 0; row < archetype.size(); row++) {
+                entities.add(archetype.getEntity(row));
+            }
+            mySeenModificationCounts[k] = archetype.getModificationCount();
+        }
+        entities.sort(ATTACH_ORDER);
+        mySnapshot = Collections.unmodifiableList(entities);
+    }
+}
@@ -0,0 +1,122 @@
+package engine.external;
+
+import engine.external.component.Component;
+import engine.external.component.DestroyComponent;
+import engine.external.component.HealthComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.XPositionComponent;
+import engine.external.component.YPositionComponent;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author engine
+ * Tests that an EntityView lists its Entities in the order of Engine.getEntities(), however the Entities move between
+ * Archetypes and rows as they gain and lose Components
+ */
+public class EntityViewTest {
+    private static final long SEED = 20190425L;
+    private static final int ENTITIES = 60;
+    private static final int CHANGES = 400;
+    private static final Collection<Class<? extends Component>> POSITIONED =
+            Collections.singletonList(XPositionComponent.class);
+
+    /**
+     * Test that the view keeps the order of Engine.getEntities() while random Entities gain and lose Components, and
+     * while Entities are removed from and added to the game
+     */
+    @Test
+    public void testViewFollowsEngineOrder() {
+        Random random = new Random(SEED);
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        List<Entity> entities = new ArrayList<>();
+        for (int k = 0; k < ENTITIES; k++) {
+            Entity entity = createEntity("entity" + k);
+            if (random.nextBoolean()) {
+                entity.addComponent(new HealthComponent(1.0));
+            }
+            entities.add(entity);
+            level.addEntity(entity);
+        }
+        Engine engine = new Engine(level);
+        EntityView view = engine.createView(POSITIONED);
+        assertEquals(positioned(engine), view.getEntities());
+
+        for (int k = 0; k < CHANGES; k++) {
+            Entity entity = entities.get(random.nextInt(entities.size()));
+            switch (random.nextInt(6)) {
+                case 0:
+                    entity.addComponent(new HealthComponent(1.0));
+                    break;
+                case 1:
+                    entity.removeComponent(HealthComponent.class);
+                    break;
+                case 2:
+                    entity.addComponent(new DestroyComponent(true));
+                    break;
+                case 3:
+                    entity.removeComponent(DestroyComponent.class);
+                    break;
+                case 4:
+                    engine.removeEntity(entity);
+                    break;
+                default:
+                    engine.addEntity(entity);
+                    break;
+            }
+            assertEquals(positioned(engine), view.getEntities(), "after change " + k);
+        }
+    }
+
+    /**
+     * Test that an Entity gaining the Components of a view joins it at its place in Engine.getEntities(), not after
+     * the Entities already in the view
+     */
+    @Test
+    public void testJoiningEntityKeepsItsPlace() {
+        Entity first = createEntity("first");
+        Entity second = new Entity();
+        second.addComponent(new NameComponent("second"));
+        Entity third = createEntity("third");
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        level.addEntity(first);
+        level.addEntity(second);
+        level.addEntity(third);
+        Engine engine = new Engine(level);
+        EntityView view = engine.createView(POSITIONED);
+
+        second.addComponent(new XPositionComponent(0.0));
+        second.addComponent(new YPositionComponent(0.0));
+
+        assertEquals(new ArrayList<>(engine.getEntities()), view.getEntities());
+    }
+
+    private Entity createEntity(String name) {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent(name));
+        entity.addComponent(new XPositionComponent(0.0));
+        entity.addComponent(new YPositionComponent(0.0));
+        return entity;
+    }
+
+    private List<Entity> positioned(Engine engine) {
+        List<Entity> entities = new ArrayList<>();
+        for (Entity entity : engine.getEntities()) {
+            if (entity.hasComponents(POSITIONED)) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+}
@@ -4,6 +4,7 @@ package engine.external;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 /**
  * @author Hsingchih Tang
@@ -21,6 +22,7 @@ public class Level implements Serializable {
     private Collection<Entity> myEntities;
     private Collection<IEventEngine> myEvents;
     private Level myCheckPoint;
+    private boolean myTwoPhaseEvents;
 
 
     /**
@@ -28,7 +30,7 @@ public class Level implements Serializable {
      * No duplicate Entity objects or Event objects allowed in the same Level
      */
     public Level() {
-        myEntities = new HashSet<>();
+        myEntities = new LinkedHashSet<>();
         myEvents = new HashSet<>();
     }
 
@@ -62,7 +64,7 @@ public class Level implements Serializable {
 
     /**
      * Retrieves all Entities attached to a Game Level
-     * @return HashSet of Entities stored for this Level
+     * @return Entities stored for this Level, in the order they were added
      */
     public Collection<Entity> getEntities() {
         return myEntities;
@@ -116,6 +118,25 @@ public class Level implements Serializable {
         myMusic = musicResource;
     }
 
+    /**
+     * Selects how the Events of this Level are evaluated. By default every Event tests its Conditions and runs its
+     * Actions Entity by Entity, so later Entities and Events see the effects of earlier Actions. With two-phase
+     * evaluation all Events first match their Conditions against the state of the game loop, concurrently once there
+     * are TwoPhaseMatchThreshold (see EngineSettings) pairs of Event and Entity, and only then run the Actions of every
+     * match, Event by Event and Entity by Entity
+     * @param twoPhase true for two-phase evaluation
+     */
+    public void setTwoPhaseEvents(boolean twoPhase) {
+        myTwoPhaseEvents = twoPhase;
+    }
+
+    /**
+     * @return true if the Events of this Level use two-phase evaluation, see setTwoPhaseEvents
+     */
+    public boolean isTwoPhaseEvents() {
+        return myTwoPhaseEvents;
+    }
+
     /**
      * Returns Label associated with a Level for display
      * @return String Level label
@@ -155,4 +176,11 @@ public class Level implements Serializable {
         return myHeight;
     }
 
+    // Levels saved before Entities were kept in insertion order come back with a HashSet; keep the order it had
+    private Object readResolve() {
+        if (myEntities != null && !(myEntities instanceof LinkedHashSet)) {
+            myEntities = new LinkedHashSet<>(myEntities);
+        }
+        return this;
+    }
 }
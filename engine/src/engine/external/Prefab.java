@@ -0,0 +1,155 @@
+package engine.external;
+
+import engine.external.component.Component;
+import engine.external.component.WidthComponent;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * @author engine
+ *
+ * A template Entity (the value of a SpawnEntityComponent) compiled for repeated spawning. For every Component of the
+ * template the prefab resolves, once, the constructor Entity.copyEntity would call reflectively on every copy, and
+ * turns it into a generated Function; instantiating the prefab then reads the template's current values and calls the
+ * copiers directly. The copies are exactly those of copyEntity: Components whose class has no public constructor taking
+ * their value's class are left out, and the WidthComponent grows by one.
+ *
+ * The prefab recompiles itself when a Component of the template has been replaced, added or removed, or a value no
+ * longer has the class the copier was compiled for. Instances come from a bounded pool of Entities recycled by the
+ * prefab (see PrefabRegistry) before new Entities are allocated. A recycled Entity keeps the Components the prefab
+ * copies, reset to their original values, and drops the others; instantiating it reuses every Component whose original
+ * value is still the value a copy would get, and copies the rest anew.
+ */
+final class Prefab {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType COPIER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Function.class);
+
+    private final Entity myTemplate;
+    private final int myPoolSize;
+    private final Deque<Entity> myPool;
+    private int myVersion;
+    private Component<?>[] mySources;
+    private Class<? extends Component>[] myClasses;
+    private Set<Class<? extends Component>> myCopiedClasses;
+    private Class<?>[] myValueClasses;
+    private Function<Object, Component<?>>[] myCopiers;
+
+    Prefab(Entity template, int poolSize) {
+        myTemplate = template;
+        myPoolSize = poolSize;
+        myPool = new ArrayDeque<>();
+        compile();
+    }
+
+    /**
+     * @return a new or recycled copy of the template, not attached to any store
+     */
+    Entity instantiate() {
+        Entity entity = myPool.isEmpty() ? new Entity() : myPool.pop();
+        if (myTemplate.getStructureVersion() != myVersion || !copyInto(entity)) {
+            compile();
+            entity.clearComponents();
+            copyInto(entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Take back an Entity instantiated from this prefab once it has been destroyed, unless the pool is full
+     * @param entity detached Entity
+     */
+    void recycle(Entity entity) {
+        if (myPool.size() >= myPoolSize) {
+            return;
+        }
+        entity.resetComponents(myCopiedClasses);
+        myPool.push(entity);
+    }
+
+    // Copies the current values of the template, keeping the Components of a recycled Entity that already hold them;
+    // false as soon as a value no longer has the class its copier was compiled for
+    private boolean copyInto(Entity entity) {
+        for (int k = 0; k < mySources.length; k++) {
+            Object value = mySources[k].getValue();
+            if ((value == null ? null : value.getClass()) != myValueClasses[k]) {
+                return false;
+            }
+            if (myCopiers[k] == null || isCopy(entity.getComponent(myClasses[k]), k, value)) {
+                continue;
+            }
+            try {
+                entity.putComponent(myCopiers[k].apply(value));
+            } catch (RuntimeException e) {
+                // same as copyEntity: a Component that cannot be copied is left out
+                entity.dropComponent(myClasses[k]);
+            }
+        }
+        return true;
+    }
+
+    // True if the Component, reset when it was recycled, holds what the copier would create from value
+    private boolean isCopy(Component<?> component, int k, Object value) {
+        if (component == null) {
+            return false;
+        }
+        if (myClasses[k] == WidthComponent.class) {
+            return component.getOriginalValue() != null
+                    && (Double) component.getOriginalValue() == (Double) value + 1;
+        }
+        return Objects.equals(component.getOriginalValue(), value);
+    }
+
+    private void compile() {
+        myVersion = myTemplate.getStructureVersion();
+        List<Component<?>> sources = new ArrayList<>(myTemplate.getComponentMap().values());
+        mySources = sources.toArray(new Component<?>[0]);
+        myClasses = new Class[mySources.length];
+        myCopiedClasses = new HashSet<>();
+        myValueClasses = new Class<?>[mySources.length];
+        myCopiers = new Function[mySources.length];
+        for (int k = 0; k < mySources.length; k++) {
+            myClasses[k] = mySources[k].getClass();
+            myValueClasses[k] = valueClass(mySources[k]);
+            myCopiers[k] = compileCopier(myClasses[k], myValueClasses[k]);
+            if (myCopiers[k] != null) {
+                myCopiedClasses.add(myClasses[k]);
+            }
+        }
+    }
+
+    private static Class<?> valueClass(Component<?> component) {
+        return component.getValue() == null ? null : component.getValue().getClass();
+    }
+
+    // Generates value -> new ComponentClass(value) for the constructor copyEntity would pick, or returns null if
+    // copyEntity would leave the Component out
+    private static Function<Object, Component<?>> compileCopier(Class<?> componentClass, Class<?> valueClass) {
+        if (componentClass == WidthComponent.class) {
+            return value -> new WidthComponent((Double) value + 1);
+        }
+        if (valueClass == null) {
+            return null;
+        }
+        try {
+            MethodHandle constructor = LOOKUP.unreflectConstructor(componentClass.getConstructor(valueClass));
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", FACTORY_TYPE, COPIER_TYPE, constructor,
+                    MethodType.methodType(componentClass, valueClass));
+            return (Function<Object, Component<?>>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
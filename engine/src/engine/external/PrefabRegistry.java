@@ -0,0 +1,50 @@
+package engine.external;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * @author engine
+ *
+ * The Prefabs of a running game, one per template Entity spawned so far; a template is registered the first time it
+ * is spawned and compiled from then on. When recycling is enabled, the registry remembers which Prefab every spawned
+ * Entity came from, and hands the Entity back to that Prefab's pool once it has been destroyed. Entities that are
+ * merely removed from the game may still be referenced and added back, so they are never recycled.
+ */
+final class PrefabRegistry {
+    private final Map<Entity, Prefab> myPrefabs;
+    private final Map<Entity, Prefab> mySpawned;
+    private final boolean myRecycling;
+    private final int myPoolSize;
+
+    /**
+     * @param recycling true to reuse the Entities of destroyed spawns for later spawns of the same template
+     * @param poolSize most Entities kept per Prefab for reuse
+     */
+    PrefabRegistry(boolean recycling, int poolSize) {
+        myPrefabs = new IdentityHashMap<>();
+        mySpawned = new IdentityHashMap<>();
+        myRecycling = recycling && poolSize > 0;
+        myPoolSize = poolSize;
+    }
+
+    Entity spawn(Entity template) {
+        Prefab prefab = myPrefabs.computeIfAbsent(template, t -> new Prefab(t, myRecycling ? myPoolSize : 0));
+        Entity entity = prefab.instantiate();
+        if (myRecycling) {
+            mySpawned.put(entity, prefab);
+        }
+        return entity;
+    }
+
+    // Called by Engine after a destroyed Entity has been removed from the running game
+    void recycle(Entity entity) {
+        if (!myRecycling) {
+            return;
+        }
+        Prefab prefab = mySpawned.remove(entity);
+        if (prefab != null) {
+            prefab.recycle(entity);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package engine.external;
+
+import engine.external.component.AnyCollidedComponent;
+import engine.external.component.CollisionComponent;
+import engine.external.component.Component;
+import engine.external.component.GroupComponent;
+import engine.external.component.HealthComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.SpriteComponent;
+import engine.external.component.WidthComponent;
+import engine.external.component.XPositionComponent;
+import engine.external.component.XVelocityComponent;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * @author engine
+ * Tests that spawning a template through its Prefab gives the same Entity as Entity.copyEntity, the reflective copy
+ * it replaces, whether the spawned Entity is new or a destroyed spawn recycled by the PrefabRegistry
+ */
+public class PrefabTest {
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * Test that a spawned Entity has the Components of copyEntity with the same values, including the WidthComponent
+     * grown by one and without the Components copyEntity leaves out, and shares no Component with the template
+     */
+    @Test
+    public void testSpawnMatchesCopyEntity() {
+        Entity template = createTemplate();
+        PrefabRegistry prefabs = new PrefabRegistry(false, POOL_SIZE);
+
+        Entity spawned = prefabs.spawn(template);
+
+        assertSameCopy(template.copyEntity(), spawned);
+        for (Component<?> component : spawned.getComponentMap().values()) {
+            assertNotSame(template.getComponent(component.getClass()), component);
+        }
+    }
+
+    /**
+     * Test that a spawned Entity follows the values and the Components the template has when it is spawned
+     */
+    @Test
+    public void testSpawnFollowsTemplateChanges() {
+        Entity template = createTemplate();
+        PrefabRegistry prefabs = new PrefabRegistry(false, POOL_SIZE);
+        prefabs.spawn(template);
+
+        ((XPositionComponent) template.getComponent(XPositionComponent.class)).setValue(30.0);
+        template.addComponent(new HealthComponent(3.0));
+        template.removeComponent(GroupComponent.class);
+
+        assertSameCopy(template.copyEntity(), prefabs.spawn(template));
+    }
+
+    /**
+     * Test that a destroyed spawn, changed while it was in the game, comes back from the pool as the same Entity as
+     * copyEntity, also after the template itself has changed in between
+     */
+    @Test
+    public void testRecycledSpawnMatchesCopyEntity() {
+        Entity template = createTemplate();
+        PrefabRegistry prefabs = new PrefabRegistry(true, POOL_SIZE);
+        Entity spawned = prefabs.spawn(template);
+        ((XPositionComponent) spawned.getComponent(XPositionComponent.class)).setValue(500.0);
+        ((WidthComponent) spawned.getComponent(WidthComponent.class)).setValue(1.0);
+        ((NameComponent) spawned.getComponent(NameComponent.class)).setValue("hit");
+        spawned.addComponent(new HealthComponent(0.0));
+        spawned.removeComponent(XVelocityComponent.class);
+
+        prefabs.recycle(spawned);
+        Entity recycled = prefabs.spawn(template);
+
+        assertSame(spawned, recycled);
+        assertSameCopy(template.copyEntity(), recycled);
+
+        ((SpriteComponent) template.getComponent(SpriteComponent.class)).setValue("shell.png");
+        ((WidthComponent) template.getComponent(WidthComponent.class)).setValue(8.0);
+        prefabs.recycle(recycled);
+        recycled = prefabs.spawn(template);
+
+        assertSame(spawned, recycled);
+        assertSameCopy(template.copyEntity(), recycled);
+    }
+
+    private Entity createTemplate() {
+        Entity template = new Entity();
+        template.addComponent(new NameComponent("bullet"));
+        template.addComponent(new GroupComponent("projectiles"));
+        template.addComponent(new XPositionComponent(10.0));
+        template.addComponent(new XVelocityComponent(5.0));
+        template.addComponent(new WidthComponent(4.0));
+        template.addComponent(new SpriteComponent("bullet.png"));
+        template.addComponent(new CollisionComponent(true));
+        // copyEntity finds no constructor taking an ArrayList, so it leaves this Component out
+        template.addComponent(new AnyCollidedComponent(new ArrayList<>()));
+        return template;
+    }
+
+    private void assertSameCopy(Entity expected, Entity actual) {
+        Map<Class<? extends Component>, Component<?>> expectedComponents = expected.getComponentMap();
+        assertEquals(expectedComponents.keySet(), actual.getComponentMap().keySet());
+        for (Component<?> component : expectedComponents.values()) {
+            Component<?> copy = actual.getComponent(component.getClass());
+            assertEquals(component.getValue(), copy.getValue());
+            assertEquals(component.getOriginalValue(), copy.getOriginalValue());
+        }
+    }
+}
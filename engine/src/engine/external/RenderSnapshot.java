@@ -0,0 +1,164 @@
+package engine.external;
+
+import engine.external.component.Component;
+import engine.external.component.DoubleComponent;
+import engine.external.component.HeightComponent;
+import engine.external.component.OpacityComponent;
+import engine.external.component.SpriteComponent;
+import engine.external.component.WidthComponent;
+import engine.external.component.XPositionComponent;
+import engine.external.component.YPositionComponent;
+import engine.external.component.ZPositionComponent;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author engine
+ *
+ * What the Runner needs to draw one game loop: position, size, sprite, opacity and z position of every Entity that
+ * carries a SpriteComponent, an X/YPositionComponent and a Width/HeightComponent, copied out of the Components once the
+ * loop has finished. A snapshot never changes after it has been taken, so it can be handed from the thread running the
+ * Engine to the JavaFX thread without locking (see Simulation). Entities without an OpacityComponent or a
+ * ZPositionComponent are recorded with an opacity of 1 and a z position of 0.
+ *
+ * Entries are identified by the id and generation of their Entity (see Entity.getId()), which stay the same from one
+ * snapshot to the next as long as the Entity is part of the game.
+ */
+public final class RenderSnapshot {
+    static final Collection<Class<? extends Component>> REQUIRED_COMPONENTS = Arrays.asList(SpriteComponent.class,
+            XPositionComponent.class, YPositionComponent.class, WidthComponent.class, HeightComponent.class);
+    private static final double DEFAULT_OPACITY = 1.0;
+    private static final double DEFAULT_Z = 0.0;
+
+    private final int mySize;
+    private final int[] myIds;
+    private final int[] myGenerations;
+    private final String[] mySprites;
+    private final double[] myX;
+    private final double[] myY;
+    private final double[] myWidths;
+    private final double[] myHeights;
+    private final double[] myOpacities;
+    private final double[] myZ;
+
+    // Copies the drawn Components of every Entity in the Archetypes, which must all carry REQUIRED_COMPONENTS
+    RenderSnapshot(List<Archetype> archetypes) {
+        int size = 0;
+        for (Archetype archetype : archetypes) {
+            size += archetype.size();
+        }
+        mySize = size;
+        myIds = new int[size];
+        myGenerations = new int[size];
+        mySprites = new String[size];
+        myX = new double[size];
+        myY = new double[size];
+        myWidths = new double[size];
+        myHeights = new double[size];
+        myOpacities = new double[size];
+        myZ = new double[size];
+        int index = 0;
+        for (Archetype archetype : archetypes) {
+            Archetype.Column sprites = archetype.getColumn(SpriteComponent.class);
+            Archetype.Column xs = archetype.getColumn(XPositionComponent.class);
+            Archetype.Column ys = archetype.getColumn(YPositionComponent.class);
+            Archetype.Column widths = archetype.getColumn(WidthComponent.class);
+            Archetype.Column heights = archetype.getColumn(HeightComponent.class);
+            Archetype.Column opacities = archetype.getColumn(OpacityComponent.class);
+            Archetype.Column zs = archetype.getColumn(ZPositionComponent.class);
+            for (int row = 0; row < archetype.size(); row++, index++) {
+                Entity entity = archetype.getEntity(row);
+                myIds[index] = entity.getId();
+                myGenerations[index] = entity.getGeneration();
+                mySprites[index] = (String) sprites.get(row).getValue();
+                myX[index] = ((DoubleComponent) xs.get(row)).getDouble();
+                myY[index] = ((DoubleComponent) ys.get(row)).getDouble();
+                myWidths[index] = ((DoubleComponent) widths.get(row)).getDouble();
+                myHeights[index] = ((DoubleComponent) heights.get(row)).getDouble();
+                myOpacities[index] = opacities == null ? DEFAULT_OPACITY : ((DoubleComponent) opacities.get(row)).getDouble();
+                myZ[index] = zs == null ? DEFAULT_Z : ((DoubleComponent) zs.get(row)).getDouble();
+            }
+        }
+    }
+
+    /**
+     * @return number of Entities in this snapshot
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return id of the Entity, see Entity.getId()
+     */
+    public int getId(int index) {
+        return myIds[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return generation of the Entity's id, see Entity.getGeneration()
+     */
+    public int getGeneration(int index) {
+        return myGenerations[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return name of the image to draw the Entity with
+     */
+    public String getSprite(int index) {
+        return mySprites[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return x position of the Entity
+     */
+    public double getX(int index) {
+        return myX[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return y position of the Entity
+     */
+    public double getY(int index) {
+        return myY[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return width of the Entity
+     */
+    public double getWidth(int index) {
+        return myWidths[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return height of the Entity
+     */
+    public double getHeight(int index) {
+        return myHeights[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return opacity of the Entity
+     */
+    public double getOpacity(int index) {
+        return myOpacities[index];
+    }
+
+    /**
+     * @param index entry between 0 and size()-1
+     * @return z position of the Entity; 1 puts it in front
+     */
+    public double getZ(int index) {
+        return myZ[index];
+    }
+}
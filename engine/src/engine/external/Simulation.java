@@ -0,0 +1,99 @@
+package engine.external;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author engine
+ *
+ * Runs the game loops of an Engine on a dedicated simulation thread, so that a slow game loop does not hold up input
+ * handling and painting on the JavaFX thread (see EngineSettings, SimulationThread).
+ *
+ * The JavaFX thread asks for game loops with requestTick() and keeps drawing getLatestSnapshot(), the RenderSnapshot
+ * published at the end of the last finished game loop; both are handed over through atomic references, without
+ * locking. The Entities of the Engine belong to the simulation thread while a game loop is running: the JavaFX thread
+ * may only read or change them when isIdle() is true, and until it requests the next game loop. A request made while a
+ * game loop is still running is refused, so the game runs at most one game loop per frame, and fewer when game loops
+ * take longer than a frame.
+ */
+public final class Simulation {
+    private static final long IDLE_SECONDS = 1;
+
+    private final Engine myEngine;
+    private final ThreadPoolExecutor myThread;
+    private final AtomicBoolean myTicking;
+    private final AtomicReference<RenderSnapshot> mySnapshot;
+
+    /**
+     * @param engine Engine to run; its current state is published as the first snapshot
+     */
+    public Simulation(Engine engine) {
+        myEngine = engine;
+        myThread = new ThreadPoolExecutor(1, 1, IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the thread goes away while the game is paused, and with the game once it is over
+        myThread.allowCoreThreadTimeOut(true);
+        myTicking = new AtomicBoolean();
+        mySnapshot = new AtomicReference<>(engine.createRenderSnapshot());
+    }
+
+    /**
+     * Start the next game loop on the simulation thread, unless the previous one is still running
+     * @param inputs KeyCodes pressed for the game loop; copied, so the caller may keep changing its collection
+     * @return true if the game loop was started
+     */
+    public boolean requestTick(Collection<KeyCode> inputs) {
+        if (!myTicking.compareAndSet(false, true)) {
+            return false;
+        }
+        EnumSet<KeyCode> pressed = EnumSet.noneOf(KeyCode.class);
+        pressed.addAll(inputs);
+        try {
+            myThread.execute(() -> tick(pressed));
+        } catch (RuntimeException e) {
+            myTicking.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if no game loop is running, i.e. the caller may read and change the Entities of the Engine
+     */
+    public boolean isIdle() {
+        return !myTicking.get();
+    }
+
+    /**
+     * @return snapshot published by the last finished game loop
+     */
+    public RenderSnapshot getLatestSnapshot() {
+        return mySnapshot.get();
+    }
+
+    /**
+     * Let the simulation thread finish the running game loop, if any, and end it
+     */
+    public void shutdown() {
+        myThread.shutdown();
+    }
+
+    private void tick(Collection<KeyCode> inputs) {
+        try {
+            myEngine.updateState(inputs);
+            mySnapshot.set(myEngine.createRenderSnapshot());
+        } finally {
+            myTicking.set(false);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package engine.external;
+
+import engine.external.component.Component;
+import engine.external.component.LabelComponent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author engine
+ * Interns the names and groups of a game as dense int ids, so that Conditions can compare labels without comparing
+ * Strings. Every Engine owns a table and registers it with its ArchetypeStore for NameComponents and GroupComponents:
+ * the labels of the Level's Entities get the first ids as they are attached, labels met later (new Entities, renamed
+ * Entities, authored Conditions) are interned on first use. Every label change of the running game is counted, so that
+ * anything indexing Entities by label can tell whether its index is still up to date by comparing one counter.
+ *
+ * A symbol is an id packed together with the generation of the table that assigned it. Labels attached to the running
+ * game hold their symbol in this table; Conditions cache the symbol of their target and re-intern it when asked for
+ * the symbol in another table, e.g. when the same Level is run by a second Engine. Two symbols of the same table are
+ * equal exactly when their labels are equal, so comparisons must resolve both sides against the same table.
+ */
+public final class SymbolTable implements ComponentListener {
+    /**
+     * Symbol that is never assigned, for callers that need to mark a missing label
+     */
+    public static final long NO_SYMBOL = -1L;
+    private static final int NULL_ID = 0;
+    private static final AtomicInteger GENERATIONS = new AtomicInteger();
+
+    private final int myGeneration;
+    private final Map<String, Integer> myIds;
+    private final AtomicInteger myNextId;
+    private final AtomicInteger myModificationCount;
+
+    public SymbolTable() {
+        myGeneration = GENERATIONS.incrementAndGet();
+        myIds = new ConcurrentHashMap<>();
+        myNextId = new AtomicInteger(NULL_ID + 1);
+        myModificationCount = new AtomicInteger();
+    }
+
+    /**
+     * Hand a name or group entering the running game its symbol in this table
+     * @param entity attached Entity carrying the label
+     * @param component NameComponent or GroupComponent of the Entity
+     */
+    @Override
+    public void componentAttached(Entity entity, Component<?> component) {
+        if (component instanceof LabelComponent) {
+            ((LabelComponent) component).attach(this);
+            countModification();
+        }
+    }
+
+    /**
+     * @param entity Entity that carried the label
+     * @param component NameComponent or GroupComponent leaving the running game
+     */
+    @Override
+    public void componentDetached(Entity entity, Component<?> component) {
+        if (component instanceof LabelComponent) {
+            ((LabelComponent) component).detach(this);
+            countModification();
+        }
+    }
+
+    /**
+     * Expected to be called by a LabelComponent attached to this table whenever its value changes
+     */
+    public void countModification() {
+        myModificationCount.incrementAndGet();
+    }
+
+    /**
+     * @return a counter bumped every time a label of the running game is attached, detached or changed
+     */
+    public int getModificationCount() {
+        return myModificationCount.get();
+    }
+
+    /**
+     * @param label name or group, may be null
+     * @return dense id of the label in this table; null has an id of its own that no other label shares
+     */
+    public int intern(String label) {
+        if (label == null) {
+            return NULL_ID;
+        }
+        Integer id = myIds.get(label);
+        return id != null ? id : myIds.computeIfAbsent(label, l -> myNextId.getAndIncrement());
+    }
+
+    /**
+     * @param symbol symbol cached by the caller for the label, or any other value if none is cached
+     * @param label the label itself
+     * @return symbol unchanged if this table assigned it, the symbol of label in this table otherwise
+     */
+    public long resolve(long symbol, String label) {
+        if ((int) (symbol >>> Integer.SIZE) == myGeneration) {
+            return symbol;
+        }
+        return ((long) myGeneration << Integer.SIZE) | intern(label);
+    }
+
+    /**
+     * @param entity any Entity
+     * @param clazz NameComponent or GroupComponent
+     * @return symbol of the Entity's label in this table, or NO_SYMBOL if it has no such label or its value is null
+     */
+    public long symbolOf(Entity entity, Class<? extends LabelComponent> clazz) {
+        Component<?> label = entity.getComponent(clazz);
+        if (!(label instanceof LabelComponent) || label.getValue() == null) {
+            return NO_SYMBOL;
+        }
+        return ((LabelComponent) label).getSymbol(this);
+    }
+
+    /**
+     * @return number of labels interned so far
+     */
+    public int size() {
+        return myIds.size();
+    }
+}
@@ -0,0 +1,84 @@
+package engine.external;
+
+import engine.external.component.AnyCollidedComponent;
+import engine.external.component.GroupComponent;
+import engine.external.component.NameComponent;
+import engine.external.conditions.CollisionCondition;
+import engine.external.conditions.StringEqualToCondition;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+/**
+ * @author engine
+ * Tests that every Engine compares the names and groups of its Entities in a SymbolTable of its own, so that a second
+ * Engine running in the same JVM (e.g. the next Level being built) does not disturb the first
+ */
+public class SymbolTableTest {
+
+    /**
+     * Test that Conditions shared by two running Engines keep matching the labels of either Engine, in any order
+     */
+    @Test
+    public void testConditionsMatchEveryRunningEngine() {
+        StringEqualToCondition isMario = new StringEqualToCondition(NameComponent.class, "mario");
+        CollisionCondition hitsHero = new CollisionCondition(AnyCollidedComponent.class, "hero", true);
+        Entity mario = createEntity("mario", "hero");
+        Entity goomba = createEntity("goomba", "enemy");
+        goomba.addComponent(new AnyCollidedComponent(Collections.singletonList(mario)));
+        Engine first = createEngine(mario, goomba);
+        Entity luigi = createEntity("luigi", "hero");
+        Entity koopa = createEntity("koopa", "enemy");
+        koopa.addComponent(new AnyCollidedComponent(Collections.singletonList(luigi)));
+        Engine second = createEngine(createEntity("mario", "villain"), luigi, koopa);
+
+        assertNotSame(first.getSymbolTable(), second.getSymbolTable());
+        for (int round = 0; round < 2; round++) {
+            assertTrue(isMario.test(mario));
+            assertFalse(isMario.test(luigi));
+            assertTrue(hitsHero.test(goomba));
+            assertTrue(hitsHero.test(koopa));
+        }
+    }
+
+    /**
+     * Test that a label change is counted by the SymbolTable of its own Engine only, and compared with its new value
+     */
+    @Test
+    public void testLabelChangesStayInTheirEngine() {
+        Entity mario = createEntity("mario", "hero");
+        Engine first = createEngine(mario);
+        Engine second = createEngine(createEntity("luigi", "hero"));
+        int firstCount = first.getSymbolTable().getModificationCount();
+        int secondCount = second.getSymbolTable().getModificationCount();
+
+        ((NameComponent) mario.getComponent(NameComponent.class)).setValue("wario");
+
+        assertEquals(firstCount + 1, first.getSymbolTable().getModificationCount());
+        assertEquals(secondCount, second.getSymbolTable().getModificationCount());
+        assertFalse(new StringEqualToCondition(NameComponent.class, "mario").test(mario));
+        assertTrue(new StringEqualToCondition(NameComponent.class, "wario").test(mario));
+    }
+
+    private Entity createEntity(String name, String group) {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent(name));
+        entity.addComponent(new GroupComponent(group));
+        return entity;
+    }
+
+    private Engine createEngine(Entity... entities) {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        for (Entity entity : entities) {
+            level.addEntity(entity);
+        }
+        return new Engine(level);
+    }
+}
@@ -0,0 +1,27 @@
+package engine.external.component;
+
+/**
+ * @author engine
+ *
+ * Change clock of a running game, owned by its Engine, which moves it forward at the start of every game loop. The
+ * Components of the game's Entities stamp themselves with its current tick whenever they enter the game or their value
+ * is set, so a tick read from one Engine's clock means "that game loop of this Engine", whatever other Engines run in
+ * the same JVM.
+ */
+public final class ChangeClock {
+    private volatile long myTick;
+
+    /**
+     * @return current tick, i.e. the number of game loops started so far
+     */
+    public long getTick() {
+        return myTick;
+    }
+
+    /**
+     * Move the clock one tick forward; expected to be called by Engine only, at the start of every game loop
+     */
+    public void advance() {
+        myTick++;
+    }
+}
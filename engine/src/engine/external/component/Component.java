@@ -6,10 +6,17 @@ import java.io.Serializable;
  * @param <T> data to be stored; T can be any type (e.g. String, Double, Boolean, Collection, etc.)
  * @author Lucas Liu
  * Containers for storing necessary data of Entities. Simply has a getter and setter.
+ *
+ * While its Entity is part of a running game, every Component also remembers the tick of that game's ChangeClock on
+ * which it entered the game or its value was last set, so that Systems and the Runner can tell what changed since they
+ * last looked (see Engine.getChangedEntities). The clock is advanced by the Engine at the start of every game loop;
+ * changes made inside a value (e.g. to a List held by the Component) are not tracked.
  */
 public abstract class Component<T> implements Serializable {
     protected T myValue;
     protected T myOriginalValue;
+    private transient ChangeClock myClock;
+    private transient long myChangeTick;
 
     public Component(T value) {
         myValue = value;
@@ -18,13 +25,75 @@ public abstract class Component<T> implements Serializable {
 
     public void setValue(T value) {
         myValue = value;
+        markChanged();
     }
 
     public T getValue() {
         return myValue;
     }
 
+    /**
+     * @return the value this Component was created with, which resetToOriginal() restores
+     */
+    public T getOriginalValue() {
+        return myOriginalValue;
+    }
+
     public void resetToOriginal() {
         myValue = myOriginalValue;
+        markChanged();
+    }
+
+    /**
+     * Expected to be called by ArchetypeStore when the Entity of this Component becomes part of the running game
+     * owning the clock, or the Component is added to such an Entity; entering the game counts as a change
+     * @param clock ChangeClock of the running game
+     */
+    public void attach(ChangeClock clock) {
+        myClock = clock;
+        markChanged();
+    }
+
+    /**
+     * Expected to be called by ArchetypeStore when the Component leaves the running game owning the clock
+     * @param clock ChangeClock of the running game
+     */
+    public void detach(ChangeClock clock) {
+        if (myClock == clock) {
+            myClock = null;
+        }
+    }
+
+    /**
+     * @return tick of the ChangeClock of the running game on which this Component entered the game or its value was
+     * last set; 0 for a Component that has never been part of a running game
+     */
+    public long getChangeTick() {
+        return myChangeTick;
+    }
+
+    /**
+     * @param tick tick of the ChangeClock of the running game, see Engine.getChangeTick()
+     * @return true if this Component entered the game or its value was set on that tick or later
+     */
+    public boolean hasChangedSince(long tick) {
+        return getChangeTick() >= tick;
+    }
+
+    /**
+     * @return current tick of the ChangeClock of the running game this Component is part of, or getChangeTick() if it
+     * is not part of one
+     */
+    protected long getCurrentChangeTick() {
+        ChangeClock clock = myClock;
+        return clock == null ? myChangeTick : clock.getTick();
+    }
+
+    // To be called by subclasses that store their value without going through setValue
+    protected final void markChanged() {
+        ChangeClock clock = myClock;
+        if (clock != null) {
+            myChangeTick = clock.getTick();
+        }
     }
 }
@@ -5,7 +5,7 @@ package engine.external.component;
  *
  * This component stores the direction of an entity, which we have encoded as an integer.
  */
-public class DirectionComponent extends Component<Double> {
+public class DirectionComponent extends DoubleComponent {
     private final static double DEFAULT = 2.0;
 
     public DirectionComponent(Double value) {
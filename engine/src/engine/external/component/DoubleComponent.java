@@ -0,0 +1,103 @@
+package engine.external.component;
+
+/**
+ * @author engine
+ * <p>
+ * Component storing a primitive double. Systems on the physics path read and write the value through getDouble() and
+ * setDouble(), which never box. getValue()/setValue() keep working for all existing callers (Actions, Conditions,
+ * Authoring, Runner); the boxed Double is only created lazily when someone asks for it through getValue().
+ * <p>
+ * getValue() may be called from several threads at once, e.g. by Conditions matched concurrently (see
+ * TwoPhaseEvaluation), so it never trusts a flag written by another reader: it checks the cached Double against the
+ * primitive and re-boxes if they differ. A Double is immutable, so a racing reader sees either a complete cached Double
+ * or one that fails the check, never a half-published one.
+ * <p>
+ * The inherited myValue/myOriginalValue fields remain the serialized form, so levels saved before this class existed
+ * load unchanged: the boxed fields are brought up to date before serialization and the primitives are restored from
+ * them after deserialization.
+ */
+public abstract class DoubleComponent extends Component<Double> {
+    private transient double myDouble;
+    private transient double myOriginalDouble;
+    private transient boolean myNull;
+
+    public DoubleComponent(Double value) {
+        super(value);
+        myDouble = unbox(value);
+        myOriginalDouble = myDouble;
+        myNull = value == null;
+    }
+
+    /**
+     * @return the current value without boxing
+     */
+    public double getDouble() {
+        return myDouble;
+    }
+
+    /**
+     * Sets the current value without boxing
+     * @param value new value
+     */
+    public void setDouble(double value) {
+        assign(value);
+    }
+
+    /**
+     * @return the value this Component was created with, without boxing
+     */
+    public double getOriginalDouble() {
+        return myOriginalDouble;
+    }
+
+    @Override
+    public void setValue(Double value) {
+        setDouble(unbox(value));
+    }
+
+    @Override
+    public Double getValue() {
+        if (myNull) {
+            return null;
+        }
+        Double boxed = myValue;
+        if (boxed == null || Double.doubleToRawLongBits(boxed) != Double.doubleToRawLongBits(myDouble)) {
+            boxed = myDouble;
+            myValue = boxed;
+        }
+        return boxed;
+    }
+
+    @Override
+    public void resetToOriginal() {
+        assign(myOriginalDouble);
+    }
+
+    // Store a new value without going through the overridable setter, so history-bearing subclasses can decide when an
+    // assignment counts as a change; writing back the value already held does not count as a change of the value
+    protected final void assign(double value) {
+        if (Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(myDouble)) {
+            markChanged();
+        }
+        myDouble = value;
+        myNull = false;
+    }
+
+    // Bring the serialized boxed field up to date before Java serialization or XStream writes this Component out
+    protected Object writeReplace() {
+        getValue();
+        return this;
+    }
+
+    // Restore the primitives from the serialized boxed fields after Java serialization or XStream reads this Component
+    protected Object readResolve() {
+        myDouble = unbox(myValue);
+        myOriginalDouble = unbox(myOriginalValue);
+        myNull = myValue == null;
+        return this;
+    }
+
+    private static double unbox(Double value) {
+        return value == null ? 0.0 : value;
+    }
+}
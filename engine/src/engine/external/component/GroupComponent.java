@@ -4,7 +4,7 @@ package engine.external.component;
  * @author engine
  * This component stores the group of an entity so that group events can affect all entities of a group.
  */
-public class GroupComponent extends Component<String> {
+public class GroupComponent extends LabelComponent {
     private final static String DEFAULT = "NoGroup";
 
     public GroupComponent(String name) {
@@ -5,7 +5,7 @@ package engine.external.component;
  * Stores the health value of an Entity
  * An Entity should by default be destroyed once its health falls below zero
  */
-public class HealthComponent extends Component<Double> {
+public class HealthComponent extends DoubleComponent {
     private final static double DEFAULT = 2.0;
 
     public HealthComponent(Double value) {
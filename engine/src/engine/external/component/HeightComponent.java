@@ -5,7 +5,7 @@ package engine.external.component;
  * Stores the height value of the ImageView of this Entity if it also has a SpriteComponent
  * ImageViewSystem adjusts the ImageView for Entities on each game loop using the value stored in this Component
  */
-public class HeightComponent extends Component<Double> {
+public class HeightComponent extends DoubleComponent {
 
     private final static double DEFAULT = 10.0;
 
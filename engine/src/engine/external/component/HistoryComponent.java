@@ -0,0 +1,20 @@
+package engine.external.component;
+
+/**
+ * @author engine
+ * <p>
+ * Implemented by Components with one-step history, such as the X/Y PositionComponents, so that Systems can read the
+ * current and previous values through direct, unboxed calls instead of looking up "getOldValue" reflectively
+ */
+public interface HistoryComponent {
+
+    /**
+     * @return the current value
+     */
+    double getDouble();
+
+    /**
+     * @return the value held before the last change
+     */
+    double getOldDouble();
+}
@@ -0,0 +1,77 @@
+package engine.external.component;
+
+import engine.external.SymbolTable;
+
+/**
+ * @author engine
+ * Common superclass of the String Components that label an Entity, i.e. its name and its group, which Events use to
+ * pick the Entities they apply to. While its Entity is part of a running game, a label holds its symbol in the game's
+ * SymbolTable, so that Conditions compare labels as ints, and reports every change of its value to that table.
+ */
+public abstract class LabelComponent extends Component<String> {
+    private transient SymbolTable myTable;
+    private transient long mySymbol;
+
+    public LabelComponent(String label) {
+        super(label);
+    }
+
+    @Override
+    public void setValue(String value) {
+        super.setValue(value);
+        relabel();
+    }
+
+    @Override
+    public void resetToOriginal() {
+        super.resetToOriginal();
+        relabel();
+    }
+
+    /**
+     * Expected to be called by SymbolTable when the label enters the running game owning the table
+     * @param table SymbolTable of the running game
+     */
+    public void attach(SymbolTable table) {
+        myTable = table;
+        mySymbol = table.resolve(SymbolTable.NO_SYMBOL, myValue);
+    }
+
+    /**
+     * Expected to be called by SymbolTable when the label leaves the running game owning the table
+     * @param table SymbolTable of the running game
+     */
+    public void detach(SymbolTable table) {
+        if (myTable == table) {
+            myTable = null;
+        }
+    }
+
+    /**
+     * @return SymbolTable of the running game the label is part of, or null if its Entity is not part of one
+     */
+    public SymbolTable getSymbolTable() {
+        return myTable;
+    }
+
+    /**
+     * @param table table to resolve the label against, normally getSymbolTable()
+     * @return symbol of the current label in table; equal to the symbol of another label of the same table exactly
+     * when the two labels are equal
+     */
+    public long getSymbol(SymbolTable table) {
+        if (table == myTable) {
+            return mySymbol;
+        }
+        return table.resolve(SymbolTable.NO_SYMBOL, myValue);
+    }
+
+    // Keep the symbol in step with the value, so that reading it never writes
+    private void relabel() {
+        SymbolTable table = myTable;
+        if (table != null) {
+            mySymbol = table.resolve(SymbolTable.NO_SYMBOL, myValue);
+            table.countModification();
+        }
+    }
+}
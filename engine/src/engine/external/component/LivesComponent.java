@@ -5,7 +5,7 @@ package engine.external.component;
  * Stores the number of lives left only for the main game character Entity of a Level
  * Player loses the game by default once the number of lives fall below zero
  */
-public class LivesComponent extends Component<Double> {
+public class LivesComponent extends DoubleComponent {
     private final static double DEFAULT = 2.0;
 
     public LivesComponent(Double value) {
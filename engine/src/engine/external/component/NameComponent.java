@@ -5,7 +5,7 @@ package engine.external.component;
  * Stores the individual name String of an Entity
  * Every Entity should have a unique name
  */
-public class NameComponent extends Component<String> {
+public class NameComponent extends LabelComponent {
     private final static String DEFAULT = "NoName";
     public NameComponent(String name) {
         super(name);
@@ -6,7 +6,7 @@ package engine.external.component;
  * Stores the Double indicating opacity of an Entity's ImageView if it has a SpriteComponent
  * ImageViewSystem adjusts the ImageView for Entities on each game loop using the value stored in this Component
  */
-public class OpacityComponent extends Component<Double> {
+public class OpacityComponent extends DoubleComponent {
 
     private final static double DEFAULT = 1.0;
 
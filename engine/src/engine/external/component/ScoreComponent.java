@@ -5,7 +5,7 @@ package engine.external.component;
  * Stores the current score earned by a player
  * Transferrable across multiple levels in the same game
  */
-public class ScoreComponent extends Component<Double> {
+public class ScoreComponent extends DoubleComponent {
     private final static double DEFAULT = 1.0;
 
     public ScoreComponent() {
@@ -3,10 +3,22 @@ package engine.external.component;
 /**
  * @author engine
  *
- * This component holds a timer value for each entity, which is decremented every refresh by the Timer System
+ * This component holds a timer value for each entity, which goes down by one on every refresh of the Timer System
+ * until it reaches exactly zero
+ *
+ * While its Entity is part of a running game, the Component is driven by the Engine's TimerWheel rather than
+ * decremented: the value that was last set is kept together with the tick it was set on, and readers get that value
+ * minus the ticks elapsed since. A value that counts down to zero gets a deadline on the wheel, which stops the timer
+ * there; any other value (zero, negative or fractional) never stops and needs no deadline.
  */
-public class TimerComponent extends Component<Double> {
+public class TimerComponent extends DoubleComponent {
     private final static double DEFAULT = 10.0;
+    // above this, decrementing a double by one no longer changes it
+    private final static double MAX_EXACT = 1L << 53;
+
+    private transient TimerWheel myWheel;
+    private transient long myStartTick;
+    private transient TimerWheel.Entry myEntry;
 
     public TimerComponent(Double value) {
         super(value);
@@ -14,4 +26,116 @@ public class TimerComponent extends Component<Double> {
     public TimerComponent() {
         super(DEFAULT);
     }
+
+    @Override
+    public double getDouble() {
+        double value = super.getDouble();
+        TimerWheel wheel = myWheel;
+        if (wheel == null || isStopped(value)) {
+            return value;
+        }
+        double elapsed = wheel.getTick() - myStartTick;
+        return countsDown(value) ? Math.max(value - elapsed, 0.0) : value - elapsed;
+    }
+
+    @Override
+    public Double getValue() {
+        Double stored = super.getValue();
+        if (myWheel == null) {
+            return stored;
+        }
+        double value = getDouble();
+        return stored != null && Double.doubleToLongBits(stored) == Double.doubleToLongBits(value) ? stored : value;
+    }
+
+    // A running timer changes on every tick without being set
+    @Override
+    public long getChangeTick() {
+        if (myWheel != null && !isStopped(super.getDouble())) {
+            return getCurrentChangeTick();
+        }
+        return super.getChangeTick();
+    }
+
+    @Override
+    public void setDouble(double value) {
+        assign(value);
+        restart();
+    }
+
+    @Override
+    public void resetToOriginal() {
+        setDouble(getOriginalDouble());
+    }
+
+    // Called by the TimerWheel once the Entity of this Component has become part of its game
+    void attach(TimerWheel wheel) {
+        if (myWheel == wheel) {
+            return;
+        }
+        if (myWheel != null) {
+            detach(myWheel);
+        }
+        myWheel = wheel;
+        restart();
+    }
+
+    // Called by the TimerWheel once the Entity of this Component has left its game; the timer keeps its current value
+    void detach(TimerWheel wheel) {
+        if (myWheel != wheel) {
+            return;
+        }
+        assign(getDouble());
+        cancel();
+        myWheel = null;
+    }
+
+    // Called by the TimerWheel on the tick of a deadline
+    void expire(TimerWheel.Entry entry) {
+        if (entry != myEntry) {
+            return;
+        }
+        myEntry = null;
+        assign(0.0);
+        myStartTick = myWheel.getTick();
+    }
+
+    // Bring the stored value up to date with the wheel before the Component is written out; the deadline stays
+    @Override
+    protected Object writeReplace() {
+        if (myWheel != null) {
+            assign(getDouble());
+            myStartTick = myWheel.getTick();
+        }
+        return super.writeReplace();
+    }
+
+    // Count from the value just stored, starting at the current tick
+    private void restart() {
+        if (myWheel == null) {
+            return;
+        }
+        cancel();
+        myStartTick = myWheel.getTick();
+        double value = super.getDouble();
+        if (countsDown(value)) {
+            myEntry = myWheel.schedule(this, myStartTick + (long) value);
+        }
+    }
+
+    private void cancel() {
+        if (myEntry != null) {
+            myEntry.cancel();
+            myEntry = null;
+        }
+    }
+
+    // Same test as the Timer System's: only +0.0 equals 0.0 as a Double
+    private static boolean isStopped(double value) {
+        return Double.doubleToLongBits(value) == 0L;
+    }
+
+    private static boolean countsDown(double value) {
+        return value >= 1 && value <= MAX_EXACT && value == Math.rint(value);
+    }
 }
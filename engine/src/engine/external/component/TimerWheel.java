@@ -0,0 +1,140 @@
+package engine.external.component;
+
+import engine.external.ComponentListener;
+import engine.external.Entity;
+
+/**
+ * @author engine
+ *
+ * Game clock of the TimerComponents of a running game. Every call to advance() is one tick, i.e. one step down for
+ * every running timer. Instead of decrementing each TimerComponent, the wheel remembers the tick a timer was last set
+ * on, and the timer derives its current value from the ticks elapsed since then (see TimerComponent). Only a timer that
+ * will reach zero has a deadline; the wheel stops it there, so a tick costs as much as the timers expiring on it.
+ *
+ * Deadlines are kept in a hierarchical timing wheel: four levels of 64 slots, the first one holding the deadlines of the
+ * next 64 ticks one per slot, each further level holding 64 times longer spans per slot. Whenever the first level wraps
+ * around, the next slot of the level above is cascaded down into it. Deadlines beyond the last level wait in an overflow
+ * list that is cascaded whenever all levels wrap around. Timers set again before their deadline cancel their entry,
+ * which is dropped when its slot comes up.
+ *
+ * The wheel listens to the ArchetypeStore of its Engine, so a timer only runs while its Entity is part of the game.
+ */
+public final class TimerWheel implements ComponentListener {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Entry[][] myLevels;
+    private Entry myOverflow;
+    private long myTick;
+
+    public TimerWheel() {
+        myLevels = new Entry[LEVELS][SLOTS];
+    }
+
+    /**
+     * @return number of ticks elapsed since the wheel was created
+     */
+    public long getTick() {
+        return myTick;
+    }
+
+    /**
+     * Move the clock one tick forward and stop every timer that reaches zero on the new tick
+     */
+    public void advance() {
+        long tick = myTick + 1;
+        int index = (int) (tick & SLOT_MASK);
+        if (index == 0) {
+            cascade(tick);
+        }
+        myTick = tick;
+        Entry due = myLevels[0][index];
+        myLevels[0][index] = null;
+        for (Entry entry = due; entry != null; entry = entry.myNext) {
+            if (entry.myTimer != null) {
+                entry.myTimer.expire(entry);
+            }
+        }
+    }
+
+    @Override
+    public void componentAttached(Entity entity, Component<?> component) {
+        ((TimerComponent) component).attach(this);
+    }
+
+    @Override
+    public void componentDetached(Entity entity, Component<?> component) {
+        ((TimerComponent) component).detach(this);
+    }
+
+    // Called by TimerComponent when it starts counting down towards a deadline after the current tick
+    Entry schedule(TimerComponent timer, long deadline) {
+        Entry entry = new Entry(timer, deadline);
+        place(entry);
+        return entry;
+    }
+
+    // Puts an entry in the slot of its deadline, relative to the next tick to be processed
+    private void place(Entry entry) {
+        long next = myTick + 1;
+        long deadline = Math.max(entry.myDeadline, next);
+        long delta = deadline - next;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int slot = (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+                entry.myNext = myLevels[level][slot];
+                myLevels[level][slot] = entry;
+                return;
+            }
+        }
+        entry.myNext = myOverflow;
+        myOverflow = entry;
+    }
+
+    // Moves the entries of the upper-level slots that start at tick down, while myTick is still the tick before
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Entry entries = myLevels[level][slot];
+            myLevels[level][slot] = null;
+            replace(entries);
+            if (slot != 0) {
+                return;
+            }
+        }
+        Entry overflow = myOverflow;
+        myOverflow = null;
+        replace(overflow);
+    }
+
+    private void replace(Entry entries) {
+        Entry entry = entries;
+        while (entry != null) {
+            Entry next = entry.myNext;
+            if (entry.myTimer != null) {
+                place(entry);
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * A deadline of one TimerComponent; cancelled entries have no timer
+     */
+    static final class Entry {
+        private TimerComponent myTimer;
+        private final long myDeadline;
+        private Entry myNext;
+
+        private Entry(TimerComponent timer, long deadline) {
+            myTimer = timer;
+            myDeadline = deadline;
+        }
+
+        void cancel() {
+            myTimer = null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package engine.external.component;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author engine
+ * Tests that TimerComponents driven by a TimerWheel stop on the same ticks as under the TimerSystem they replace, which
+ * took one off every TimerComponent on every game loop until it reached exactly zero
+ */
+public class TimerWheelTest {
+    private static final long SEED = 20190425L;
+    // ticks covered by the first level, the first two, the first three and all four levels; beyond is the overflow list
+    private static final long[] LEVEL_SPANS = {1L << 6, 1L << 12, 1L << 18, 1L << 24};
+    private static final int RANDOM_TIMERS = 24;
+    private static final int RESETS = 48;
+
+    /**
+     * Test timers whose deadlines fall just before, on and just after the span of every level of the wheel, set on
+     * the first tick and on the last tick before each level wraps around
+     */
+    @Test
+    public void testLevelBoundariesMatchTimerSystem() {
+        List<Setting> settings = new ArrayList<>();
+        int timer = 0;
+        for (long start : new long[] {0, LEVEL_SPANS[0] - 1, LEVEL_SPANS[1] - 1, LEVEL_SPANS[2] - 1}) {
+            for (long span : LEVEL_SPANS) {
+                for (long delta = span - 1; delta <= span + 1; delta++) {
+                    settings.add(new Setting(start, timer++, delta));
+                }
+            }
+        }
+        assertSameExpiries(timer, settings);
+    }
+
+    /**
+     * Test random timers set on random ticks and set again before or after they stop, with values reaching every level
+     * and the overflow list, as well as values that never reach zero
+     */
+    @Test
+    public void testRandomTimersMatchTimerSystem() {
+        Random random = new Random(SEED);
+        List<Setting> settings = new ArrayList<>();
+        for (int timer = 0; timer < RANDOM_TIMERS; timer++) {
+            settings.add(new Setting(random.nextInt((int) LEVEL_SPANS[2]), timer, randomValue(random)));
+        }
+        for (int k = 0; k < RESETS; k++) {
+            settings.add(new Setting(random.nextInt((int) LEVEL_SPANS[3]), random.nextInt(RANDOM_TIMERS),
+                    randomValue(random)));
+        }
+        assertSameExpiries(RANDOM_TIMERS, settings);
+    }
+
+    // Mostly whole values of any level, some beyond the last one, some that count past zero
+    private double randomValue(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return random.nextInt(100) + 0.5;
+            case 1:
+                return -random.nextInt(100);
+            case 2:
+                return LEVEL_SPANS[3] + random.nextInt((int) LEVEL_SPANS[2]);
+            default:
+                return 1 + random.nextInt((int) LEVEL_SPANS[random.nextInt(LEVEL_SPANS.length)]);
+        }
+    }
+
+    // Runs the settings on a wheel and on plain values decremented once per tick, as TimerSystem did, until every
+    // timer of both has stopped or can no longer stop; then compares the ticks every timer stopped on and its value
+    private void assertSameExpiries(int timers, List<Setting> settings) {
+        settings.sort(Comparator.comparingLong(setting -> setting.myTick));
+        TimerWheel wheel = new TimerWheel();
+        RecordingTimer[] wheelTimers = new RecordingTimer[timers];
+        double[] loopValues = new double[timers];
+        List<List<Long>> loopExpiries = new ArrayList<>();
+        for (int k = 0; k < timers; k++) {
+            wheelTimers[k] = new RecordingTimer(wheel);
+            wheelTimers[k].attach(wheel);
+            loopExpiries.add(new ArrayList<>());
+        }
+        long lastTick = 0;
+        for (Setting setting : settings) {
+            lastTick = Math.max(lastTick, setting.myTick + (long) Math.max(setting.myValue, 0) + 1);
+        }
+
+        int next = 0;
+        for (long tick = 0; tick <= lastTick; tick++) {
+            if (tick > 0) {
+                wheel.advance();
+                for (int k = 0; k < timers; k++) {
+                    if (!Double.valueOf(loopValues[k]).equals(0.0)) {
+                        loopValues[k] -= 1.0;
+                        if (Double.valueOf(loopValues[k]).equals(0.0)) {
+                            loopExpiries.get(k).add(tick);
+                        }
+                    }
+                }
+            }
+            for (; next < settings.size() && settings.get(next).myTick == tick; next++) {
+                Setting setting = settings.get(next);
+                assertEquals(loopValues[setting.myTimer], wheelTimers[setting.myTimer].getDouble(),
+                        "timer " + setting.myTimer + " on tick " + tick);
+                loopValues[setting.myTimer] = setting.myValue;
+                wheelTimers[setting.myTimer].setDouble(setting.myValue);
+            }
+        }
+
+        for (int k = 0; k < timers; k++) {
+            assertEquals(loopExpiries.get(k), wheelTimers[k].myExpiries, "timer " + k);
+            assertEquals(loopValues[k], wheelTimers[k].getDouble(), "timer " + k);
+        }
+    }
+
+    // The value a timer is set to on a tick, after the game loop of that tick
+    private static class Setting {
+        private final long myTick;
+        private final int myTimer;
+        private final double myValue;
+
+        Setting(long tick, int timer, double value) {
+            myTick = tick;
+            myTimer = timer;
+            myValue = value;
+        }
+    }
+
+    // Remembers every tick the wheel stops it on
+    private static class RecordingTimer extends TimerComponent {
+        private final TimerWheel myWheel;
+        private final List<Long> myExpiries;
+
+        RecordingTimer(TimerWheel wheel) {
+            super(0.0);
+            myWheel = wheel;
+            myExpiries = new ArrayList<>();
+        }
+
+        @Override
+        void expire(TimerWheel.Entry entry) {
+            myExpiries.add(myWheel.getTick());
+            super.expire(entry);
+        }
+    }
+}
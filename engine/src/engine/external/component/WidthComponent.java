@@ -5,7 +5,7 @@ package engine.external.component;
  * Stores the width value of the ImageView of this Entity if it also has a SpriteComponent
  * ImageViewSystem adjusts the ImageView for Entities on each game loop using the value stored in this Component
  */
-public class WidthComponent extends Component<Double> {
+public class WidthComponent extends DoubleComponent {
 
     private final static double DEFAULT = 10.0;
 
@@ -4,7 +4,7 @@ package engine.external.component;
  * @author Hsingchih Tang
  * Stores a double value indicating the current acceleration of an Entity in X direction
  */
-public class XAccelerationComponent extends Component<Double> {
+public class XAccelerationComponent extends DoubleComponent {
 
     private final static double DEFAULT = 0.0;
 
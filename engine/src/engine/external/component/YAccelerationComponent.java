@@ -4,7 +4,7 @@ package engine.external.component;
  * @author Hsingchih Tang
  * Stores a double value indicating the current acceleration of an Entity in Y direction
  */
-public class YAccelerationComponent extends Component<Double> {
+public class YAccelerationComponent extends DoubleComponent {
 
     private final static double DEFAULT = 0.0;
 
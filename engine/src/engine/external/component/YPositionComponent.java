@@ -8,33 +8,49 @@ package engine.external.component;
  * Stores double values indicating the current and previous positions of an Entity in Y direction
  * Automatically updates oldValue field whenever value is changed
  */
-public class YPositionComponent extends Component<Double> {
+public class YPositionComponent extends DoubleComponent implements HistoryComponent {
     private final static double DEFAULT = 0.0;
-    private Double oldValue;
-
+    private double oldValue;
 
     public YPositionComponent() {
-        super(DEFAULT);
+        this(DEFAULT);
     }
 
     public YPositionComponent(Double value) {
         super(value);
-        oldValue = value;
+        oldValue = getDouble();
+    }
+
+    @Override
+    public void setDouble(double value) {
+        oldValue = getDouble();
+        assign(value);
     }
 
     @Override
-    public void setValue(Double value) {
-        oldValue = Double.valueOf(myValue);
-        myValue = value;
+    public double getOldDouble() {
+        return oldValue;
     }
 
     public Double getOldValue() {
         return oldValue;
     }
 
+    /**
+     * Restores the original value and forgets the previous one, as if this Component had just been created
+     */
+    @Override
+    public void resetToOriginal() {
+        revertDouble(getOriginalDouble());
+    }
+
+    public void revertDouble(double value) {
+        assign(value);
+        oldValue = value;
+    }
+
     public void revertValue(Double value) {
-        myValue = Double.valueOf(value);
-        oldValue = Double.valueOf(value);
+        revertDouble(value);
     }
 
-}
\ No newline at end of file
+}
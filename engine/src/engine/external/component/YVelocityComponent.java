@@ -4,7 +4,7 @@ package engine.external.component;
  * @author Hsingchih Tang
  * Stores a double value indicating the current velocity of an Entity in Y direction
  */
-public class YVelocityComponent extends Component<Double> {
+public class YVelocityComponent extends DoubleComponent {
 
     private final static double DEFAULT = 1.0;
 
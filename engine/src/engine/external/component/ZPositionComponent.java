@@ -5,7 +5,7 @@ package engine.external.component;
  * Stores a double value indicating the "layer" an Entity's ImageView is on
  * Used by Runner to organize front-end display of Entities
  */
-public class ZPositionComponent extends Component<Double> {
+public class ZPositionComponent extends DoubleComponent {
 
     private final static double DEFAULT = 0.0;
 
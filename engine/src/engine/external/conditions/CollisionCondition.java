@@ -1,11 +1,14 @@
 package engine.external.conditions;
 
 import engine.external.Entity;
+import engine.external.SymbolTable;
 import engine.external.component.Component;
 import engine.external.component.GroupComponent;
+import engine.external.component.LabelComponent;
 import engine.external.component.NameComponent;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.function.Predicate;
 
@@ -16,10 +19,15 @@ import java.util.function.Predicate;
  * <p>
  * Collision Condition for an Event. Gets a DirecitonalCollidedComponent and checks to see if it matches the correct entity, indicating a collision
  * with a particular type of game element.
+ * Collided Entities in a running game are matched through their name or group symbol in the game's SymbolTable,
+ * without allocating
  */
 public class CollisionCondition extends Condition {
     private String myDirection;
     private String myEntity;
+    private Class<? extends Component> myCollidedClass;
+    private Class<? extends Component> myLabelClass;
+    private transient volatile long mySymbol;
     private static final String COLLIDEDCLASS = "CollidedComponent";
     private static final String COLLISION = " Collision with ";
 
@@ -37,10 +45,50 @@ public class CollisionCondition extends Condition {
                 )));
         myEntity = entityType;
         myDirection = directionalCollidedComponent.getSimpleName();
+        myCollidedClass = directionalCollidedComponent;
+        myLabelClass = clazz;
     }
 
     private boolean matchNames(String entityType, Entity entity, Class<? extends Component> clazz) {
-        return new StringEqualToCondition(clazz, entityType).getPredicate().test(entity);
+        return entity.getComponent(clazz).getValue().equals(entityType);
+    }
+
+    @Override
+    public boolean test(Entity entity) {
+        if (myCollidedClass == null || myLabelClass == null) {
+            // loaded from a game saved before the classes were stored
+            return super.test(entity);
+        }
+        for (Entity collided : (Collection<Entity>) entity.getComponent(myCollidedClass).getValue()) {
+            Component<?> label = collided.getComponent(myLabelClass);
+            SymbolTable table = label instanceof LabelComponent ? ((LabelComponent) label).getSymbolTable() : null;
+            if (table != null && label.getValue() != null) {
+                if (((LabelComponent) label).getSymbol(table) == getSymbol(table)) {
+                    return true;
+                }
+            } else if (label.getValue().equals(myEntity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // symbol of the collision partner's label in table, cached for the table asked last
+    private long getSymbol(SymbolTable table) {
+        long symbol = mySymbol;
+        long resolved = table.resolve(symbol, myEntity);
+        if (resolved != symbol) {
+            mySymbol = resolved;
+        }
+        return resolved;
+    }
+
+    @Override
+    Object getSharingKey() {
+        if (myCollidedClass == null || myLabelClass == null) {
+            return super.getSharingKey();
+        }
+        return Arrays.asList(getClass(), myCollidedClass, myLabelClass, myEntity);
     }
 
     @Override
@@ -38,6 +38,16 @@ public abstract class Condition {
         return myPredicate;
     }
 
+    /**
+     * Test this Condition on an Entity. Same result as getPredicate().test(entity); subclasses may test faster than
+     * their serializable Predicate
+     * @param entity Entity to test
+     * @return true if the Entity meets this Condition
+     */
+    public boolean test(Entity entity) {
+        return myPredicate.test(entity);
+    }
+
     public String toString() {
         return this.getClass().getSimpleName();
     }
@@ -45,4 +55,13 @@ public abstract class Condition {
     public Class<? extends Component> getMyComponentClass() {
         return myComponentClass;
     }
+
+    /**
+     * Conditions with equal sharing keys perform the same test, so a ConditionNetwork evaluates them only once per
+     * Entity. By default a Condition only shares its test with itself
+     * @return key identifying the test performed by this Condition
+     */
+    Object getSharingKey() {
+        return this;
+    }
 }
@@ -0,0 +1,157 @@
+package engine.external.conditions;
+
+import engine.external.Entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author engine
+ *
+ * Shared discrimination network for the Conditions of the Events of a Level. Conditions performing the same test (same
+ * kind of Condition, same Component class, same target value) compile to the same node, whatever Event they belong to,
+ * and every node remembers its result per Entity. A test shared by several Events therefore runs once per Entity, and
+ * its result is reused until the network is invalidated.
+ *
+ * Cached results stay valid as long as no Component value they depend on may have changed. Event execution is the only
+ * thing running while Events are evaluated, so the network is invalidated at the start of every game loop, after any
+ * Action has fired and whenever a Condition had to attach a missing Component to an Entity.
+ */
+public class ConditionNetwork {
+    private final Map<Object, Node> myNodes;
+    private long myEpoch;
+
+    public ConditionNetwork() {
+        myNodes = new HashMap<>();
+        myEpoch = 1;
+    }
+
+    /**
+     * Map a list of Conditions onto the nodes of this network, creating nodes for tests not seen before
+     * @param conditions Conditions of one Event
+     * @return the node of every Condition, in the same order
+     */
+    public Node[] compile(List<Condition> conditions) {
+        Node[] nodes = new Node[conditions.size()];
+        for (int k = 0; k < nodes.length; k++) {
+            Condition condition = conditions.get(k);
+            nodes[k] = myNodes.computeIfAbsent(condition.getSharingKey(), key -> new Node(condition));
+        }
+        return nodes;
+    }
+
+    /**
+     * Test an Entity against a list of compiled Conditions, in order, stopping at the first that fails. A Condition
+     * whose Component is missing fails, like a Condition throwing a NullPointerException did when tested directly
+     * @param nodes Conditions compiled by compile()
+     * @param entity Entity to test
+     * @return true if the Entity passes every Condition
+     */
+    public boolean allMatch(Node[] nodes, Entity entity) {
+        for (Node node : nodes) {
+            if (!test(node, entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drop every cached result, e.g. because an Action may have changed Component values
+     */
+    public void invalidate() {
+        myEpoch++;
+    }
+
+    /**
+     * @return number of distinct tests the compiled Conditions have been reduced to
+     */
+    public int size() {
+        return myNodes.size();
+    }
+
+    private boolean test(Node node, Entity entity) {
+        int slot = node.find(entity);
+        long stamp = node.myStamps[slot];
+        if (node.myEntities[slot] == entity && (stamp >>> 1) == myEpoch) {
+            return (stamp & 1) == 1;
+        }
+        boolean result;
+        try {
+            result = node.myCondition.test(entity);
+        } catch (NullPointerException e) {
+            result = false;
+        }
+        node.store(slot, entity, myEpoch << 1 | (result ? 1 : 0), myEpoch);
+        return result;
+    }
+
+    /**
+     * One distinct test of the network, with its results per Entity for the current epoch. Results are kept in an
+     * open-addressing table keyed by Entity identity; entries of older epochs are simply overwritten, and the table is
+     * emptied instead of grown when most of its entries are outdated
+     */
+    public static final class Node {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final Condition myCondition;
+        private Entity[] myEntities;
+        private long[] myStamps;
+        private int myOccupied;
+
+        private Node(Condition condition) {
+            myCondition = condition;
+            myEntities = new Entity[INITIAL_CAPACITY];
+            myStamps = new long[INITIAL_CAPACITY];
+        }
+
+        // slot holding the Entity, or the free slot where it would go
+        private int find(Entity entity) {
+            int mask = myEntities.length - 1;
+            int slot = System.identityHashCode(entity) & mask;
+            while (myEntities[slot] != null && myEntities[slot] != entity) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void store(int slot, Entity entity, long stamp, long epoch) {
+            if (myEntities[slot] == null) {
+                if ((myOccupied + 1) * 2 > myEntities.length) {
+                    rehash(epoch);
+                    slot = find(entity);
+                }
+                myOccupied++;
+            }
+            myEntities[slot] = entity;
+            myStamps[slot] = stamp;
+        }
+
+        // keep only the entries of the current epoch, in a table twice their number
+        private void rehash(long epoch) {
+            List<Entity> entities = new ArrayList<>();
+            List<Long> stamps = new ArrayList<>();
+            for (int k = 0; k < myEntities.length; k++) {
+                if (myEntities[k] != null && (myStamps[k] >>> 1) == epoch) {
+                    entities.add(myEntities[k]);
+                    stamps.add(myStamps[k]);
+                }
+            }
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < (entities.size() + 1) * 4) {
+                capacity *= 2;
+            }
+            myEntities = new Entity[capacity];
+            myStamps = new long[capacity];
+            myOccupied = 0;
+            for (int k = 0; k < entities.size(); k++) {
+                int slot = find(entities.get(k));
+                myEntities[slot] = entities.get(k);
+                myStamps[slot] = stamps.get(k);
+                myOccupied++;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package engine.external.conditions;
+
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.IEventEngine;
+import engine.external.Level;
+import engine.external.actions.HealthAction;
+import engine.external.actions.NumericAction;
+import engine.external.actions.XPositionAction;
+import engine.external.actions.YPositionAction;
+import engine.external.component.*;
+import engine.external.events.Event;
+import engine.internal.systems.EventHandlerSystem;
+
+import javafx.scene.input.KeyCode;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author engine
+ * Tests that a Condition shared by several Events through a ConditionNetwork is tested again whenever the value it
+ * reads may have changed since its result was remembered
+ */
+public class ConditionNetworkTest {
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+    private static final double MOVED = 42.0;
+
+    /**
+     * Test that an Event does not reuse the result of a Condition it shares with an earlier Event once an Action of
+     * the earlier Event has changed the value the Condition reads
+     */
+    @Test
+    public void testActionInvalidatesSharedCondition() {
+        ConditionNetwork network = new ConditionNetwork();
+        Entity entity = createEntity();
+        Event hurt = new Event();
+        hurt.addConditions(new GreaterThanCondition(HealthComponent.class, 0.0));
+        hurt.addActions(new HealthAction(NumericAction.ModifyType.ABSOLUTE, -1.0));
+        Event move = new Event();
+        move.addConditions(new GreaterThanCondition(HealthComponent.class, 0.0));
+        move.addActions(new XPositionAction(NumericAction.ModifyType.ABSOLUTE, MOVED));
+
+        hurt.execute(Collections.singletonList(entity), NO_INPUTS, network);
+        move.execute(Collections.singletonList(entity), NO_INPUTS, network);
+
+        assertEquals(1, network.size());
+        assertEquals(-1.0, valueOf(entity, HealthComponent.class));
+        assertEquals(0.0, valueOf(entity, XPositionComponent.class));
+    }
+
+    /**
+     * Test that a Condition remembered as failing on an Entity lacking its Component is tested again once an Event
+     * has attached the missing Component
+     */
+    @Test
+    public void testAttachedComponentInvalidatesCondition() {
+        ConditionNetwork network = new ConditionNetwork();
+        Entity entity = new Entity();
+        entity.addComponent(new XPositionComponent(0.0));
+        ConditionNetwork.Node[] nodes = network.compile(
+                Collections.singletonList(new GreaterThanCondition(HealthComponent.class, 0.0)));
+        assertFalse(network.allMatch(nodes, entity));
+        Event move = new Event();
+        move.addConditions(new GreaterThanCondition(HealthComponent.class, 0.0));
+        move.addActions(new XPositionAction(NumericAction.ModifyType.ABSOLUTE, MOVED));
+
+        move.execute(Collections.singletonList(entity), NO_INPUTS, network);
+
+        assertEquals(MOVED, valueOf(entity, XPositionComponent.class));
+    }
+
+    /**
+     * Test that EventHandlerSystem does not reuse the result of a shared Condition across an IEventEngine that is not
+     * an Event, since it may change any value without going through the network. The first Event tests the shared
+     * Condition but fires no Action, so only the other IEventEngine can make its result outdated
+     */
+    @Test
+    public void testOtherEventEngineInvalidatesSharedCondition() {
+        Entity entity = createEntity();
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        level.addEntity(entity);
+        Engine engine = new Engine(level);
+        Event moveX = new Event();
+        moveX.addConditions(new GreaterThanCondition(HealthComponent.class, 0.0));
+        moveX.addConditions(new GreaterThanCondition(XPositionComponent.class, MOVED));
+        moveX.addActions(new XPositionAction(NumericAction.ModifyType.ABSOLUTE, MOVED));
+        IEventEngine hurt = (entities, inputs) -> {
+            for (Entity e : entities) {
+                ((HealthComponent) e.getComponent(HealthComponent.class)).setValue(-1.0);
+            }
+        };
+        Event moveY = new Event();
+        moveY.addConditions(new GreaterThanCondition(HealthComponent.class, 0.0));
+        moveY.addActions(new YPositionAction(NumericAction.ModifyType.ABSOLUTE, MOVED));
+        List<IEventEngine> events = new ArrayList<>();
+        events.add(moveX);
+        events.add(hurt);
+        events.add(moveY);
+
+        new EventHandlerSystem(Collections.singletonList(NameComponent.class), engine, events).update(NO_INPUTS);
+
+        assertEquals(-1.0, valueOf(entity, HealthComponent.class));
+        assertEquals(0.0, valueOf(entity, XPositionComponent.class));
+        assertEquals(0.0, valueOf(entity, YPositionComponent.class));
+    }
+
+    private Entity createEntity() {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent("player"));
+        entity.addComponent(new HealthComponent(5.0));
+        entity.addComponent(new XPositionComponent(0.0));
+        entity.addComponent(new YPositionComponent(0.0));
+        return entity;
+    }
+
+    private double valueOf(Entity entity, Class<? extends Component> clazz) {
+        return ((DoubleComponent) entity.getComponent(clazz)).getDouble();
+    }
+}
@@ -4,6 +4,7 @@ import engine.external.Entity;
 import engine.external.component.Component;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.function.Predicate;
 
 /**
@@ -23,6 +24,11 @@ public class GreaterThanCondition extends Condition {
         myValue = value;
     }
 
+    @Override
+    Object getSharingKey() {
+        return Arrays.asList(getClass(), myComponentClass, myValue);
+    }
+
     @Override
     public String toString(){
         return myComponentName.replaceAll(COMPONENT,"") + DISPLAY + myValue;
@@ -1,9 +1,12 @@
 package engine.external.conditions;
 
 import engine.external.Entity;
+import engine.external.SymbolTable;
 import engine.external.component.Component;
+import engine.external.component.LabelComponent;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.function.Predicate;
 
 /**
@@ -11,10 +14,13 @@ import java.util.function.Predicate;
  * @author Anna Darwish
  * @author Dima Fayyad
  * Condition for Event that checks for Component String to match the target string
+ * Names and groups of Entities in a running game are compared through their symbols in the game's SymbolTable rather
+ * than as Strings
  */
 public class StringEqualToCondition extends Condition {
     private String myComponentName;
     private String myValue;
+    private transient volatile long mySymbol;
     private static final String DISPLAY = " Is ";
     private static final String COMPONENT = "Component";
     public StringEqualToCondition(Class<? extends Component> component, String value) {
@@ -24,6 +30,37 @@ public class StringEqualToCondition extends Condition {
         myValue = value;
     }
 
+    @Override
+    public boolean test(Entity entity) {
+        Component<?> component = entity.getComponent(myComponentClass);
+        if (!(component instanceof LabelComponent) || component.getValue() == null) {
+            return super.test(entity);
+        }
+        SymbolTable table = ((LabelComponent) component).getSymbolTable();
+        if (table == null) {
+            return super.test(entity);
+        }
+        return ((LabelComponent) component).getSymbol(table) == getSymbol(table);
+    }
+
+    /**
+     * @param table table to resolve the target label against, normally the SymbolTable of the running game
+     * @return symbol of the target value in table
+     */
+    public long getSymbol(SymbolTable table) {
+        long symbol = mySymbol;
+        long resolved = table.resolve(symbol, myValue);
+        if (resolved != symbol) {
+            mySymbol = resolved;
+        }
+        return resolved;
+    }
+
+    @Override
+    Object getSharingKey() {
+        return Arrays.asList(getClass(), myComponentClass, myValue);
+    }
+
     @Override
     public String toString(){
         return myComponentName.replaceAll(COMPONENT,"") + DISPLAY + myValue;
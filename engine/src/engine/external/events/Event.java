@@ -5,6 +5,7 @@ import engine.external.actions.Action;
 import engine.external.component.GroupComponent;
 import engine.external.component.NameComponent;
 import engine.external.conditions.Condition;
+import engine.external.conditions.ConditionNetwork;
 import engine.external.Entity;
 import engine.external.IEventEngine;
 
@@ -29,6 +30,9 @@ public class Event implements IEventEngine, IEventAuthoring {
     private List<Condition> conditions = new ArrayList<>();
     private List<InputCondition> inputConditions = new ArrayList<>();
     private Set<KeyCode> myInputs = new HashSet<>();
+    private transient ConditionNetwork myNetwork;
+    private transient List<Condition> myCompiledFrom;
+    private transient ConditionNetwork.Node[] myCompiledConditions;
 
     /**
      * An Event is created using the name of the type of entity that this event will apply to
@@ -41,41 +45,146 @@ public class Event implements IEventEngine, IEventAuthoring {
     //need to make this method take in keycode inputs as well
     @Override
     public void execute(List<Entity> entities, Collection<KeyCode> inputs) {
+        execute(entities, inputs, null);
+    }
+
+    /**
+     * Same as execute(entities, inputs), but evaluates the Conditions through a ConditionNetwork shared with the other
+     * Events of the Level, so that tests shared between Events run only once per Entity
+     * @param entities the entities in play
+     * @param inputs KeyCodes pressed on this game loop
+     * @param network network shared by the Events of the running Level, or null to test every Condition directly
+     */
+    public void execute(List<Entity> entities, Collection<KeyCode> inputs, ConditionNetwork network) {
         if (!inputs.containsAll(myInputs)) {
             return;
         }
-
+        // input conditions only depend on the pressed keys, so they are the same for every Entity
+        boolean inputsMet = inputConditionsMet(inputs);
         for (Entity e : entities) {
-            if (conditionsMet(e, inputs)) {
+            if (conditionsMet(e, inputsMet, network)) {
                 executeActions(e);
+                if (network != null) {
+                    network.invalidate();
+                }
             }
         }
     }
 
+    /**
+     * Evaluates the key and input Conditions of this Event, which are the same for every Entity. First step of the
+     * two-phase evaluation selected by Level.setTwoPhaseEvents
+     * @param inputs KeyCodes pressed on this game loop
+     * @return true if the Event's keys are pressed and its input Conditions are met
+     */
+    public boolean inputsMet(Collection<KeyCode> inputs) {
+        return inputs.containsAll(myInputs) && inputConditionsMet(inputs);
+    }
 
-    private boolean conditionsMet(Entity entity, Collection<KeyCode> inputs) {
-        for(Condition c: conditions){
-            if(c.getMyComponentClass() == NameComponent.class || c.getMyComponentClass() == GroupComponent.class ){
-                if(!c.getPredicate().test(entity)){
-                    return false;
-                }
-            }
+    /**
+     * Tests the name and group Conditions on an Entity and, if they pass, attaches the Components the other Conditions
+     * test but the Entity lacks. The two-phase evaluation prepares every candidate Entity, one after another, before
+     * matching any of them
+     * @param entity candidate Entity
+     * @return true if the Entity passes the name and group Conditions
+     */
+    public boolean prepare(Entity entity) {
+        if (!labelConditionsMet(entity)) {
+            return false;
+        }
+        for (Condition c : conditions) {
+            c.checkComponents(entity);
+        }
+        return true;
+    }
+
+    /**
+     * Tests every Condition on a prepared Entity. Changes no game state, so the two-phase evaluation matches
+     * Entities concurrently
+     * @param entity Entity passed to prepare
+     * @return true if the Entity meets every Condition
+     */
+    public boolean matches(Entity entity) {
+        try {
+            return conditions.stream().allMatch((Predicate<Condition> & Serializable) condition -> condition.test(entity));
+        } catch (NullPointerException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the Actions of this Event on an Entity matched by the two-phase evaluation
+     * @param entity matched Entity
+     */
+    public void commit(Entity entity) {
+        executeActions(entity);
+    }
+
+    private boolean inputConditionsMet(Collection<KeyCode> inputs) {
+        try {
+            return inputConditions.stream().allMatch((Predicate<InputCondition> & Serializable) inputCondition -> inputCondition.getPredicate().test(inputs));
+        } catch (NullPointerException e) {
+            return false;
+        }
+    }
+
+    private boolean conditionsMet(Entity entity, boolean inputsMet, ConditionNetwork network) {
+        if (!labelConditionsMet(entity)) {
+            return false;
         }
         for(Condition c: conditions){
+            boolean missing = network != null && c.getMyComponentClass() != null && !entity.hasComponents(c.getMyComponentClass());
             c.checkComponents(entity);
+            if (missing) {
+                network.invalidate();
+            }
+        }
+        if (network != null) {
+            boolean conditiontest = network.allMatch(getCompiledConditions(network), entity);
+            return conditiontest && inputsMet;
         }
         try {
             boolean conditiontest =
-                    conditions.stream().allMatch((Predicate<Condition> & Serializable) condition -> (condition.getPredicate()).test(entity));
-            boolean inputtest =
-                    inputConditions.stream().allMatch((Predicate<InputCondition> & Serializable) inputCondition -> inputCondition.getPredicate().test(inputs));
-            return conditiontest && inputtest;
+                    conditions.stream().allMatch((Predicate<Condition> & Serializable) condition -> condition.test(entity));
+            return conditiontest && inputsMet;
         } catch (NullPointerException e) {
             //System.out.println("Condition not met, did not have required component");
             return false;
         }
     }
 
+    private boolean labelConditionsMet(Entity entity) {
+        for(Condition c: conditions){
+            if(isLabelCondition(c)){
+                if(!c.test(entity)){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isLabelCondition(Condition c) {
+        return c.getMyComponentClass() == NameComponent.class || c.getMyComponentClass() == GroupComponent.class;
+    }
+
+    // The name and group Conditions have already passed when the other Conditions are tested, so only the others
+    // are compiled; recompiled whenever the Conditions or the network change
+    private ConditionNetwork.Node[] getCompiledConditions(ConditionNetwork network) {
+        if (myNetwork != network || myCompiledFrom != conditions || myCompiledConditions == null) {
+            List<Condition> tested = new ArrayList<>();
+            for (Condition c : conditions) {
+                if (!isLabelCondition(c)) {
+                    tested.add(c);
+                }
+            }
+            myCompiledConditions = network.compile(tested);
+            myNetwork = network;
+            myCompiledFrom = conditions;
+        }
+        return myCompiledConditions;
+    }
+
     private void executeActions(Entity entity) {
         try {
             actions.forEach((Consumer<Action> & Serializable) action -> {
@@ -99,6 +208,7 @@ public class Event implements IEventEngine, IEventAuthoring {
 
     public void addConditions(List<Condition> conditionsToAdd) {
         conditions.addAll(conditionsToAdd);
+        myCompiledConditions = null;
     }
 
     public void addConditions(Condition condition) {
@@ -111,10 +221,12 @@ public class Event implements IEventEngine, IEventAuthoring {
 
     public void removeConditions(List<Condition> conditionsToRemove) {
         conditions.removeAll(conditionsToRemove);
+        myCompiledConditions = null;
     }
 
     public void removeConditions(Condition conditionToRemove) {
         conditions.remove(conditionToRemove);
+        myCompiledConditions = null;
     }
 
     public void setActions(List<Action> newSetOfActions) {
@@ -3,6 +3,7 @@
 package engine.internal;
 
 import data.external.DatabaseEngine;
+import engine.external.Archetype;
 import engine.external.Engine;
 import engine.external.Entity;
 import engine.external.Level;
@@ -81,7 +82,7 @@ public class EngineSystemTest extends Application{
     private void initSystems(){
         testImgViewSystem = new ImageViewSystem(Arrays.asList(SpriteComponent.class, XPositionComponent.class, YPositionComponent.class,ZPositionComponent.class),testEngine);
         testMovementSystem = new MovementSystem(Arrays.asList(XVelocityComponent.class,YVelocityComponent.class,XPositionComponent.class,YPositionComponent.class,ZPositionComponent.class),testEngine);
-        testCollisionSystem = new CollisionSystem(Arrays.asList(CollisionComponent.class,ImageViewComponent.class,XPositionComponent.class,YPositionComponent.class),testEngine);
+        testCollisionSystem = new CollisionSystem(Arrays.asList(CollisionComponent.class,XPositionComponent.class,YPositionComponent.class,WidthComponent.class,HeightComponent.class),testEngine);
     }
 
     private void initStage(){
@@ -209,11 +210,11 @@ public class EngineSystemTest extends Application{
         testImgViewSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
         testCollisionSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
         testMovementSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
-        assertFalse(bird.hasComponents(AnyCollidedComponent.class));
+        assertFalse(hasContact(bird,AnyCollidedComponent.class));
 
         testImgViewSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
         testCollisionSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
-        assertTrue(bird.hasComponents(AnyCollidedComponent.class));
+        assertTrue(hasContact(bird,AnyCollidedComponent.class));
     }
 
     /**
@@ -225,24 +226,51 @@ public class EngineSystemTest extends Application{
         testCollisionSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
         testMovementSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
 
-        assertFalse(bird.hasComponents(BottomCollidedComponent.class));
-        assertFalse(bird.hasComponents(RightCollidedComponent.class));
-        assertFalse(mushroom.hasComponents(TopCollidedComponent.class));
-        assertFalse(mushroom.hasComponents(LeftCollidedComponent.class));
+        assertFalse(hasContact(bird,BottomCollidedComponent.class));
+        assertFalse(hasContact(bird,RightCollidedComponent.class));
+        assertFalse(hasContact(mushroom,TopCollidedComponent.class));
+        assertFalse(hasContact(mushroom,LeftCollidedComponent.class));
 
         testImgViewSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
         testCollisionSystem.update(testLevel.getEntities(),new ArrayList<KeyCode>());
-//        assertTrue(bird.hasComponents(BottomCollidedComponent.class));
-        assertTrue(bird.hasComponents(RightCollidedComponent.class));
+//        assertTrue(hasContact(bird,BottomCollidedComponent.class));
+        assertTrue(hasContact(bird,RightCollidedComponent.class));
 //        assertTrue(((Collection)bird.getComponent(BottomCollidedComponent.class).getValue()).contains(mushroom));
         assertTrue(((Collection)bird.getComponent(RightCollidedComponent.class).getValue()).contains(mushroom));
-//        assertTrue(mushroom.hasComponents(TopCollidedComponent.class));
-        assertTrue(mushroom.hasComponents(LeftCollidedComponent.class));
+//        assertTrue(hasContact(mushroom,TopCollidedComponent.class));
+        assertTrue(hasContact(mushroom,LeftCollidedComponent.class));
 //        assertTrue(((Collection)mushroom.getComponent(TopCollidedComponent.class).getValue()).contains(bird));
         assertTrue(((Collection)mushroom.getComponent(LeftCollidedComponent.class).getValue()).contains(bird));
     }
 
 
+    /**
+     * Test that CollisionSystem detects collisions from position and size Components alone, without any ImageView
+     */
+    @Test
+    public void testHeadlessCollision(){
+        Entity left = new Entity();
+        left.addComponent(new XPositionComponent(0.0));
+        left.addComponent(new YPositionComponent(0.0));
+        left.addComponent(new WidthComponent(10.0));
+        left.addComponent(new HeightComponent(10.0));
+        left.addComponent(new CollisionComponent(true));
+        Entity right = new Entity();
+        right.addComponent(new XPositionComponent(20.0));
+        right.addComponent(new YPositionComponent(0.0));
+        right.addComponent(new WidthComponent(10.0));
+        right.addComponent(new HeightComponent(10.0));
+        right.addComponent(new CollisionComponent(true));
+
+        ((XPositionComponent)left.getComponent(XPositionComponent.class)).setValue(6.0);
+        ((XPositionComponent)right.getComponent(XPositionComponent.class)).setValue(15.0);
+        testCollisionSystem.update(Arrays.asList(left,right),new ArrayList<KeyCode>());
+
+        assertFalse(left.hasComponents(ImageViewComponent.class));
+        assertTrue(((Collection)right.getComponent(LeftCollidedComponent.class).getValue()).contains(left));
+        assertTrue(((Collection)left.getComponent(RightCollidedComponent.class).getValue()).contains(right));
+    }
+
     /**
      * Test that no false collision detected by CollisionSystem
      */
@@ -271,6 +299,8 @@ public class EngineSystemTest extends Application{
         c1.setValue(20.0);
         assertTrue(c1.getValue()==20.0);
         assertTrue(c1.getOldValue()==10.0);
+        assertTrue(c1.getDouble()==20.0);
+        assertTrue(c1.getOldDouble()==10.0);
     }
 
     /**
@@ -284,11 +314,37 @@ public class EngineSystemTest extends Application{
             if(entity.getComponent(SpriteComponent.class).getValue().equals("flappy_bird")){
                 assertTrue(entity!=bird);
                 assertFalse(entity.hasComponents(AnyCollidedComponent.class));
+                // the running bird keeps its CollidedComponents, whose contacts were cleared at the end of the loop
                 assertTrue(bird.hasComponents(AnyCollidedComponent.class));
+                assertFalse(hasContact(bird,AnyCollidedComponent.class));
                 entity.addComponent(new ZPositionComponent(0.0));
                 assertFalse(bird.hasComponents(ZPositionComponent.class));
             }
         }
     }
+
+    /**
+     * Test that Entities attached to the Engine are moved between Archetypes as Components are added and removed
+     */
+    @Test
+    public void testArchetypeTracksComponents(){
+        Archetype before = cloud.getArchetype();
+        assertTrue(before.getColumn(XPositionComponent.class).get(0)!=null);
+        cloud.addComponent(new DestroyComponent(true));
+        assertTrue(cloud.getArchetype()!=before);
+        assertTrue(cloud.hasComponents(DestroyComponent.class));
+        assertTrue((Boolean) cloud.getComponent(DestroyComponent.class).getValue());
+        cloud.removeComponent(DestroyComponent.class);
+        assertTrue(cloud.getArchetype()==before);
+        assertFalse(cloud.hasComponents(DestroyComponent.class));
+        testEngine.removeEntity(cloud);
+        assertTrue(cloud.getArchetype()==null);
+        assertTrue((Double) cloud.getComponent(XPositionComponent.class).getValue()==15.0);
+    }
+
+    // CollidedComponents stay attached after the first contact, so a contact shows as a non-empty view
+    private boolean hasContact(Entity entity, Class<? extends Component> clazz){
+        return entity.hasComponents(clazz)&&!((Collection)entity.getComponent(clazz).getValue()).isEmpty();
+    }
 }
 
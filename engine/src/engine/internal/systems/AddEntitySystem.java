@@ -28,14 +28,15 @@ public class AddEntitySystem extends VoogaSystem {
 
     /**
      * Loops through the collection of Entities, adds entity stored in removes any CollidedComponent
+     * The new Entities join the game at the next sync point, once this System has finished (see CommandBuffer)
      */
     @Override
     protected void run() {
         for(Entity entity:this.getEntities()){
             if(entity.hasComponents(SPAWN_ENTITY_COMPONENT_CLASS)){
-                Entity newEntity = ((Entity)entity.getComponent(SpawnEntityComponent.class).getValue()).copyEntity();
-                myEngine.addEntity(newEntity);
-                entity.removeComponent(SPAWN_ENTITY_COMPONENT_CLASS);
+                Entity newEntity = myEngine.spawn((Entity)entity.getComponent(SpawnEntityComponent.class).getValue());
+                addEntity(newEntity);
+                removeComponent(entity, SPAWN_ENTITY_COMPONENT_CLASS);
             }
         }
     }
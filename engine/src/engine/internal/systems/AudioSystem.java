@@ -3,6 +3,7 @@ package engine.internal.systems;
 import data.external.DataManager;
 import engine.external.Engine;
 import engine.external.Entity;
+import engine.external.EntityTable;
 import engine.external.component.AudioComponent;
 import engine.external.component.Component;
 import javafx.scene.media.Media;
@@ -25,7 +26,7 @@ public class AudioSystem extends VoogaSystem {
     private static final Integer REAE_BYTE_NUM = 1024;
 
     DataManager myDataManager;
-    HashMap<Entity, String> myEntityPastSound;
+    EntityTable<String> myEntityPastSound;
     HashMap<String, Media> myMedia;
 
     /**
@@ -38,7 +39,7 @@ public class AudioSystem extends VoogaSystem {
     public AudioSystem(Collection<Class<? extends Component>> requiredComponents, Engine engine) {
         super(requiredComponents, engine);
         myDataManager = new DataManager();
-        myEntityPastSound = new HashMap<>();
+        myEntityPastSound = engine.createEntityTable();
         myMedia = new HashMap<>();
     }
 
@@ -62,7 +63,7 @@ public class AudioSystem extends VoogaSystem {
             myEntityPastSound.put(entity, audioName);
             retrieveAudio(audioName);
             if (myMedia.get(audioName) != null) {
-                entity.addComponent(new AudioComponent(myMedia.get(audioName)));
+                addComponent(entity, new AudioComponent(myMedia.get(audioName)));
             }
         }
     }
@@ -0,0 +1,104 @@
+package engine.internal.systems;
+
+import java.util.Arrays;
+
+/**
+ * @author engine
+ * <p>
+ * Axis-aligned boxes of the collidable Entities of one game loop, computed straight from position and size values.
+ * The boxes mirror what JavaFX does for an ImageView laid out by ImageViewSystem (x, y, fitWidth, fitHeight): the
+ * bounds are stored in single precision as (float) x and (float) (x + width), and the overlap test follows
+ * Node.intersects(Bounds) step by step, including its float arithmetic, its inclusive edges and its empty-bounds check.
+ * Collision results are therefore identical to testing the ImageViews, without requiring any scene-graph node.
+ */
+final class BoundingBoxes {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int mySize;
+    private float[] myMinX;
+    private float[] myMinY;
+    private float[] myMaxX;
+    private float[] myMaxY;
+    private float[] myWidth;
+    private float[] myHeight;
+
+    BoundingBoxes() {
+        myMinX = new float[INITIAL_CAPACITY];
+        myMinY = new float[INITIAL_CAPACITY];
+        myMaxX = new float[INITIAL_CAPACITY];
+        myMaxY = new float[INITIAL_CAPACITY];
+        myWidth = new float[INITIAL_CAPACITY];
+        myHeight = new float[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Remove every box, keeping the arrays for the next game loop
+     */
+    void clear() {
+        mySize = 0;
+    }
+
+    /**
+     * Append the box of an Entity; boxes are indexed in the order they are added
+     * @param x value of the XPositionComponent
+     * @param y value of the YPositionComponent
+     * @param width value of the WidthComponent
+     * @param height value of the HeightComponent
+     */
+    void add(double x, double y, double width, double height) {
+        if (mySize == myMinX.length) {
+            grow();
+        }
+        int i = mySize++;
+        myMinX[i] = (float) x;
+        myMinY[i] = (float) y;
+        myMaxX[i] = (float) (x + width);
+        myMaxY[i] = (float) (y + height);
+        // Bounds.getWidth() of the ImageView is computed in double from the float edges, then narrowed again
+        myWidth[i] = (float) ((double) myMaxX[i] - (double) myMinX[i]);
+        myHeight[i] = (float) ((double) myMaxY[i] - (double) myMinY[i]);
+    }
+
+    /**
+     * Equivalent of imageView(i).intersects(imageView(j).getBoundsInLocal())
+     * @param i index of the box being tested
+     * @param j index of the box tested against
+     * @return true if the two boxes overlap or touch
+     */
+    boolean intersects(int i, int j) {
+        if (myMaxX[i] < myMinX[i] || myMaxY[i] < myMinY[i]) {
+            return false;
+        }
+        return myMinX[j] + myWidth[j] >= myMinX[i] && myMinY[j] + myHeight[j] >= myMinY[i]
+                && myMinX[j] <= myMaxX[i] && myMinY[j] <= myMaxY[i];
+    }
+
+    // The broadphase bounds below cover both the stored far edge and the float sum min + width used by intersects(),
+    // which can differ by one ulp, so that a broadphase never misses a pair the narrowphase would report
+
+    double getMinX(int i) {
+        return myMinX[i];
+    }
+
+    double getMinY(int i) {
+        return myMinY[i];
+    }
+
+    double getMaxX(int i) {
+        return Math.max(myMaxX[i], myMinX[i] + myWidth[i]);
+    }
+
+    double getMaxY(int i) {
+        return Math.max(myMaxY[i], myMinY[i] + myHeight[i]);
+    }
+
+    private void grow() {
+        int capacity = myMinX.length * 2;
+        myMinX = Arrays.copyOf(myMinX, capacity);
+        myMinY = Arrays.copyOf(myMinY, capacity);
+        myMaxX = Arrays.copyOf(myMaxX, capacity);
+        myMaxY = Arrays.copyOf(myMaxY, capacity);
+        myWidth = Arrays.copyOf(myWidth, capacity);
+        myHeight = Arrays.copyOf(myHeight, capacity);
+    }
+}
@@ -0,0 +1,195 @@
+package engine.internal.systems;
+
+import java.util.Arrays;
+
+/**
+ * @author engine
+ * <p>
+ * Bounding-volume hierarchy over a fixed set of axis-aligned boxes, used by CollisionSystem for the Entities that do
+ * not move. The tree is built top-down by splitting every node at the median centre along its longer axis, and is
+ * stored in flat arrays. Building costs O(n log n) and is only repeated when the set of boxes changes; a query visits
+ * only the nodes whose bounds overlap the query box. Overlap is inclusive on all edges, like Node.intersects().
+ */
+final class BoundingVolumeHierarchy {
+    private static final int LEAF_SIZE = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int mySize;
+    private double[] myMinX = new double[0];
+    private double[] myMinY = new double[0];
+    private double[] myMaxX = new double[0];
+    private double[] myMaxY = new double[0];
+    private int[] myItems = new int[0];
+
+    private int myNodeCount;
+    private double[] myNodeMinX = new double[INITIAL_CAPACITY];
+    private double[] myNodeMinY = new double[INITIAL_CAPACITY];
+    private double[] myNodeMaxX = new double[INITIAL_CAPACITY];
+    private double[] myNodeMaxY = new double[INITIAL_CAPACITY];
+    private int[] myNodeStart = new int[INITIAL_CAPACITY];
+    private int[] myNodeEnd = new int[INITIAL_CAPACITY];
+    private int[] myNodeLeft = new int[INITIAL_CAPACITY];
+
+    private int[] myStack = new int[INITIAL_CAPACITY];
+    private int[] myResults = new int[INITIAL_CAPACITY];
+
+    /**
+     * Rebuild the hierarchy over a new set of boxes; box k is reported back as k by query()
+     * @param count number of boxes
+     * @param minX left edges
+     * @param minY top edges
+     * @param maxX right edges
+     * @param maxY bottom edges
+     */
+    void build(int count, double[] minX, double[] minY, double[] maxX, double[] maxY) {
+        mySize = count;
+        myMinX = Arrays.copyOf(minX, count);
+        myMinY = Arrays.copyOf(minY, count);
+        myMaxX = Arrays.copyOf(maxX, count);
+        myMaxY = Arrays.copyOf(maxY, count);
+        myItems = new int[count];
+        for (int k = 0; k < count; k++) {
+            myItems[k] = k;
+        }
+        myNodeCount = 0;
+        if (count > 0) {
+            buildNode(allocateNode(), 0, count);
+        }
+    }
+
+    /**
+     * @return number of boxes in the hierarchy
+     */
+    int size() {
+        return mySize;
+    }
+
+    /**
+     * Find every box overlapping a query box
+     * @return number of boxes found, accessible through getResult()
+     */
+    int query(double minX, double minY, double maxX, double maxY) {
+        if (myNodeCount == 0) {
+            return 0;
+        }
+        int found = 0;
+        int top = 0;
+        myStack[top++] = 0;
+        while (top > 0) {
+            int node = myStack[--top];
+            if (!overlaps(myNodeMinX[node], myNodeMinY[node], myNodeMaxX[node], myNodeMaxY[node], minX, minY, maxX, maxY)) {
+                continue;
+            }
+            int left = myNodeLeft[node];
+            if (left < 0) {
+                for (int k = myNodeStart[node]; k < myNodeEnd[node]; k++) {
+                    int item = myItems[k];
+                    if (overlaps(myMinX[item], myMinY[item], myMaxX[item], myMaxY[item], minX, minY, maxX, maxY)) {
+                        if (found == myResults.length) {
+                            myResults = Arrays.copyOf(myResults, found * 2);
+                        }
+                        myResults[found++] = item;
+                    }
+                }
+            } else {
+                if (top + 2 > myStack.length) {
+                    myStack = Arrays.copyOf(myStack, myStack.length * 2);
+                }
+                myStack[top++] = left;
+                myStack[top++] = left + 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param k index between 0 and the count returned by the last query()
+     * @return the k-th box found
+     */
+    int getResult(int k) {
+        return myResults[k];
+    }
+
+    // Fill in the node covering myItems[start, end); the two children of a node are always allocated next to each other
+    private void buildNode(int node, int start, int end) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int k = start; k < end; k++) {
+            int item = myItems[k];
+            minX = Math.min(minX, myMinX[item]);
+            minY = Math.min(minY, myMinY[item]);
+            maxX = Math.max(maxX, myMaxX[item]);
+            maxY = Math.max(maxY, myMaxY[item]);
+        }
+        myNodeMinX[node] = minX;
+        myNodeMinY[node] = minY;
+        myNodeMaxX[node] = maxX;
+        myNodeMaxY[node] = maxY;
+        myNodeStart[node] = start;
+        myNodeEnd[node] = end;
+        if (end - start <= LEAF_SIZE) {
+            myNodeLeft[node] = -1;
+            return;
+        }
+        boolean splitX = maxX - minX >= maxY - minY;
+        int middle = (start + end) >>> 1;
+        select(start, end - 1, middle, splitX);
+        int left = allocateNode();
+        allocateNode();
+        myNodeLeft[node] = left;
+        buildNode(left, start, middle);
+        buildNode(left + 1, middle, end);
+    }
+
+    // Quickselect: reorder myItems[low, high] so that the item at position k has the k-th smallest centre
+    private void select(int low, int high, int k, boolean alongX) {
+        while (low < high) {
+            double pivot = centre(myItems[(low + high) >>> 1], alongX);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (centre(myItems[i], alongX) < pivot) {
+                    i++;
+                }
+                while (centre(myItems[j], alongX) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = myItems[i];
+                    myItems[i++] = myItems[j];
+                    myItems[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double centre(int item, boolean alongX) {
+        return alongX ? myMinX[item] + myMaxX[item] : myMinY[item] + myMaxY[item];
+    }
+
+    private int allocateNode() {
+        if (myNodeCount == myNodeMinX.length) {
+            int capacity = myNodeCount * 2;
+            myNodeMinX = Arrays.copyOf(myNodeMinX, capacity);
+            myNodeMinY = Arrays.copyOf(myNodeMinY, capacity);
+            myNodeMaxX = Arrays.copyOf(myNodeMaxX, capacity);
+            myNodeMaxY = Arrays.copyOf(myNodeMaxY, capacity);
+            myNodeStart = Arrays.copyOf(myNodeStart, capacity);
+            myNodeEnd = Arrays.copyOf(myNodeEnd, capacity);
+            myNodeLeft = Arrays.copyOf(myNodeLeft, capacity);
+        }
+        return myNodeCount++;
+    }
+
+    private static boolean overlaps(double minX1, double minY1, double maxX1, double maxY1,
+                                    double minX2, double minY2, double maxX2, double maxY2) {
+        return minX1 <= maxX2 && minX2 <= maxX1 && minY1 <= maxY2 && minY2 <= maxY1;
+    }
+}
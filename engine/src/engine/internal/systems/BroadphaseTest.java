@@ -0,0 +1,172 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * @author engine
+ * Tests that the broadphase of CollisionSystem (SpatialHashGrid for moving Entities, StaticCollisionLayer for resting
+ * ones) leaves exactly the pairs of overlapping boxes that testing every pair of boxes finds
+ */
+public class BroadphaseTest {
+    private static final double CELL_SIZE = 64.0;
+    private static final int MAX_CELLS = 256;
+    private static final int ROUNDS = 40;
+
+    /**
+     * Test that the grid reports every overlapping pair of random boxes exactly once, including boxes touching on cell
+     * borders, boxes spanning many cells and boxes covering more than MAX_CELLS cells
+     */
+    @Test
+    public void testGridMatchesPairScan(){
+        Random random = new Random(5);
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE, MAX_CELLS);
+        for (int round = 0; round < ROUNDS; round++) {
+            BoundingBoxes boxes = new BoundingBoxes();
+            int count = 1 + random.nextInt(80);
+            for (int i = 0; i < count; i++) {
+                addRandomBox(boxes, random);
+            }
+            grid.clear();
+            for (int i = 0; i < count; i++) {
+                grid.insert(i, boxes.getMinX(i), boxes.getMinY(i), boxes.getMaxX(i), boxes.getMaxY(i));
+            }
+            assertEquals(scanPairs(boxes, count, new boolean[count]), candidatePairs(grid, boxes));
+        }
+    }
+
+    /**
+     * Test that grid and resting layer together report every overlapping pair that is not made of two resting boxes,
+     * while resting boxes move, come to rest, appear and disappear between game loops
+     */
+    @Test
+    public void testRestingLayerMatchesPairScan(){
+        Random random = new Random(7);
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE, MAX_CELLS);
+        StaticCollisionLayer layer = new StaticCollisionLayer();
+        List<Entity> entities = new ArrayList<>();
+        List<double[]> frames = new ArrayList<>();
+        List<Boolean> resting = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int k = random.nextInt(10); k > 0; k--) {
+                entities.add(new Entity());
+                frames.add(randomFrame(random));
+                resting.add(random.nextBoolean());
+            }
+            for (int k = random.nextInt(4); k > 0 && !entities.isEmpty(); k--) {
+                int removed = random.nextInt(entities.size());
+                entities.remove(removed);
+                frames.remove(removed);
+                resting.remove(removed);
+            }
+            for (int i = 0; i < entities.size(); i++) {
+                if (random.nextInt(8) == 0) {
+                    frames.set(i, randomFrame(random));
+                }
+                if (random.nextInt(8) == 0) {
+                    resting.set(i, !resting.get(i));
+                }
+            }
+            int count = entities.size();
+            BoundingBoxes boxes = new BoundingBoxes();
+            boolean[] atRest = new boolean[count];
+            grid.clear();
+            layer.begin();
+            for (int i = 0; i < count; i++) {
+                double[] frame = frames.get(i);
+                boxes.add(frame[0], frame[1], frame[2], frame[3]);
+                atRest[i] = resting.get(i);
+                if (atRest[i]) {
+                    layer.offer(entities.get(i), i, boxes.getMinX(i), boxes.getMinY(i), boxes.getMaxX(i), boxes.getMaxY(i));
+                } else {
+                    grid.insert(i, boxes.getMinX(i), boxes.getMinY(i), boxes.getMaxX(i), boxes.getMaxY(i));
+                }
+            }
+            layer.end();
+            for (int i = 0; i < count; i++) {
+                if (!atRest[i]) {
+                    int found = layer.query(boxes.getMinX(i), boxes.getMinY(i), boxes.getMaxX(i), boxes.getMaxY(i));
+                    for (int r = 0; r < found; r++) {
+                        grid.addCandidatePair(i, layer.getIndex(r));
+                    }
+                }
+            }
+            assertEquals(scanPairs(boxes, count, atRest), candidatePairs(grid, boxes));
+        }
+    }
+
+    // The pairs CollisionSystem tested before the broadphase: every pair, in either direction
+    private Set<Long> scanPairs(BoundingBoxes boxes, int count, boolean[] atRest) {
+        Set<Long> pairs = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                if (!(atRest[i] && atRest[j]) && (boxes.intersects(i, j) || boxes.intersects(j, i))) {
+                    pairs.add(pair(i, j));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    // The candidate pairs that pass the same test; candidates must come in ascending order without duplicates
+    private Set<Long> candidatePairs(SpatialHashGrid grid, BoundingBoxes boxes) {
+        Set<Long> pairs = new HashSet<>();
+        long previous = -1;
+        int candidates = grid.findCandidatePairs();
+        for (int k = 0; k < candidates; k++) {
+            int i = grid.getFirst(k);
+            int j = grid.getSecond(k);
+            assertTrue(i < j && pair(i, j) > previous);
+            previous = pair(i, j);
+            if (boxes.intersects(i, j) || boxes.intersects(j, i)) {
+                pairs.add(pair(i, j));
+            }
+        }
+        return pairs;
+    }
+
+    private void addRandomBox(BoundingBoxes boxes, Random random) {
+        double[] frame = randomFrame(random);
+        boxes.add(frame[0], frame[1], frame[2], frame[3]);
+    }
+
+    // x, y, width and height of a box: small ones, ones on cell borders, wide ones and ones over MAX_CELLS cells
+    private double[] randomFrame(Random random) {
+        double x = random.nextInt(1200) - 300 + random.nextDouble();
+        double y = random.nextInt(900) - 300 + random.nextDouble();
+        double width = random.nextInt(40);
+        double height = random.nextInt(40);
+        switch (random.nextInt(6)) {
+            case 0:
+                x = CELL_SIZE * (random.nextInt(12) - 2);
+                y = CELL_SIZE * (random.nextInt(8) - 2);
+                width = CELL_SIZE * random.nextInt(3);
+                height = CELL_SIZE * random.nextInt(3);
+                break;
+            case 1:
+                width = CELL_SIZE * (1 + random.nextInt(30));
+                height = CELL_SIZE * random.nextInt(4) + random.nextInt(10);
+                break;
+            case 2:
+                width = CELL_SIZE * (17 + random.nextInt(10));
+                height = CELL_SIZE * (17 + random.nextInt(10));
+                break;
+            default:
+                break;
+        }
+        return new double[]{x, y, width, height};
+    }
+
+    private static long pair(int i, int j) {
+        return ((long) i << 32) | j;
+    }
+}
@@ -28,13 +28,13 @@ public class CleanupSystem extends VoogaSystem {
 
     /**
      * Loops through the collection of Entities, removes any CollidedComponent, probes each Entity's DestroyComponent,
-     * and notifies Engine to get rid of all Entities whose DestroyComponent hold "true" value
+     * and records in the Engine's CommandBuffer the destruction of all Entities whose DestroyComponent hold "true" value
      */
     @Override
     protected void run() {
         for(Entity entity:this.getEntities()){
             if(entity.hasComponents(DESTROY_COMPONENT_CLASS)&&(Boolean) getComponentValue(DESTROY_COMPONENT_CLASS,entity)){
-                myEngine.removeEntity(entity);
+                destroyEntity(entity);
             }
         }
     }
@@ -0,0 +1,212 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+import engine.external.IEventEngine;
+import engine.external.SymbolTable;
+import engine.external.component.AnyCollidedComponent;
+import engine.external.component.BottomCollidedComponent;
+import engine.external.component.Component;
+import engine.external.component.GroupComponent;
+import engine.external.component.LeftCollidedComponent;
+import engine.external.component.NameComponent;
+import engine.external.component.RightCollidedComponent;
+import engine.external.component.TopCollidedComponent;
+import engine.external.conditions.CollisionCondition;
+import engine.external.conditions.Condition;
+import engine.external.conditions.StringEqualToCondition;
+import engine.external.events.CollisionEvent;
+import engine.external.events.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author engine
+ * <p>
+ * Tells CollisionSystem which collisions the Events of a Level can observe. Every CollisionEvent becomes a rule: the
+ * Entity executing it must pass the event's Name/Group StringEqualToConditions, and the Entity it collides with must
+ * match getCollisionWithEntity() by name, or by group if getGroupStatus() is set. A collision registered on e1 by e2
+ * is observable if some rule accepts e1 as executing Entity and e2 as collision partner.
+ * <p>
+ * Any other Event looking at CollidedComponents (a CollisionCondition outside a CollisionEvent, or a Condition on a
+ * CollidedComponent class), or an IEventEngine that is not an Event, cannot be analysed; every collision is then
+ * treated as observable.
+ * <p>
+ * Names, groups and rule targets are compared as symbols of the game's SymbolTable, so checking a pair of Entities
+ * compares ints only. The rules are derived once and kept until Events are added to or removed from the Level, or the
+ * labels of the game change (see SymbolTable.getModificationCount()); Conditions added to an Event that is already part
+ * of a running Level are not picked up.
+ */
+final class CollisionInterest {
+    private static final List<Class<? extends Component>> COLLIDED_CLASSES = Arrays.asList(
+            AnyCollidedComponent.class, LeftCollidedComponent.class, RightCollidedComponent.class,
+            TopCollidedComponent.class, BottomCollidedComponent.class);
+
+    private final SymbolTable myTable;
+    private final List<Rule> myRules;
+    private boolean myObservesAll;
+    private Collection<IEventEngine> myReadEvents;
+    private int myReadEventCount;
+    private int myReadLabelCount;
+    private long[] myNames;
+    private long[] myGroups;
+    private int[] myRuleStart;
+    private int[] myRuleIndices;
+
+    /**
+     * @param table SymbolTable of the running game
+     */
+    CollisionInterest(SymbolTable table) {
+        myTable = table;
+        myRules = new ArrayList<>();
+        myNames = new long[0];
+        myGroups = new long[0];
+        myRuleStart = new int[1];
+        myRuleIndices = new int[0];
+    }
+
+    /**
+     * Evaluate, for every Entity of this game loop, which rules it could execute; the rules are derived from the Events
+     * again first if Events were added or removed, or a name or group changed, since they were last derived
+     * @param events Events of the running Level
+     * @param entities collidable Entities of this game loop, indexed as in CollisionSystem
+     */
+    void prepare(Collection<IEventEngine> events, List<Entity> entities) {
+        SymbolTable table = myTable;
+        if (events != myReadEvents || events.size() != myReadEventCount
+                || table.getModificationCount() != myReadLabelCount) {
+            readRules(events, table);
+            myReadEvents = events;
+            myReadEventCount = events.size();
+            myReadLabelCount = table.getModificationCount();
+        }
+        if (myObservesAll) {
+            return;
+        }
+        int count = entities.size();
+        if (myNames.length < count) {
+            myNames = new long[count];
+            myGroups = new long[count];
+            myRuleStart = new int[count + 1];
+        }
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            Entity entity = entities.get(i);
+            myNames[i] = table.symbolOf(entity, NameComponent.class);
+            myGroups[i] = table.symbolOf(entity, GroupComponent.class);
+            myRuleStart[i] = used;
+            for (int r = 0; r < myRules.size(); r++) {
+                if (myRules.get(r).canExecute(myNames[i], myGroups[i])) {
+                    if (used == myRuleIndices.length) {
+                        myRuleIndices = Arrays.copyOf(myRuleIndices, Math.max(16, used * 2));
+                    }
+                    myRuleIndices[used++] = r;
+                }
+            }
+        }
+        myRuleStart[count] = used;
+    }
+
+    /**
+     * @param collided index of the Entity the collision would be registered on
+     * @param colliding index of the Entity colliding with it
+     * @return true if some Event could react to the collision being registered
+     */
+    boolean observes(int collided, int colliding) {
+        if (myObservesAll) {
+            return true;
+        }
+        for (int k = myRuleStart[collided]; k < myRuleStart[collided + 1]; k++) {
+            Rule rule = myRules.get(myRuleIndices[k]);
+            if (rule.collidesWith(rule.myGrouped ? myGroups[colliding] : myNames[colliding])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void readRules(Collection<IEventEngine> events, SymbolTable table) {
+        myRules.clear();
+        myObservesAll = false;
+        for (IEventEngine event : events) {
+            if (!(event instanceof Event)) {
+                myObservesAll = true;
+                return;
+            }
+            List<?> conditions = ((Event) event).getEventInformation().get(Condition.class);
+            int collisionConditions = 0;
+            for (Object condition : conditions) {
+                if (condition instanceof CollisionCondition) {
+                    collisionConditions++;
+                } else if (COLLIDED_CLASSES.contains(((Condition) condition).getMyComponentClass())) {
+                    myObservesAll = true;
+                    return;
+                }
+            }
+            if (collisionConditions > (event instanceof CollisionEvent ? 1 : 0)) {
+                myObservesAll = true;
+                return;
+            }
+            if (event instanceof CollisionEvent) {
+                myRules.add(new Rule((CollisionEvent) event, conditions, table));
+            }
+        }
+    }
+
+    private static final class Rule {
+        private final long myTarget;
+        private final boolean myGrouped;
+        private final long[] myNamePins;
+        private final long[] myGroupPins;
+
+        private Rule(CollisionEvent event, List<?> conditions, SymbolTable table) {
+            myTarget = table.resolve(SymbolTable.NO_SYMBOL, event.getCollisionWithEntity());
+            myGrouped = event.getGroupStatus();
+            myNamePins = pins(conditions, NameComponent.class, table);
+            myGroupPins = pins(conditions, GroupComponent.class, table);
+        }
+
+        private boolean canExecute(long name, long group) {
+            return matchesAll(myNamePins, name) && matchesAll(myGroupPins, group);
+        }
+
+        // NO_SYMBOL, i.e. a missing label, never equals a symbol of the table, here or in matchesAll
+        private boolean collidesWith(long nameOrGroup) {
+            return nameOrGroup == myTarget;
+        }
+
+        // Symbols of the StringEqualToConditions on a label class
+        private static long[] pins(List<?> conditions, Class<? extends Component> clazz, SymbolTable table) {
+            int count = 0;
+            for (Object condition : conditions) {
+                if (isPin(condition, clazz)) {
+                    count++;
+                }
+            }
+            long[] pins = new long[count];
+            int k = 0;
+            for (Object condition : conditions) {
+                if (isPin(condition, clazz)) {
+                    pins[k++] = ((StringEqualToCondition) condition).getSymbol(table);
+                }
+            }
+            return pins;
+        }
+
+        private static boolean isPin(Object condition, Class<? extends Component> clazz) {
+            return condition instanceof StringEqualToCondition
+                    && ((StringEqualToCondition) condition).getComponentClass() == clazz;
+        }
+
+        private static boolean matchesAll(long[] pins, long value) {
+            for (long pin : pins) {
+                if (value != pin) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
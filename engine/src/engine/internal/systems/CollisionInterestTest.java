@@ -0,0 +1,102 @@
+package engine.internal.systems;
+
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.IEventEngine;
+import engine.external.Level;
+import engine.external.component.GroupComponent;
+import engine.external.component.NameComponent;
+import engine.external.conditions.StringEqualToCondition;
+import engine.external.events.AnyCollisionEvent;
+import engine.external.events.Event;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author engine
+ * Tests that CollisionInterest keeps the rules it derived from the CollisionEvents of a Level up to date with the
+ * Events and with the names and groups of the running game
+ */
+public class CollisionInterestTest {
+    private static final int PLAYER = 0;
+    private static final int ENEMY = 1;
+
+    /**
+     * Test that an Event added to the Level while the game runs is honoured from the next game loop on
+     */
+    @Test
+    public void testAddedEventIsHonoured() {
+        Entity player = createEntity("player", "heroes");
+        Entity enemy = createEntity("enemy", "baddies");
+        List<Entity> entities = Arrays.asList(player, enemy);
+        CollisionInterest interest = new CollisionInterest(createEngine(player, enemy).getSymbolTable());
+        Collection<IEventEngine> events = new ArrayList<>();
+        events.add(createEvent("player", "enemy", false));
+
+        interest.prepare(events, entities);
+        assertTrue(interest.observes(PLAYER, ENEMY));
+        assertFalse(interest.observes(ENEMY, PLAYER));
+
+        events.add(createEvent("enemy", "heroes", true));
+        interest.prepare(events, entities);
+        assertTrue(interest.observes(ENEMY, PLAYER));
+    }
+
+    /**
+     * Test that renaming an Entity, or renaming a label to one an Event names, is honoured from the next game loop on
+     */
+    @Test
+    public void testLabelChangeIsHonoured() {
+        Entity player = createEntity("player", "heroes");
+        Entity enemy = createEntity("enemy", "baddies");
+        Entity boss = createEntity("boss", "baddies");
+        List<Entity> entities = Arrays.asList(player, enemy, boss);
+        CollisionInterest interest = new CollisionInterest(createEngine(player, enemy, boss).getSymbolTable());
+        Collection<IEventEngine> events = new ArrayList<>();
+        events.add(createEvent("player", "enemy", false));
+        interest.prepare(events, entities);
+        assertTrue(interest.observes(PLAYER, ENEMY));
+        assertFalse(interest.observes(PLAYER, 2));
+
+        ((NameComponent) enemy.getComponent(NameComponent.class)).setValue("minion");
+        ((NameComponent) boss.getComponent(NameComponent.class)).setValue("enemy");
+        interest.prepare(events, entities);
+
+        assertFalse(interest.observes(PLAYER, ENEMY));
+        assertTrue(interest.observes(PLAYER, 2));
+        ((NameComponent) player.getComponent(NameComponent.class)).setValue("ghost");
+        interest.prepare(events, entities);
+        assertFalse(interest.observes(PLAYER, 2));
+    }
+
+    // An Event executed by the Entity named name, on collisions with the Entity named (or in the group) with
+    private Event createEvent(String name, String with, boolean grouped) {
+        Event event = new AnyCollisionEvent(with, grouped);
+        event.addConditions(new StringEqualToCondition(NameComponent.class, name));
+        return event;
+    }
+
+    private Entity createEntity(String name, String group) {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent(name));
+        entity.addComponent(new GroupComponent(group));
+        return entity;
+    }
+
+    private Engine createEngine(Entity... entities) {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        for (Entity entity : entities) {
+            level.addEntity(entity);
+        }
+        return new Engine(level);
+    }
+}
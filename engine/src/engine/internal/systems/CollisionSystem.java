@@ -2,29 +2,43 @@ package engine.internal.systems;
 
 import engine.external.Entity;
 import engine.external.component.Component;
+import engine.external.component.DoubleComponent;
 import engine.external.component.XPositionComponent;
 import engine.external.component.YPositionComponent;
 import engine.external.Engine;
-import javafx.geometry.Point2D;
-import javafx.scene.image.ImageView;
-import voogasalad.util.reflection.Reflection;
-import voogasalad.util.reflection.ReflectionException;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
-import java.util.HashSet;
-import java.util.HashMap;
+import java.util.List;
+import java.util.ResourceBundle;
 import java.util.Arrays;
 
 /**
  * @author Hsingchih Tang
- * Responsible for detecting collisions between the ImageView of two collidable Entities via JavaFX Node.intersects(),
+ * Responsible for detecting collisions between two collidable Entities by overlapping the boxes given by their
+ * X/Y PositionComponents and Width/HeightComponents (BoundingBoxes reproduces the JavaFX ImageView bounds and
+ * Node.intersects() test exactly, without needing an ImageView), testing only moving Entities against each other
+ * through a uniform-grid broadphase (SpatialHashGrid, configured in EngineSettings) and against the resting Entities
+ * kept in a bounding-volume hierarchy (StaticCollisionLayer),
  * and register the two parties of every collision in each other's BottomCollidedComponent, such that certain engine.external.actions (defined
  * in the Event tied to an Entity) could be triggered by the execute() call fired from EventHandlerSystem
  */
 public class CollisionSystem extends VoogaSystem {
 
-    private Map<Entity, Point2D> collidedEntities;
+    private static final ResourceBundle SETTINGS_RESOURCES = ResourceBundle.getBundle("EngineSettings");
+    private static final String CELL_SIZE_KEY = "CollisionCellSize";
+    private static final String MAX_CELLS_KEY = "CollisionMaxCellsPerEntity";
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_COLLISION = -1;
+
+    private ContactBuffer myContacts;
+    private SpatialHashGrid myGrid;
+    private BoundingBoxes myBoxes;
+    private StaticCollisionLayer myStaticLayer;
+    private int[] myMoving;
+    private int myMovingCount;
+    private boolean[] myAtRest;
+    private CollisionInterest myInterest;
 
     /**
      * Accepts a reference to the Engine in charge of all Systems in current game, and a Collection of Component classes
@@ -34,69 +48,157 @@ public class CollisionSystem extends VoogaSystem {
      */
     public CollisionSystem(Collection<Class<? extends Component>> requiredComponents, Engine engine) {
         super(requiredComponents, engine);
+        myGrid = new SpatialHashGrid(Double.parseDouble(SETTINGS_RESOURCES.getString(CELL_SIZE_KEY)),
+                Integer.parseInt(SETTINGS_RESOURCES.getString(MAX_CELLS_KEY)));
+        myBoxes = new BoundingBoxes();
+        myStaticLayer = new StaticCollisionLayer();
+        myMoving = new int[INITIAL_CAPACITY];
+        myAtRest = new boolean[INITIAL_CAPACITY];
+        myInterest = new CollisionInterest(engine.getSymbolTable());
+        myContacts = new ContactBuffer(this::addComponent);
     }
 
     /**
      * Revert the positions of collided Entities in this game loop in the directions where collisions happened
-     * and then remove all CollidedComponents from the Entities
+     * and then empty the CollidedComponents of the Entities, which stay attached for the next collisions
      */
     public void adjustCollidedEntities(){
-        for (Map.Entry<Entity,Point2D> entry:collidedEntities.entrySet()){
-            Entity entity = entry.getKey();
-            if(horizontallyCollided(entity)){
-                ((XPositionComponent)entity.getComponent(X_POSITION_COMPONENT_CLASS)).revertValue(entry.getValue().getX());
+        for (ContactBuffer.Slot slot : myContacts.getTouched()){
+            Entity entity = slot.getEntity();
+            if(horizontallyCollided(slot)){
+                ((XPositionComponent)entity.getComponent(X_POSITION_COMPONENT_CLASS)).revertDouble(slot.getOldX());
             }
-            if(verticallyCollided(entity)){
-                ((YPositionComponent)entity.getComponent(Y_POSITION_COMPONENT_CLASS)).revertValue(entry.getValue().getY());
+            if(verticallyCollided(slot)){
+                ((YPositionComponent)entity.getComponent(Y_POSITION_COMPONENT_CLASS)).revertDouble(slot.getOldY());
             }
-            removeCollidedComponents(entity);
         }
+        myContacts.clear();
+    }
+
+    /**
+     * Expected to be called by Engine when an Entity leaves the game, so its contact record can be dropped
+     * @param entity Entity removed from the game
+     */
+    public void forgetEntity(Entity entity){
+        myContacts.forget(entity);
     }
 
 
     @Override
     /**
-     * Loop through all collidable Entities to check for collisions and record CollidedComponents for each pair;
+     * Find candidate pairs of collidable Entities, then check each candidate pair in both directions for collisions and
+     * record CollidedComponents for it;
+     * Resting Entities (see isResting()) live in a StaticCollisionLayer kept across game loops, and only moving Entities
+     * go into the spatial hash grid: candidates are moving-vs-moving pairs from the grid plus moving-vs-resting pairs
+     * from the layer. Two resting Entities can never be classified as colliding, so their pairs are never tested.
+     * Each direction of a candidate pair is then only tested if its result matters (see needsTest()): Entities at rest
+     * only get collisions registered that some Event of the Level can react to (see CollisionInterest).
      * Also record the past positions of collided Entities for adjusting their positions at the end of game loop.
      */
     protected void run() {
-        collidedEntities = new HashMap<>();
-        this.getEntities().forEach(e1->this.getEntities().forEach(e2->{
-            if(seemColliding(e1,e2)&& e1!=e2){
-//                System.out.println(e1.getComponent(SpriteComponent.class).getValue()+" collided by "+e2.getComponent(SpriteComponent.class).getValue());
-                Class horizontal = horizontalCollide(e1,e2);
-                Class vertical = verticalCollide(e1,e2);
-                registerCollidedEntity(horizontal,e1,e2);
-                registerCollidedEntity(vertical,e1,e2);
-                if(horizontal!=null||vertical!=null){
-                    registerCollidedEntity(ANY_COLLIDED_COMPONENT_CLASS,e1,e2);
-                    Double oldX = (Double)getComponentValue(X_POSITION_COMPONENT_CLASS,e1,GET_OLD_VALUE);
-                    Double oldY = (Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,e1,GET_OLD_VALUE);
-                    collidedEntities.put(e1,new Point2D(oldX,oldY));
-                }
+        List<Entity> entities = new ArrayList<>(this.getEntities());
+        myContacts.begin(entities.size());
+        myGrid.clear();
+        myBoxes.clear();
+        myStaticLayer.begin();
+        myMovingCount = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            Entity e = entities.get(i);
+            XPositionComponent x = (XPositionComponent) e.getComponent(X_POSITION_COMPONENT_CLASS);
+            YPositionComponent y = (YPositionComponent) e.getComponent(Y_POSITION_COMPONENT_CLASS);
+            myAtRest = ensureCapacity(myAtRest,i+1);
+            myAtRest[i] = x.getOldDouble()==x.getDouble() && y.getOldDouble()==y.getDouble();
+            myBoxes.add(x.getDouble(),y.getDouble(),
+                    ((DoubleComponent) e.getComponent(WIDTH_COMPONENT_CLASS)).getDouble(),
+                    ((DoubleComponent) e.getComponent(HEIGHT_COMPONENT_CLASS)).getDouble());
+            if (isResting(e,i)) {
+                myStaticLayer.offer(e,i,myBoxes.getMinX(i),myBoxes.getMinY(i),myBoxes.getMaxX(i),myBoxes.getMaxY(i));
+            } else {
+                myGrid.insert(i,myBoxes.getMinX(i),myBoxes.getMinY(i),myBoxes.getMaxX(i),myBoxes.getMaxY(i));
+                addMoving(i);
+            }
+        }
+        myStaticLayer.end();
+        for (int k = 0; k < myMovingCount; k++) {
+            int i = myMoving[k];
+            int found = myStaticLayer.query(myBoxes.getMinX(i),myBoxes.getMinY(i),myBoxes.getMaxX(i),myBoxes.getMaxY(i));
+            for (int r = 0; r < found; r++) {
+                myGrid.addCandidatePair(i,myStaticLayer.getIndex(r));
+            }
+        }
+        myInterest.prepare(myEngine.getEvents(),entities);
+        int candidates = myGrid.findCandidatePairs();
+        for (int k = 0; k < candidates; k++) {
+            int i = myGrid.getFirst(k);
+            int j = myGrid.getSecond(k);
+            if (needsTest(i,j)) {
+                checkCollision(i,j,entities);
+            }
+            if (needsTest(j,i)) {
+                checkCollision(j,i,entities);
+            }
+        }
+    }
+
+    /**
+     * A collision registered on Entity i only has an effect if Entity i gets pushed back by adjustCollidedEntities(),
+     * which is a no-op when its position equals its previous one, or if some Event can react to it
+     */
+    private boolean needsTest(int i, int j){
+        return !myAtRest[i] || myInterest.observes(i,j);
+    }
+
+    /**
+     * An Entity is resting if it has no velocity or acceleration Components and its current position equals its previous
+     * one on both axes: it is then never "moving" in the sense of isMovingLeft() etc., and a pair of resting Entities can
+     * never be classified as a collision. An Entity displaced by an Action leaves the resting layer until it is at rest
+     * again.
+     */
+    private boolean isResting(Entity e, int index){
+        return myAtRest[index] && !e.hasComponents(X_VELOCITY_COMPONENT_CLASS) && !e.hasComponents(Y_VELOCITY_COMPONENT_CLASS)
+                && !e.hasComponents(X_ACCELERATION_COMPONENT_CLASS) && !e.hasComponents(Y_ACCELERATION_COMPONENT_CLASS);
+    }
+
+    private static boolean[] ensureCapacity(boolean[] array, int capacity){
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    private void addMoving(int index){
+        if (myMovingCount == myMoving.length) {
+            myMoving = Arrays.copyOf(myMoving, myMovingCount * 2);
+        }
+        myMoving[myMovingCount++] = index;
+    }
+
+    private void checkCollision(int i, int j, List<Entity> entities){
+        if(myBoxes.intersects(i,j)){
+            Entity e1 = entities.get(i);
+            Entity e2 = entities.get(j);
+//            System.out.println(e1.getComponent(SpriteComponent.class).getValue()+" collided by "+e2.getComponent(SpriteComponent.class).getValue());
+            int horizontal = horizontalCollide(e1,e2);
+            int vertical = verticalCollide(e1,e2);
+            registerCollidedEntity(horizontal,i,e1,e2);
+            registerCollidedEntity(vertical,i,e1,e2);
+            if(horizontal!=NO_COLLISION||vertical!=NO_COLLISION){
+                registerCollidedEntity(ContactBuffer.ANY,i,e1,e2);
+                myContacts.recordOldPosition(i,e1,getOldDouble(X_POSITION_COMPONENT_CLASS,e1),getOldDouble(Y_POSITION_COMPONENT_CLASS,e1));
             }
-        }));
+        }
     }
 
 
     /**
-     * Register Entity e2 in a CollidedComponent class of Entity e1
-     * @param componentClazz defines the side on which e1 is collided by e2
+     * Register Entity e2 in a CollidedComponent of Entity e1
+     * @param side defines the side on which e1 is collided by e2, NO_COLLISION if it is not
+     * @param index index of e1 in this game loop
      * @param e1 Entity being collided
      * @param e2 Entity colliding the other
      */
-    private void registerCollidedEntity(Class<? extends Component> componentClazz, Entity e1, Entity e2) throws ReflectionException{
-        if(componentClazz==null){
+    private void registerCollidedEntity(int side, int index, Entity e1, Entity e2){
+        if(side==NO_COLLISION){
             return;
         }
-        if(!e1.hasComponents(componentClazz)){
-            try {
-                e1.addComponent((Component<?>) Reflection.createInstance(componentClazz.getName(),new HashSet<>()));
-            } catch (ReflectionException e) {
-                throw new ReflectionException(e,"Cannot create "+componentClazz.getName()+" for Entity "+getComponentValue(NAME_COMPONENT_CLASS,e1));
-            }
-        }
-        ((Collection<Entity>)getComponentValue(componentClazz,e1)).add(e2);
+        myContacts.record(index,e1,side,e2);
     }
 
 
@@ -104,20 +206,20 @@ public class CollisionSystem extends VoogaSystem {
      * Classify Entity e2's horizontal collision behavior towards Entity e1
      * @param e1 Entity being collided
      * @param e2 Entity colliding the other
-     * @return LeftCollidedComponent.class if e2 is colliding on the left of e1
-     *         RightCollidedComponent.class if e2 is colliding on the right of e1
-     *         null if not e1, e2 are not performing collision behaviors on horizontal axis
+     * @return ContactBuffer.LEFT if e2 is colliding on the left of e1
+     *         ContactBuffer.RIGHT if e2 is colliding on the right of e1
+     *         NO_COLLISION if not e1, e2 are not performing collision behaviors on horizontal axis
      */
-    private Class<? extends Component> horizontalCollide(Entity e1, Entity e2){
+    private int horizontalCollide(Entity e1, Entity e2){
         if(wasLeftTo(e2,e1)&&(isMovingRight(e2)||isMovingLeft(e1))){
 //            System.out.println(e2.getComponent(SpriteComponent.class).getValue()+" left collides on "+e1.getComponent(SpriteComponent.class).getValue());
-            return LEFT_COLLIDED_COMPONENT_CLASS;
+            return ContactBuffer.LEFT;
         }else if(wasRightTo(e2,e1)&&(isMovingLeft(e2)||isMovingRight(e1))){
 //            System.out.println(e2.getComponent(SpriteComponent.class).getValue()+" right collides on "+e1.getComponent(SpriteComponent.class).getValue());
-            return RIGHT_COLLIDED_COMPONENT_CLASS;
+            return ContactBuffer.RIGHT;
         }
 //        System.out.println("no horizontal collision on "+e1.getComponent(SpriteComponent.class).getValue());
-        return null;
+        return NO_COLLISION;
     }
 
 
@@ -125,70 +227,62 @@ public class CollisionSystem extends VoogaSystem {
      * Classify Entity e2's vertical collision behavior towards Entity e1
      * @param e1 Entity being collided
      * @param e2 Entity colliding the other
-     * @return TopCollidedComponent.class if e2 is colliding on the top of e1
-     *         BottomCollidedComponent.class if e2 is colliding on the bottom of e1
-     *         null if not e1, e2 are not performing collision behaviors on vertical axis
+     * @return ContactBuffer.TOP if e2 is colliding on the top of e1
+     *         ContactBuffer.BOTTOM if e2 is colliding on the bottom of e1
+     *         NO_COLLISION if not e1, e2 are not performing collision behaviors on vertical axis
      */
-    private Class<? extends Component> verticalCollide(Entity e1, Entity e2){
+    private int verticalCollide(Entity e1, Entity e2){
         if(wasAbove(e2,e1)&&(isMovingDown(e2)||isMovingUp(e1))){
 //            System.out.println(e2.getComponent(SpriteComponent.class).getValue()+" top collides on "+e1.getComponent(SpriteComponent.class).getValue());
-            return TOP_COLLIDED_COMPONENT_CLASS;
+            return ContactBuffer.TOP;
         }else if(wasBelow(e2,e1)&&(isMovingUp(e2)||isMovingDown(e1))){
 //            System.out.println(e2.getComponent(SpriteComponent.class).getValue()+" bottom collides on "+e1.getComponent(SpriteComponent.class).getValue());
-            return BOTTOM_COLLIDED_COMPONENT_CLASS;
+            return ContactBuffer.BOTTOM;
         }
 //        System.out.println("no vertical collision on "+e1.getComponent(SpriteComponent.class).getValue());
-        return null;
+        return NO_COLLISION;
     }
 
 
 
-    private boolean seemColliding(Entity e1, Entity e2){
-        return ((ImageView) getComponentValue(IMAGEVIEW_COMPONENT_CLASS,e1)).intersects(((ImageView) getComponentValue(IMAGEVIEW_COMPONENT_CLASS,e2)).getBoundsInLocal());
-    }
-
     private boolean wasLeftTo(Entity e1, Entity e2){
-        return ((Double)getComponentValue(X_POSITION_COMPONENT_CLASS,e1,GET_OLD_VALUE)+(Double)getComponentValue(WIDTH_COMPONENT_CLASS,e1))<(Double)getComponentValue(X_POSITION_COMPONENT_CLASS,e2,GET_OLD_VALUE);
+        return (getOldDouble(X_POSITION_COMPONENT_CLASS,e1)+getDouble(WIDTH_COMPONENT_CLASS,e1))<getOldDouble(X_POSITION_COMPONENT_CLASS,e2);
     }
 
     private boolean wasRightTo(Entity e1, Entity e2){
-        return (Double)getComponentValue(X_POSITION_COMPONENT_CLASS,e1,GET_OLD_VALUE)>((Double)getComponentValue(X_POSITION_COMPONENT_CLASS,e2,GET_OLD_VALUE)+(Double)getComponentValue(WIDTH_COMPONENT_CLASS,e2));
+        return getOldDouble(X_POSITION_COMPONENT_CLASS,e1)>(getOldDouble(X_POSITION_COMPONENT_CLASS,e2)+getDouble(WIDTH_COMPONENT_CLASS,e2));
     }
 
     private boolean wasAbove(Entity e1, Entity e2){
-        return ((Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,e1,GET_OLD_VALUE)+(Double)getComponentValue(HEIGHT_COMPONENT_CLASS,e1))<(Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,e2,GET_OLD_VALUE);
+        return (getOldDouble(Y_POSITION_COMPONENT_CLASS,e1)+getDouble(HEIGHT_COMPONENT_CLASS,e1))<getOldDouble(Y_POSITION_COMPONENT_CLASS,e2);
     }
 
     private boolean wasBelow(Entity e1, Entity e2){
-        return (Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,e1,GET_OLD_VALUE)>((Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,e2,GET_OLD_VALUE)+(Double)getComponentValue(HEIGHT_COMPONENT_CLASS,e2));
+        return getOldDouble(Y_POSITION_COMPONENT_CLASS,e1)>(getOldDouble(Y_POSITION_COMPONENT_CLASS,e2)+getDouble(HEIGHT_COMPONENT_CLASS,e2));
     }
 
     private boolean isMovingLeft(Entity entity){
-        return (Double)getComponentValue(X_POSITION_COMPONENT_CLASS,entity,GET_OLD_VALUE)>(Double) getComponentValue(X_POSITION_COMPONENT_CLASS,entity);
+        return getOldDouble(X_POSITION_COMPONENT_CLASS,entity)>getDouble(X_POSITION_COMPONENT_CLASS,entity);
     }
 
     private boolean isMovingRight(Entity entity){
-        return (Double)getComponentValue(X_POSITION_COMPONENT_CLASS,entity,GET_OLD_VALUE)<(Double) getComponentValue(X_POSITION_COMPONENT_CLASS,entity);
+        return getOldDouble(X_POSITION_COMPONENT_CLASS,entity)<getDouble(X_POSITION_COMPONENT_CLASS,entity);
     }
 
     private boolean isMovingUp(Entity entity){
-        return (Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,entity,GET_OLD_VALUE)>(Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,entity);
+        return getOldDouble(Y_POSITION_COMPONENT_CLASS,entity)>getDouble(Y_POSITION_COMPONENT_CLASS,entity);
     }
 
     private boolean isMovingDown(Entity entity){
-        return (Double)getComponentValue(Y_POSITION_COMPONENT_CLASS,entity,GET_OLD_VALUE)<(Double) getComponentValue(Y_POSITION_COMPONENT_CLASS,entity);
-    }
-
-    private boolean verticallyCollided(Entity entity){
-        return entity.hasComponents(TOP_COLLIDED_COMPONENT_CLASS)||entity.hasComponents(BOTTOM_COLLIDED_COMPONENT_CLASS);
+        return getOldDouble(Y_POSITION_COMPONENT_CLASS,entity)<getDouble(Y_POSITION_COMPONENT_CLASS,entity);
     }
 
-    private boolean horizontallyCollided(Entity entity){
-        return entity.hasComponents(LEFT_COLLIDED_COMPONENT_CLASS)||entity.hasComponents(RIGHT_COLLIDED_COMPONENT_CLASS);
+    private boolean verticallyCollided(ContactBuffer.Slot slot){
+        return slot.collided(ContactBuffer.TOP)||slot.collided(ContactBuffer.BOTTOM);
     }
 
-    private void removeCollidedComponents(Entity entity){
-        entity.removeComponent(Arrays.asList(LEFT_COLLIDED_COMPONENT_CLASS,RIGHT_COLLIDED_COMPONENT_CLASS,TOP_COLLIDED_COMPONENT_CLASS,BOTTOM_COLLIDED_COMPONENT_CLASS,ANY_COLLIDED_COMPONENT_CLASS));
+    private boolean horizontallyCollided(ContactBuffer.Slot slot){
+        return slot.collided(ContactBuffer.LEFT)||slot.collided(ContactBuffer.RIGHT);
     }
 
 }
@@ -0,0 +1,97 @@
+package engine.internal.systems;
+
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.Level;
+import engine.external.actions.NumericAction;
+import engine.external.actions.ValueAction;
+import engine.external.component.*;
+import engine.external.conditions.StringEqualToCondition;
+import engine.external.events.AnyCollisionEvent;
+import engine.external.events.Event;
+
+import javafx.scene.input.KeyCode;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author engine
+ * Tests that the CollidedComponents CollisionSystem attaches on the first contact of an Entity reach the Events of the
+ * same game loop, and stay attached afterwards with empty views while the Entity touches nothing
+ */
+public class CollisionSystemTest {
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+    private static final List<Class<? extends Component>> COLLIDED = Arrays.asList(AnyCollidedComponent.class,
+            LeftCollidedComponent.class, RightCollidedComponent.class, TopCollidedComponent.class,
+            BottomCollidedComponent.class);
+
+    /**
+     * Test that a first contact is seen by an Event on its game loop, and that on the next, contact-free game loop
+     * the CollidedComponents of the Entity are still attached but list no Entity, so the Event does not fire again
+     */
+    @Test
+    public void testContactsClearedOnNextLoop() {
+        Entity left = createEntity("left", 0.0);
+        Entity right = createEntity("right", 20.0);
+        right.addComponent(new ValueComponent(0.0));
+        Event hit = new AnyCollisionEvent("left", false);
+        hit.addConditions(new StringEqualToCondition(NameComponent.class, "right"));
+        hit.addActions(new ValueAction(NumericAction.ModifyType.RELATIVE, 1.0));
+        Engine engine = createEngine(hit, left, right);
+
+        ((XPositionComponent) left.getComponent(XPositionComponent.class)).setValue(6.0);
+        ((XPositionComponent) right.getComponent(XPositionComponent.class)).setValue(15.0);
+        engine.updateState(NO_INPUTS);
+
+        assertTrue(right.hasComponents(AnyCollidedComponent.class));
+        assertEquals(1.0, right.getComponent(ValueComponent.class).getValue());
+
+        engine.updateState(NO_INPUTS);
+
+        assertTrue(right.hasComponents(AnyCollidedComponent.class));
+        for (Class<? extends Component> collided : COLLIDED) {
+            if (right.hasComponents(collided)) {
+                assertTrue(contacts(right, collided).isEmpty(), collided.getSimpleName());
+            }
+        }
+        assertEquals(1.0, right.getComponent(ValueComponent.class).getValue());
+    }
+
+    // No ZPositionComponent, so MovementSystem leaves the Entity where the test puts it
+    private Entity createEntity(String name, double x) {
+        Entity entity = new Entity();
+        entity.addComponent(new NameComponent(name));
+        entity.addComponent(new XPositionComponent(x));
+        entity.addComponent(new YPositionComponent(0.0));
+        entity.addComponent(new WidthComponent(10.0));
+        entity.addComponent(new HeightComponent(10.0));
+        entity.addComponent(new CollisionComponent(true));
+        return entity;
+    }
+
+    private Collection<?> contacts(Entity entity, Class<? extends Component> collided) {
+        return (Collection<?>) entity.getComponent(collided).getValue();
+    }
+
+    // LivesSystem expects a player with lives on every game loop
+    private Engine createEngine(Event event, Entity... entities) {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        for (Entity entity : entities) {
+            level.addEntity(entity);
+        }
+        Entity player = new Entity();
+        player.addComponent(new LivesComponent(3.0));
+        level.addEntity(player);
+        level.addEvent(event);
+        return new Engine(level);
+    }
+}
@@ -0,0 +1,39 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+import engine.external.component.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author engine
+ *
+ * Components a System has asked to attach while it could not attach them right away, e.g. while running concurrently
+ * with other Systems or while iterating its Entities in parallel chunks. Changes are kept in the order they were made.
+ */
+final class ComponentChanges {
+    private final List<Entity> myEntities = new ArrayList<>();
+    private final List<Component<?>> myComponents = new ArrayList<>();
+
+    void add(Entity entity, Component<?> component) {
+        myEntities.add(entity);
+        myComponents.add(component);
+    }
+
+    int size() {
+        return myEntities.size();
+    }
+
+    boolean isEmpty() {
+        return myEntities.isEmpty();
+    }
+
+    Entity getEntity(int k) {
+        return myEntities.get(k);
+    }
+
+    Component<?> getComponent(int k) {
+        return myComponents.get(k);
+    }
+}
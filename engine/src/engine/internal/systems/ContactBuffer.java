@@ -0,0 +1,176 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+import engine.external.component.AnyCollidedComponent;
+import engine.external.component.BottomCollidedComponent;
+import engine.external.component.Component;
+import engine.external.component.LeftCollidedComponent;
+import engine.external.component.RightCollidedComponent;
+import engine.external.component.TopCollidedComponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * @author engine
+ * <p>
+ * Per-Engine record of the collisions of the current game loop, kept by CollisionSystem. Every Entity that has ever
+ * collided owns a Slot holding one ContactView and one CollidedComponent (whose value is that view) per side, plus
+ * the position the Entity is pushed back to at the end of the game loop. The CollidedComponents are attached the first
+ * time the Entity collides on that side and then stay attached, showing an empty view in game loops without contact,
+ * which is exactly how CollisionCondition sees an Entity without the Component. Recording a contact therefore needs
+ * no reflection and no Component churn, and clearing the buffer only resets the Slots touched in this game loop.
+ * <p>
+ * A CollidedComponent that is not attached yet goes through the attacher CollisionSystem hands in, i.e. its
+ * VoogaSystem.addComponent, so that it lands at the next sync point like every other structural change of a System.
+ */
+final class ContactBuffer {
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int TOP = 2;
+    static final int BOTTOM = 3;
+    static final int ANY = 4;
+    private static final int SIDES = 5;
+
+    private final Map<Entity, Slot> mySlots;
+    private final List<Slot> myTouched;
+    private final BiConsumer<Entity, Component<?>> myAttacher;
+    private Slot[] mySlotsByIndex;
+
+    /**
+     * @param attacher attaches a CollidedComponent to an Entity on behalf of CollisionSystem
+     */
+    ContactBuffer(BiConsumer<Entity, Component<?>> attacher) {
+        myAttacher = attacher;
+        mySlots = new IdentityHashMap<>();
+        myTouched = new ArrayList<>();
+        mySlotsByIndex = new Slot[0];
+    }
+
+    /**
+     * Prepare for a game loop in which CollisionSystem indexes its Entities from 0 to count-1
+     * @param count number of collidable Entities in this game loop
+     */
+    void begin(int count) {
+        if (mySlotsByIndex.length < count) {
+            mySlotsByIndex = new Slot[Math.max(count, mySlotsByIndex.length * 2)];
+        } else {
+            Arrays.fill(mySlotsByIndex, null);
+        }
+    }
+
+    /**
+     * Record that Entity e2 collides on a side of Entity e1
+     * @param index index of e1 in this game loop
+     * @param e1 Entity being collided
+     * @param side LEFT, RIGHT, TOP, BOTTOM or ANY
+     * @param e2 Entity colliding with e1
+     */
+    void record(int index, Entity e1, int side, Entity e2) {
+        Slot slot = slotFor(index, e1);
+        boolean first = slot.myViews[side].isEmpty();
+        slot.myViews[side].record(e2);
+        if (first) {
+            slot.attach(e1, side, myAttacher);
+        }
+    }
+
+    /**
+     * Remember where an Entity that collided in this game loop is pushed back to
+     */
+    void recordOldPosition(int index, Entity entity, double oldX, double oldY) {
+        Slot slot = slotFor(index, entity);
+        slot.myOldX = oldX;
+        slot.myOldY = oldY;
+    }
+
+    /**
+     * @return the Slots of the Entities that collided in this game loop
+     */
+    List<Slot> getTouched() {
+        return myTouched;
+    }
+
+    /**
+     * Empty every Slot touched in this game loop
+     */
+    void clear() {
+        for (Slot slot : myTouched) {
+            for (ContactView view : slot.myViews) {
+                view.reset();
+            }
+            slot.myTouched = false;
+        }
+        myTouched.clear();
+    }
+
+    /**
+     * Drop the Slot of an Entity leaving the game
+     */
+    void forget(Entity entity) {
+        mySlots.remove(entity);
+    }
+
+    private Slot slotFor(int index, Entity entity) {
+        Slot slot = mySlotsByIndex[index];
+        if (slot == null) {
+            slot = mySlots.computeIfAbsent(entity, e -> new Slot(e));
+            mySlotsByIndex[index] = slot;
+        }
+        if (!slot.myTouched) {
+            slot.myTouched = true;
+            myTouched.add(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Contacts of one Entity
+     */
+    static final class Slot {
+        private final Entity myEntity;
+        private final ContactView[] myViews;
+        private final Component<?>[] myComponents;
+        private boolean myTouched;
+        private double myOldX;
+        private double myOldY;
+
+        private Slot(Entity entity) {
+            myEntity = entity;
+            myViews = new ContactView[SIDES];
+            for (int side = 0; side < SIDES; side++) {
+                myViews[side] = new ContactView();
+            }
+            myComponents = new Component<?>[]{new LeftCollidedComponent(myViews[LEFT]),
+                    new RightCollidedComponent(myViews[RIGHT]), new TopCollidedComponent(myViews[TOP]),
+                    new BottomCollidedComponent(myViews[BOTTOM]), new AnyCollidedComponent(myViews[ANY])};
+        }
+
+        Entity getEntity() {
+            return myEntity;
+        }
+
+        boolean collided(int side) {
+            return !myViews[side].isEmpty();
+        }
+
+        double getOldX() {
+            return myOldX;
+        }
+
+        double getOldY() {
+            return myOldY;
+        }
+
+        // On the first contact of a side, and again after the Component was taken off, e.g. by SaveGameSystem
+        private void attach(Entity entity, int side, BiConsumer<Entity, Component<?>> attacher) {
+            if (entity.getComponent(myComponents[side].getClass()) != myComponents[side]) {
+                attacher.accept(entity, myComponents[side]);
+            }
+        }
+    }
+}
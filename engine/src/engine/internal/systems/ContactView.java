@@ -0,0 +1,69 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author engine
+ * <p>
+ * Read-only collection of the Entities colliding with one Entity on one side during the current game loop. It is the
+ * value of a CollidedComponent and is filled by CollisionSystem through a ContactBuffer; the backing array is kept and
+ * reused across game loops, so recording a contact allocates nothing once the array has grown to its working size.
+ */
+final class ContactView extends AbstractCollection<Entity> {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private Entity[] myEntities = new Entity[INITIAL_CAPACITY];
+    private int mySize;
+
+    @Override
+    public Iterator<Entity> iterator() {
+        return new Iterator<Entity>() {
+            private int myNext;
+
+            @Override
+            public boolean hasNext() {
+                return myNext < mySize;
+            }
+
+            @Override
+            public Entity next() {
+                if (myNext >= mySize) {
+                    throw new NoSuchElementException();
+                }
+                return myEntities[myNext++];
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return mySize;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (int k = 0; k < mySize; k++) {
+            if (myEntities[k] == o) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void record(Entity entity) {
+        if (mySize == myEntities.length) {
+            myEntities = Arrays.copyOf(myEntities, mySize * 2);
+        }
+        myEntities[mySize++] = entity;
+    }
+
+    void reset() {
+        Arrays.fill(myEntities, 0, mySize, null);
+        mySize = 0;
+    }
+}
@@ -1,14 +1,20 @@
 package engine.internal.systems;
 
 
+import engine.external.Entity;
 import engine.external.IEventEngine;
 import engine.external.component.Component;
 import engine.external.Engine;
+import engine.external.conditions.ConditionNetwork;
+import engine.external.events.Event;
+import javafx.scene.input.KeyCode;
 
 import java.util.ArrayList;
 
 
 import java.util.Collection;
+import java.util.List;
+import java.util.ResourceBundle;
 
 
 /**
@@ -18,7 +24,14 @@ import java.util.Collection;
  */
 public class EventHandlerSystem extends VoogaSystem {
 
+    private static final ResourceBundle SETTINGS_RESOURCES = ResourceBundle.getBundle("EngineSettings");
+    private static final String TWO_PHASE_THRESHOLD_KEY = "TwoPhaseMatchThreshold";
+
     Collection<IEventEngine> myEvents;
+    private EventIndex myEventIndex;
+    private InputDispatchTable myInputTable;
+    private ConditionNetwork myConditionNetwork;
+    private TwoPhaseEvaluation myTwoPhaseEvaluation;
 
     /**
      * Accepts a reference to the Engine in charge of all Systems in current game, a Collection of Component classes
@@ -31,6 +44,11 @@ public class EventHandlerSystem extends VoogaSystem {
     public EventHandlerSystem(Collection<Class<? extends Component>> requiredComponents, Engine engine, Collection<IEventEngine> events) {
         super(requiredComponents, engine);
         myEvents = events;
+        myEventIndex = new EventIndex(engine.getSymbolTable());
+        myInputTable = new InputDispatchTable(events);
+        myConditionNetwork = new ConditionNetwork();
+        myTwoPhaseEvaluation = new TwoPhaseEvaluation(
+                Integer.parseInt(SETTINGS_RESOURCES.getString(TWO_PHASE_THRESHOLD_KEY)));
     }
 
     /**
@@ -38,11 +56,31 @@ public class EventHandlerSystem extends VoogaSystem {
      * Each Event object has its own engine.external.conditions and engine.external.actions defined and embedded in the Event class,
      * the execute() call would invoke an Event to check whether its pre-defined engine.external.conditions have
      * been met such that its engine.external.actions could be triggered
+     * Events requiring inputs that are not all pressed are skipped (see InputDispatchTable), and Events pinned to a name
+     * or group by their Conditions are only handed the Entities carrying that label
+     * The Events share one ConditionNetwork, so a Condition authored identically in several Events is tested once per
+     * Entity until some Action changes the game state
+     * Levels selecting two-phase evaluation match all Events before running any Action, see TwoPhaseEvaluation
      */
     @Override
     protected void run() {
-        for (IEventEngine e : myEvents) {
-            e.execute(new ArrayList<>(this.getEntities()), this.getKeyCodes());
+        List<Entity> entities = this.getEntities();
+        Collection<KeyCode> inputs = this.getKeyCodes();
+        if (myEngine.isTwoPhaseEvents()) {
+            myInputTable.dispatch(inputs, e -> myTwoPhaseEvaluation.add(e,
+                    e instanceof Event ? myEventIndex.getCandidates((Event) e, entities) : entities, inputs));
+            myTwoPhaseEvaluation.run(inputs);
+            return;
         }
+        // the other Systems have run since the last game loop
+        myConditionNetwork.invalidate();
+        myInputTable.dispatch(inputs, e -> {
+            if (e instanceof Event) {
+                ((Event) e).execute(myEventIndex.getCandidates((Event) e, entities), inputs, myConditionNetwork);
+            } else {
+                e.execute(new ArrayList<>(entities), inputs);
+                myConditionNetwork.invalidate();
+            }
+        });
     }
 }
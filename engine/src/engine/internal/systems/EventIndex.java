@@ -0,0 +1,95 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+import engine.external.SymbolTable;
+import engine.external.component.Component;
+import engine.external.component.GroupComponent;
+import engine.external.component.NameComponent;
+import engine.external.conditions.Condition;
+import engine.external.conditions.StringEqualToCondition;
+import engine.external.events.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author engine
+ *
+ * Indexes the Entities handed to EventHandlerSystem by name and by group, so that an Event whose Conditions pin down
+ * a name or group with a StringEqualToCondition is only handed the Entities carrying that label. An Event rejects
+ * every other Entity on its very first name/group check anyway, before any other Condition or Action touches it.
+ *
+ * The buckets keep the order of the indexed list, so Events still visit their Entities in the same order. The index
+ * is rebuilt when it is handed a different list of Entities (Entities spawned or destroyed) or when any name or group
+ * has changed since it was built, e.g. by an Action of an Event executed earlier in the same game loop.
+ */
+final class EventIndex {
+    private final SymbolTable myTable;
+    private List<Entity> myIndexedEntities;
+    private int myIndexedLabelCount;
+    private Map<String, List<Entity>> myByName = Collections.emptyMap();
+    private Map<String, List<Entity>> myByGroup = Collections.emptyMap();
+
+    /**
+     * @param table SymbolTable of the running game, counting the changes of its names and groups
+     */
+    EventIndex(SymbolTable table) {
+        myTable = table;
+    }
+
+    /**
+     * @param event an Event about to be executed
+     * @param entities every Entity the Event could apply to, in execution order; the index is only rebuilt when it is
+     * handed a different list than last time, so the list must not be modified afterwards
+     * @return the Entities the Event could apply to given its name and group Conditions, in the order of entities; the
+     * list must not be modified
+     */
+    List<Entity> getCandidates(Event event, List<Entity> entities) {
+        List<Entity> candidates = entities;
+        for (Object condition : event.getEventInformation().get(Condition.class)) {
+            List<Entity> pinned = getPinned((Condition) condition, entities);
+            if (pinned != null && pinned.size() < candidates.size()) {
+                candidates = pinned;
+            }
+        }
+        return candidates;
+    }
+
+    // Entities matching a name or group Condition, or null if the Condition does not pin down a label
+    private List<Entity> getPinned(Condition condition, List<Entity> entities) {
+        if (!(condition instanceof StringEqualToCondition)) {
+            return null;
+        }
+        StringEqualToCondition label = (StringEqualToCondition) condition;
+        if (label.getComponentClass() != NameComponent.class && label.getComponentClass() != GroupComponent.class) {
+            return null;
+        }
+        ensureIndexed(entities);
+        Map<String, List<Entity>> index = (label.getComponentClass() == NameComponent.class) ? myByName : myByGroup;
+        return index.getOrDefault(label.getValue(), Collections.emptyList());
+    }
+
+    private void ensureIndexed(List<Entity> entities) {
+        if (entities == myIndexedEntities && myTable.getModificationCount() == myIndexedLabelCount) {
+            return;
+        }
+        myIndexedLabelCount = myTable.getModificationCount();
+        myIndexedEntities = entities;
+        myByName = new HashMap<>();
+        myByGroup = new HashMap<>();
+        for (Entity entity : entities) {
+            addToBucket(myByName, entity, NameComponent.class);
+            addToBucket(myByGroup, entity, GroupComponent.class);
+        }
+    }
+
+    private void addToBucket(Map<String, List<Entity>> index, Entity entity, Class<? extends Component> labelClass) {
+        Component<?> label = entity.getComponent(labelClass);
+        if (label != null && label.getValue() != null) {
+            index.computeIfAbsent((String) label.getValue(), key -> new ArrayList<>()).add(entity);
+        }
+    }
+}
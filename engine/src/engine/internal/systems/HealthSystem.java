@@ -1,6 +1,5 @@
 package engine.internal.systems;
 
-import engine.external.Entity;
 import engine.external.component.Component;
 import engine.external.Engine;
 import engine.external.component.DestroyComponent;
@@ -30,14 +29,14 @@ public class HealthSystem extends VoogaSystem {
      */
     @Override
     protected void run() {
-        for(Entity e:this.getEntities()){
-            if((Double)getComponentValue(HEALTH_COMPONENT_CLASS,e)<0){
+        forEachEntity(e -> {
+            if(getDouble(HEALTH_COMPONENT_CLASS,e)<0){
                 if(e.hasComponents(DESTROY_COMPONENT_CLASS)){
                     ((DestroyComponent)e.getComponent(DESTROY_COMPONENT_CLASS)).setValue(true);
                 }else{
-                    e.addComponent(new DestroyComponent(true));
+                    addComponent(e, new DestroyComponent(true));
                 }
             }
-        }
+        });
     }
 }
@@ -2,6 +2,7 @@ package engine.internal.systems;
 
 import data.external.DataManager;
 import engine.external.Entity;
+import engine.external.EntityTable;
 import engine.external.component.Component;
 import engine.external.component.ImageViewComponent;
 import engine.external.Engine;
@@ -12,18 +13,23 @@ import voogasalad.util.reflection.ReflectionException;
 
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * @author Hsingchih Tang
  * Updates the ImageView visualization and positions for Entities that have a SpriteComponent and PositionComponents
  */
 public class ImageViewSystem extends VoogaSystem {
+    private static final List<Class<? extends Component>> DRAWN_COMPONENTS = Arrays.asList(X_POSITION_COMPONENT_CLASS,
+            Y_POSITION_COMPONENT_CLASS, WIDTH_COMPONENT_CLASS, HEIGHT_COMPONENT_CLASS, OPACITY_COMPONENT_CLASS);
 
     DataManager myDataManager;
-    HashMap<Entity, String> myEntityPastSprite;
+    EntityTable<String> myEntityPastSprite;
     HashMap<String, Image> myImages;
+    private long myLastChangeTick;
 
     /**
      * Accepts a reference to the Engine in charge of all Systems in current game, and a Collection of Component classes
@@ -35,24 +41,28 @@ public class ImageViewSystem extends VoogaSystem {
     public ImageViewSystem(Collection<Class<? extends Component>> requiredComponents, Engine engine) {
         super(requiredComponents, engine);
         myDataManager = new DataManager();
-        myEntityPastSprite = new HashMap<>();
+        myEntityPastSprite = engine.createEntityTable();
         myImages = new HashMap<>();
+        myLastChangeTick = Long.MIN_VALUE;
     }
 
     @Override
     /**
      * Assign or update the ImageViewComponents for each eligible Entity.
-     * Sizes and positions of each Entity's Imageview are updated on every game loop.
+     * Sizes and positions of each Entity's Imageview are updated on the game loops where any of them has changed.
      * The system keeps track of the Sprites of Entities and creates a new ImageView if an Entity's Sprite has changed.
      */
     protected void run() throws ReflectionException {
+        long changeTick = myEngine.getChangeTick();
         for (Entity entity : this.getEntities()) {
             generateImageView(entity);
         }
+        myLastChangeTick = changeTick;
     }
 
     /**
      * Generate or adjust the height/width/positions/opacity of an Entity's ImageView
+     * Leave the ImageView as it is if none of them has changed since the last game loop (see Component.getChangeTick)
      * Only access database to retrieve new image if the Sprite String has changed since the last game loop
      * Cache all seen images with corresponding Sprite Strings in the System to reduce database accesses
      * Set an Entity as not collidable if its image cannot be found from database
@@ -68,20 +78,34 @@ public class ImageViewSystem extends VoogaSystem {
             retrieveImage(imageName);
             if (myImages.get(imageName) == null) {
                 System.out.println("Image file " + imageName + " not found in database.");
-                entity.removeComponent(COLLISION_COMPONENT_CLASS);
+                removeComponent(entity, COLLISION_COMPONENT_CLASS);
                 return;
             }
             imageView = new ImageView(myImages.get(imageName));
         } else {
-            if (myImages.get(imageName) == null) {
+            if (myImages.get(imageName) == null || isDrawnUnchanged(entity)) {
                 return;
             }
             imageView = (ImageView) getComponentValue(IMAGEVIEW_COMPONENT_CLASS, entity);
         }
-        entity.addComponent(new ImageViewComponent(setImageViewOpacity(setImgViewHeight(setImgViewWidth(setImgViewY(setImgViewX(imageView, entity), entity), entity), entity), entity)));
+        addComponent(entity, new ImageViewComponent(setImageViewOpacity(setImgViewHeight(setImgViewWidth(setImgViewY(setImgViewX(imageView, entity), entity), entity), entity), entity)));
     }
 
 
+    // True if the Entity's ImageView already shows its current position, size and opacity
+    private boolean isDrawnUnchanged(Entity entity) {
+        if (!entity.hasComponents(IMAGEVIEW_COMPONENT_CLASS)) {
+            return false;
+        }
+        for (Class<? extends Component> clazz : DRAWN_COMPONENTS) {
+            Component<?> component = entity.getComponent(clazz);
+            if (component == null || component.hasChangedSince(myLastChangeTick)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void retrieveImage(String imageName) {
         if (!myImages.containsKey(imageName)) {
             InputStream imageStream = myDataManager.loadImage(imageName);
@@ -95,32 +119,32 @@ public class ImageViewSystem extends VoogaSystem {
     }
 
     private ImageView setImgViewX(ImageView m, Entity e) {
-        m.setX((Double) getComponentValue(X_POSITION_COMPONENT_CLASS, e));
+        m.setX(getDouble(X_POSITION_COMPONENT_CLASS, e));
         return m;
     }
 
     private ImageView setImgViewY(ImageView m, Entity e) {
-        m.setY((Double) getComponentValue(Y_POSITION_COMPONENT_CLASS, e));
+        m.setY(getDouble(Y_POSITION_COMPONENT_CLASS, e));
         return m;
     }
 
     private ImageView setImgViewWidth(ImageView m, Entity e) {
-        m.setFitWidth((Double) getComponentValue(WIDTH_COMPONENT_CLASS, e));
+        m.setFitWidth(getDouble(WIDTH_COMPONENT_CLASS, e));
         return m;
     }
 
     private ImageView setImgViewHeight(ImageView m, Entity e) {
-        m.setFitHeight((Double) getComponentValue(HEIGHT_COMPONENT_CLASS, e));
+        m.setFitHeight(getDouble(HEIGHT_COMPONENT_CLASS, e));
         return m;
     }
 
     private ImageView setImageViewOpacity(ImageView m, Entity e) {
         double opacity;
         try {
-            opacity = (Double) getComponentValue(OPACITY_COMPONENT_CLASS, e);
+            opacity = getDouble(OPACITY_COMPONENT_CLASS, e);
         } catch (NullPointerException e1) {
             e.addComponent(new OpacityComponent(1.0));
-            opacity = (Double) getComponentValue(OPACITY_COMPONENT_CLASS, e);
+            opacity = getDouble(OPACITY_COMPONENT_CLASS, e);
 
         }
         m.setOpacity(opacity);
@@ -0,0 +1,105 @@
+package engine.internal.systems;
+
+import engine.external.IEventEngine;
+import engine.external.events.Event;
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * @author engine
+ *
+ * Dispatch table of the Events of a Level keyed by the KeyCode inputs they require. An Event does nothing unless all of
+ * its inputs are pressed, so every Event requiring inputs is registered under one of its keys and, on a game loop, only
+ * the Events registered under a pressed key are considered; each of those then costs one EnumSet subset test. Events
+ * requiring no input are always dispatched.
+ *
+ * Events are dispatched in the order of the Event collection the table was built from. The inputs of an Event are
+ * read once, so they must not change while the Level runs; the table is rebuilt if Events are added or removed.
+ */
+final class InputDispatchTable {
+    private final Collection<IEventEngine> mySource;
+    private final List<IEventEngine> myEvents;
+    private final List<Set<KeyCode>> mySignatures;
+    private final Map<KeyCode, BitSet> myByKey;
+    private final BitSet myUnkeyed;
+    private final BitSet myCandidates;
+    private int mySourceSize;
+
+    /**
+     * @param events Events of the running Level, in execution order
+     */
+    InputDispatchTable(Collection<IEventEngine> events) {
+        mySource = events;
+        myEvents = new ArrayList<>();
+        mySignatures = new ArrayList<>();
+        myByKey = new EnumMap<>(KeyCode.class);
+        myUnkeyed = new BitSet();
+        myCandidates = new BitSet();
+        build();
+    }
+
+    /**
+     * Hand every Event whose required inputs are all pressed to an action, in execution order
+     * @param pressed KeyCodes pressed on this game loop; an EnumSet makes the subset test a few word operations
+     * @param action what to do with each Event, e.g. execute it
+     */
+    void dispatch(Collection<KeyCode> pressed, Consumer<IEventEngine> action) {
+        if (mySource.size() != mySourceSize) {
+            build();
+        }
+        myCandidates.clear();
+        myCandidates.or(myUnkeyed);
+        for (KeyCode key : pressed) {
+            BitSet registered = myByKey.get(key);
+            if (registered != null) {
+                myCandidates.or(registered);
+            }
+        }
+        for (int k = myCandidates.nextSetBit(0); k >= 0; k = myCandidates.nextSetBit(k + 1)) {
+            Set<KeyCode> signature = mySignatures.get(k);
+            if (signature == null || pressed.containsAll(signature)) {
+                action.accept(myEvents.get(k));
+            }
+        }
+    }
+
+    private void build() {
+        myEvents.clear();
+        mySignatures.clear();
+        myByKey.clear();
+        myUnkeyed.clear();
+        for (IEventEngine event : mySource) {
+            int index = myEvents.size();
+            myEvents.add(event);
+            Set<KeyCode> signature = signatureOf(event);
+            mySignatures.add(signature);
+            if (signature == null) {
+                myUnkeyed.set(index);
+            } else {
+                myByKey.computeIfAbsent(signature.iterator().next(), key -> new BitSet()).set(index);
+            }
+        }
+        mySourceSize = mySource.size();
+    }
+
+    // Inputs an Event requires, or null if it requires none (or cannot tell, as for other IEventEngine implementations)
+    private Set<KeyCode> signatureOf(IEventEngine event) {
+        if (!(event instanceof Event)) {
+            return null;
+        }
+        List<KeyCode> inputs = ((Event) event).getImmutableKeyCodes();
+        if (inputs.isEmpty() || inputs.contains(null)) {
+            return null;
+        }
+        return EnumSet.copyOf(inputs);
+    }
+}
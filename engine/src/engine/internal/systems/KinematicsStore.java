@@ -0,0 +1,205 @@
+package engine.internal.systems;
+
+import engine.external.Archetype;
+import engine.external.Entity;
+import engine.external.component.DoubleComponent;
+import engine.external.component.XAccelerationComponent;
+import engine.external.component.XPositionComponent;
+import engine.external.component.XVelocityComponent;
+import engine.external.component.YAccelerationComponent;
+import engine.external.component.YPositionComponent;
+import engine.external.component.YVelocityComponent;
+
+import java.util.Arrays;
+
+/**
+ * @author engine
+ * <p>
+ * Structure-of-arrays scratch storage for the kinematic state of every moving Entity in one game loop.
+ * Positions, velocities and accelerations are gathered into parallel primitive arrays (one slot per Entity), integrated
+ * in a single branch-free loop and then scattered back into the Components. Entities without velocity or acceleration
+ * Components get 0.0 in those slots and are simply not written back. The arrays are reused between game loops and only
+ * grow, so a steady-state game loop allocates nothing here.
+ */
+final class KinematicsStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int mySize;
+    private Entity[] myEntities;
+    private XPositionComponent[] myXPositions;
+    private YPositionComponent[] myYPositions;
+    private DoubleComponent[] myXVelocities;
+    private DoubleComponent[] myYVelocities;
+    private double[] myX;
+    private double[] myY;
+    private double[] myVX;
+    private double[] myVY;
+    private double[] myAX;
+    private double[] myAY;
+    private int[] myOffScreen;
+
+    KinematicsStore() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Forget the Entities gathered in the previous game loop, keeping the arrays for reuse
+     */
+    void clear() {
+        Arrays.fill(myEntities, 0, mySize, null);
+        Arrays.fill(myXPositions, 0, mySize, null);
+        Arrays.fill(myYPositions, 0, mySize, null);
+        Arrays.fill(myXVelocities, 0, mySize, null);
+        Arrays.fill(myYVelocities, 0, mySize, null);
+        mySize = 0;
+    }
+
+    /**
+     * Gather every Entity of an Archetype by walking its Component columns
+     * @param archetype Archetype whose Entities all carry X/Y PositionComponents
+     */
+    void gather(Archetype archetype) {
+        Archetype.Column xPositions = archetype.getColumn(XPositionComponent.class);
+        Archetype.Column yPositions = archetype.getColumn(YPositionComponent.class);
+        Archetype.Column xVelocities = archetype.getColumn(XVelocityComponent.class);
+        Archetype.Column yVelocities = archetype.getColumn(YVelocityComponent.class);
+        Archetype.Column xAccelerations = archetype.getColumn(XAccelerationComponent.class);
+        Archetype.Column yAccelerations = archetype.getColumn(YAccelerationComponent.class);
+        int rows = archetype.size();
+        ensureCapacity(mySize + rows);
+        for (int row = 0; row < rows; row++) {
+            put(archetype.getEntity(row), (XPositionComponent) xPositions.get(row), (YPositionComponent) yPositions.get(row),
+                    at(xVelocities, row), at(yVelocities, row), at(xAccelerations, row), at(yAccelerations, row));
+        }
+    }
+
+    /**
+     * Gather a single Entity through its Component map
+     * @param entity Entity carrying X/Y PositionComponents
+     */
+    void gather(Entity entity) {
+        ensureCapacity(mySize + 1);
+        put(entity, (XPositionComponent) entity.getComponent(XPositionComponent.class),
+                (YPositionComponent) entity.getComponent(YPositionComponent.class),
+                (DoubleComponent) entity.getComponent(XVelocityComponent.class),
+                (DoubleComponent) entity.getComponent(YVelocityComponent.class),
+                (DoubleComponent) entity.getComponent(XAccelerationComponent.class),
+                (DoubleComponent) entity.getComponent(YAccelerationComponent.class));
+    }
+
+    /**
+     * Advance the gathered Entities of a range by one game loop: p' = p + v + a/2 and v' = v + a. Disjoint ranges may
+     * be integrated concurrently.
+     * Kept as plain loops over primitive arrays without branches or calls, which is the shape HotSpot's superword
+     * optimization turns into SIMD code
+     * @param from first slot (inclusive)
+     * @param to last slot (exclusive)
+     */
+    void integrate(int from, int to) {
+        double[] x = myX, y = myY, vx = myVX, vy = myVY, ax = myAX, ay = myAY;
+        for (int i = from; i < to; i++) {
+            x[i] = x[i] + vx[i] + ax[i] / 2.0;
+            vx[i] = vx[i] + ax[i];
+        }
+        for (int i = from; i < to; i++) {
+            y[i] = y[i] + vy[i] + ay[i] / 2.0;
+            vy[i] = vy[i] + ay[i];
+        }
+    }
+
+    /**
+     * Write the integrated state of a range back into the Components; disjoint ranges may be written back concurrently,
+     * as every slot holds the Components of a different Entity
+     * @param from first slot (inclusive)
+     * @param to last slot (exclusive)
+     */
+    void scatter(int from, int to) {
+        for (int i = from; i < to; i++) {
+            myXPositions[i].setDouble(myX[i]);
+            myYPositions[i].setDouble(myY[i]);
+            if (myXVelocities[i] != null) {
+                myXVelocities[i].setDouble(myVX[i]);
+            }
+            if (myYVelocities[i] != null) {
+                myYVelocities[i].setDouble(myVY[i]);
+            }
+        }
+    }
+
+    /**
+     * Batch pass over the integrated positions
+     * @param limitX largest absolute x position still considered on screen
+     * @param limitY largest absolute y position still considered on screen
+     * @return number of Entities beyond the limits; their slots are available through getOffScreen()
+     */
+    int findOffScreen(double limitX, double limitY) {
+        int count = 0;
+        for (int i = 0; i < mySize; i++) {
+            if (Math.abs(myX[i]) > limitX || Math.abs(myY[i]) > limitY) {
+                myOffScreen[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param k index between 0 and the count returned by the last findOffScreen() call
+     * @return the k-th Entity found off screen
+     */
+    Entity getOffScreen(int k) {
+        return myEntities[myOffScreen[k]];
+    }
+
+    /**
+     * @return number of Entities gathered in the current game loop
+     */
+    int size() {
+        return mySize;
+    }
+
+    private void put(Entity entity, XPositionComponent xPosition, YPositionComponent yPosition,
+                     DoubleComponent xVelocity, DoubleComponent yVelocity,
+                     DoubleComponent xAcceleration, DoubleComponent yAcceleration) {
+        int i = mySize++;
+        myEntities[i] = entity;
+        myXPositions[i] = xPosition;
+        myYPositions[i] = yPosition;
+        myXVelocities[i] = xVelocity;
+        myYVelocities[i] = yVelocity;
+        myX[i] = xPosition.getDouble();
+        myY[i] = yPosition.getDouble();
+        myVX[i] = valueOf(xVelocity);
+        myVY[i] = valueOf(yVelocity);
+        myAX[i] = valueOf(xAcceleration);
+        myAY[i] = valueOf(yAcceleration);
+    }
+
+    private static DoubleComponent at(Archetype.Column column, int row) {
+        return column == null ? null : (DoubleComponent) column.get(row);
+    }
+
+    private static double valueOf(DoubleComponent component) {
+        return component == null ? 0.0 : component.getDouble();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > myEntities.length) {
+            allocate(Math.max(capacity, myEntities.length * 2));
+        }
+    }
+
+    private void allocate(int capacity) {
+        myEntities = myEntities == null ? new Entity[capacity] : Arrays.copyOf(myEntities, capacity);
+        myXPositions = myXPositions == null ? new XPositionComponent[capacity] : Arrays.copyOf(myXPositions, capacity);
+        myYPositions = myYPositions == null ? new YPositionComponent[capacity] : Arrays.copyOf(myYPositions, capacity);
+        myXVelocities = myXVelocities == null ? new DoubleComponent[capacity] : Arrays.copyOf(myXVelocities, capacity);
+        myYVelocities = myYVelocities == null ? new DoubleComponent[capacity] : Arrays.copyOf(myYVelocities, capacity);
+        myX = myX == null ? new double[capacity] : Arrays.copyOf(myX, capacity);
+        myY = myY == null ? new double[capacity] : Arrays.copyOf(myY, capacity);
+        myVX = myVX == null ? new double[capacity] : Arrays.copyOf(myVX, capacity);
+        myVY = myVY == null ? new double[capacity] : Arrays.copyOf(myVY, capacity);
+        myAX = myAX == null ? new double[capacity] : Arrays.copyOf(myAX, capacity);
+        myAY = myAY == null ? new double[capacity] : Arrays.copyOf(myAY, capacity);
+        myOffScreen = new int[capacity];
+    }
+}
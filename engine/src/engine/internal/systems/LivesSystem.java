@@ -41,12 +41,12 @@ public class LivesSystem extends VoogaSystem {
             myMainEntity = this.getEntities().iterator().next();
         }
         if(livesBelowZero()){
-            myMainEntity.addComponent(new ProgressionComponent(false));
+            addComponent(myMainEntity, new ProgressionComponent(false));
         }
     }
 
     private boolean livesBelowZero(){
-        return (Double)getComponentValue(LIVES_COMPONENT_CLASS,myMainEntity)<0;
+        return getDouble(LIVES_COMPONENT_CLASS,myMainEntity)<0;
     }
 
 }
@@ -1,13 +1,10 @@
 package engine.internal.systems;
 
+import engine.external.Archetype;
 import engine.external.Entity;
 
 import engine.external.Engine;
 import engine.external.component.Component;
-import engine.external.component.XPositionComponent;
-import engine.external.component.YPositionComponent;
-import engine.external.component.XVelocityComponent;
-import engine.external.component.YVelocityComponent;
 import engine.external.component.DestroyComponent;
 
 import java.util.Collection;
@@ -20,9 +17,10 @@ import java.util.Collection;
  */
 public class MovementSystem extends VoogaSystem {
 
-    private static final Double OFF_SCREEN_TOLERANCE_RATIO = 2.0;
-    private Double myLevelHeight;
-    private Double myLevelWidth;
+    private static final double OFF_SCREEN_TOLERANCE_RATIO = 2.0;
+    private double myLevelHeight;
+    private double myLevelWidth;
+    private KinematicsStore myKinematics;
 
     /**
      * Accepts a reference to the Engine in charge of all Systems in current game, and a Collection of Component classes
@@ -35,89 +33,42 @@ public class MovementSystem extends VoogaSystem {
         super(requiredComponents, engine);
         myLevelHeight = myEngine.getRoomHeight();
         myLevelWidth = myEngine.getRoomWidth();
+        myKinematics = new KinematicsStore();
     }
 
     @Override
     /**
      * Calculates the next positions and velocities based on Entities' current positions, velocities and accelerations
      * Assigns the updated values to the X/Y PositionComponents and VelocityComponents of each Entity
-     * Marks an Entity moving beyond the screen's scope with a DestroyComponent
+     * Marks every Entity that moved beyond the screen's scope with a DestroyComponent in one pass afterwards
+     * The kinematic state is gathered into a KinematicsStore (straight from the Archetype columns when running on the
+     * live view), integrated in tight loops and scattered back into the Components, chunk by chunk in parallel when
+     * there are enough Entities (see ParallelLoop)
      */
     protected void run() {
-        for (Entity e: getEntities()) {
-
-            updateEntityParam(calcXPosition(e),calcYPosition(e),calcXVelocity(e),calcYVelocity(e),e);
-
-//            if(e.getComponent(SpriteComponent.class).getValue().equals("flappy_bird.png")){
-//                System.out.println(e.getComponent(SpriteComponent.class).getValue()+" x pos = "+x+ " y pos = "+y);
-//                System.out.println(e.getComponent(SpriteComponent.class).getValue()+" x vel = "+vX+ " y vel = "+vY);
-//            }
-
+        myKinematics.clear();
+        if (isRunningOnView()) {
+            for (Archetype archetype : getArchetypes()) {
+                myKinematics.gather(archetype);
+            }
+        } else {
+            for (Entity e : getEntities()) {
+                myKinematics.gather(e);
+            }
         }
+        ParallelLoop.forEachChunk(myKinematics.size(), getParallelThreshold(), (chunk, from, to) -> {
+            myKinematics.integrate(from, to);
+            myKinematics.scatter(from, to);
+        });
+        markEntitiesOffScreen();
     }
 
-    private double calcXPosition(Entity e){
-        return calcPosition((Double) getComponentValue(X_POSITION_COMPONENT_CLASS,e),
-                e.hasComponents(X_VELOCITY_COMPONENT_CLASS)?
-                        (Double) getComponentValue(X_VELOCITY_COMPONENT_CLASS,e):0.0,
-                e.hasComponents(X_ACCELERATION_COMPONENT_CLASS)?
-                        (Double) getComponentValue(X_ACCELERATION_COMPONENT_CLASS,e):0.0);
-    }
-
-    private double calcYPosition(Entity e){
-        return calcPosition((Double) getComponentValue(Y_POSITION_COMPONENT_CLASS,e),
-                e.hasComponents(Y_VELOCITY_COMPONENT_CLASS)?
-                        (Double) getComponentValue(Y_VELOCITY_COMPONENT_CLASS,e):0.0,
-                e.hasComponents(Y_ACCELERATION_COMPONENT_CLASS)?
-                        (Double) getComponentValue(Y_ACCELERATION_COMPONENT_CLASS,e):0.0);
-    }
-
-    private double calcPosition(double position, double velocity, double acceleration){
-        return position+velocity+acceleration/2.0;
-    }
-
-    private double calcXVelocity(Entity e){
-        return calcVelocity(e.hasComponents(X_VELOCITY_COMPONENT_CLASS)?
-                        (Double) getComponentValue(X_VELOCITY_COMPONENT_CLASS,e):0.0,
-                e.hasComponents(X_ACCELERATION_COMPONENT_CLASS)?
-                        (Double) getComponentValue(X_ACCELERATION_COMPONENT_CLASS,e):0.0);
-    }
-
-    private double calcYVelocity(Entity e){
-        return calcVelocity(e.hasComponents(Y_VELOCITY_COMPONENT_CLASS)?
-                (Double) getComponentValue(Y_VELOCITY_COMPONENT_CLASS,e):0.0,
-                e.hasComponents(Y_ACCELERATION_COMPONENT_CLASS)?
-                (Double) getComponentValue(Y_ACCELERATION_COMPONENT_CLASS,e):0.0);
-    }
-
-    private double calcVelocity(double velocity, double acceleration){
-        return velocity+acceleration;
-    }
-
-    private void updateEntityParam(double x, double y, double vX, double vY, Entity e){
-        ((XPositionComponent)e.getComponent(X_POSITION_COMPONENT_CLASS)).setValue(x);
-        ((YPositionComponent)e.getComponent(Y_POSITION_COMPONENT_CLASS)).setValue(y);
-        if(e.hasComponents(X_VELOCITY_COMPONENT_CLASS)){
-            ((XVelocityComponent)e.getComponent(X_VELOCITY_COMPONENT_CLASS)).setValue(vX);
+    private void markEntitiesOffScreen(){
+        int offScreen = myKinematics.findOffScreen(myLevelWidth*OFF_SCREEN_TOLERANCE_RATIO,
+                myLevelHeight*OFF_SCREEN_TOLERANCE_RATIO);
+        for (int k = 0; k < offScreen; k++) {
+            addComponent(myKinematics.getOffScreen(k), new DestroyComponent(true));
         }
-        if(e.hasComponents(Y_VELOCITY_COMPONENT_CLASS)){
-            ((YVelocityComponent)e.getComponent(Y_VELOCITY_COMPONENT_CLASS)).setValue(vY);
-        }
-        checkEntityOffScreen(x,y,e);
-    }
-
-    private void checkEntityOffScreen(double x, double y, Entity e){
-        if(XOutOfScope(x)||YOutOfScope(y)){
-            e.addComponent(new DestroyComponent(true));
-        }
-    }
-
-    private boolean XOutOfScope(double x){
-        return Math.abs(x)>(myLevelWidth*OFF_SCREEN_TOLERANCE_RATIO);
-    }
-
-    private boolean YOutOfScope(double y){
-        return Math.abs(y)>(myLevelHeight*OFF_SCREEN_TOLERANCE_RATIO);
     }
 
 }
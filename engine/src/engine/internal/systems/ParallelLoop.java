@@ -0,0 +1,114 @@
+package engine.internal.systems;
+
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author engine
+ *
+ * Splits a loop over the Entities (or gathered slots) of a System into contiguous chunks and runs them on the common
+ * fork/join pool. Every caller passes in the threshold of its loop: loops shorter than that run as a single chunk on
+ * the calling thread, since forking costs more than it saves for a handful of Entities. Systems start out with
+ * CONFIGURED_THRESHOLD, i.e. the ParallelEntityThreshold of EngineSettings, or NEVER with ParallelSystems off.
+ *
+ * Chunks are numbered in loop order and never depend on how the pool schedules them, so a caller collecting per-chunk
+ * results and merging them by chunk number gets the same outcome as a plain sequential loop.
+ */
+final class ParallelLoop {
+    private static final ResourceBundle ENGINE_SETTINGS = ResourceBundle.getBundle("EngineSettings");
+    private static final boolean ENABLED = Boolean.parseBoolean(ENGINE_SETTINGS.getString("ParallelSystems"));
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Threshold under which no loop is ever split
+     */
+    static final int NEVER = Integer.MAX_VALUE;
+
+    /**
+     * Threshold given by EngineSettings
+     */
+    static final int CONFIGURED_THRESHOLD = ENABLED
+            ? Integer.parseInt(ENGINE_SETTINGS.getString("ParallelEntityThreshold")) : NEVER;
+
+    /**
+     * Body of a parallel loop, called once per chunk
+     */
+    interface ChunkAction {
+        /**
+         * @param chunk number of the chunk, from 0 to chunkCount(size)-1 in loop order
+         * @param from first index of the chunk (inclusive)
+         * @param to last index of the chunk (exclusive)
+         */
+        void run(int chunk, int from, int to);
+    }
+
+    private ParallelLoop() {
+        // static utility, never instantiated
+    }
+
+    /**
+     * @param size number of iterations of the loop
+     * @param threshold smallest loop to split, or NEVER
+     * @return number of chunks the loop is split into
+     */
+    static int chunkCount(int size, int threshold) {
+        int minimum = Math.max(1, threshold);
+        if (size < minimum) {
+            return 1;
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.max(minimum, (size + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD));
+        return (size + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Run a loop of size iterations chunk by chunk, concurrently unless the loop fits in one chunk. Returns once every
+     * chunk has finished
+     * @param size number of iterations of the loop
+     * @param threshold smallest loop to split, or NEVER
+     * @param action body to run for each chunk
+     */
+    static void forEachChunk(int size, int threshold, ChunkAction action) {
+        int chunks = chunkCount(size, threshold);
+        if (chunks == 1) {
+            action.run(0, 0, size);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ChunkTask(action, size, chunks, 0, chunks));
+        }
+    }
+
+    // Splits a range of chunks in halves until a single chunk is left
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ChunkAction myAction;
+        private final int mySize;
+        private final int myChunks;
+        private final int myFirst;
+        private final int myLast;
+
+        ChunkTask(ChunkAction action, int size, int chunks, int first, int last) {
+            myAction = action;
+            mySize = size;
+            myChunks = chunks;
+            myFirst = first;
+            myLast = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (myLast - myFirst == 1) {
+                myAction.run(myFirst, bound(myFirst), bound(myFirst + 1));
+            } else {
+                int middle = (myFirst + myLast) >>> 1;
+                invokeAll(new ChunkTask(myAction, mySize, myChunks, myFirst, middle),
+                        new ChunkTask(myAction, mySize, myChunks, middle, myLast));
+            }
+        }
+
+        private int bound(int chunk) {
+            return (int) ((long) mySize * chunk / myChunks);
+        }
+    }
+}
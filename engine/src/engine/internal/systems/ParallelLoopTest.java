@@ -0,0 +1,183 @@
+package engine.internal.systems;
+
+import engine.external.Archetype;
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.Level;
+import engine.external.component.*;
+
+import javafx.scene.input.KeyCode;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author engine
+ * Tests that Systems looping over their Entities in parallel chunks (see ParallelLoop) leave the game in the same
+ * state as the plain sequential loops
+ */
+public class ParallelLoopTest {
+    private static final int ENTITIES = 3000;
+    private static final int GAME_LOOPS = 30;
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+
+    /**
+     * Test that MovementSystem and HealthSystem give every Entity the same position and velocity, and destroy the
+     * same Entities, whether they run chunked or not
+     */
+    @Test
+    public void testChunkedGameLoopsMatchSequential() {
+        List<String> sequential = runGame(ParallelLoop.NEVER);
+        List<String> chunked = runGame(1);
+        assertEquals(sequential, chunked);
+    }
+
+    /**
+     * Test that Components attached through addComponent() from the chunks of forEachEntity() land in the order of
+     * the Entities of the System, as the sequential loop attaches them: all marked Entities move to the same
+     * Archetype, whose rows are in attach order
+     */
+    @Test
+    public void testChunkedAttachOrderMatchesSequential() {
+        List<Entity> entities = new ArrayList<>();
+        for (int k = 0; k < ENTITIES; k++) {
+            Entity entity = new Entity();
+            entity.addComponent(new NameComponent("entity" + k));
+            entity.addComponent(new XPositionComponent((double) k));
+            entities.add(entity);
+        }
+        Engine engine = createEngine(entities);
+        MarkingSystem marking = new MarkingSystem(engine);
+        marking.setParallelThreshold(1);
+        marking.update(NO_INPUTS);
+        List<Entity> expected = new ArrayList<>();
+        for (Entity entity : marking.getEntities()) {
+            if (MarkingSystem.isMarked(entity)) {
+                expected.add(entity);
+            }
+        }
+        engine.updateState(NO_INPUTS);
+        List<Entity> marked = new ArrayList<>();
+        for (Archetype archetype : engine.getArchetypes(Collections.singletonList(ValueComponent.class))) {
+            for (int row = 0; row < archetype.size(); row++) {
+                marked.add(archetype.getEntity(row));
+            }
+        }
+        assertEquals(expected, marked);
+    }
+
+    // Positions and velocities of every Entity of a random game after some game loops of MovementSystem, HealthSystem
+    // and CleanupSystem, each followed by a sync point as in Engine.updateState, or "destroyed"
+    private List<String> runGame(int threshold) {
+        List<Entity> entities = createEntities();
+        Engine engine = createEngine(entities);
+        List<VoogaSystem> systems = Arrays.asList(
+                new MovementSystem(Arrays.asList(XPositionComponent.class, YPositionComponent.class,
+                        ZPositionComponent.class), engine),
+                new HealthSystem(Collections.singletonList(HealthComponent.class), engine),
+                new CleanupSystem(Collections.singletonList(NameComponent.class), engine));
+        for (VoogaSystem system : systems) {
+            system.setParallelThreshold(threshold);
+        }
+        for (int loop = 0; loop < GAME_LOOPS; loop++) {
+            for (VoogaSystem system : systems) {
+                system.update(NO_INPUTS);
+                engine.getCommandBuffer().playback(engine);
+            }
+        }
+        Map<Entity, Boolean> alive = new IdentityHashMap<>();
+        for (Entity entity : engine.getEntities()) {
+            alive.put(entity, true);
+        }
+        List<String> state = new ArrayList<>();
+        for (Entity entity : entities) {
+            if (alive.containsKey(entity)) {
+                state.add(valueOf(entity, XPositionComponent.class) + " " + valueOf(entity, YPositionComponent.class)
+                        + " " + valueOf(entity, XVelocityComponent.class) + " " + valueOf(entity, YVelocityComponent.class));
+            } else {
+                state.add("destroyed");
+            }
+        }
+        return state;
+    }
+
+    // The same random Entities on every call: moving ones, accelerating ones, ones leaving the screen and ones whose
+    // health is already gone
+    private List<Entity> createEntities() {
+        Random random = new Random(13);
+        List<Entity> entities = new ArrayList<>();
+        for (int k = 0; k < ENTITIES; k++) {
+            Entity entity = new Entity();
+            entity.addComponent(new NameComponent("entity" + k));
+            entity.addComponent(new XPositionComponent(random.nextDouble() * 800));
+            entity.addComponent(new YPositionComponent(random.nextDouble() * 600));
+            entity.addComponent(new ZPositionComponent(0.0));
+            entity.addComponent(new WidthComponent(10.0));
+            entity.addComponent(new HeightComponent(10.0));
+            if (random.nextInt(4) != 0) {
+                entity.addComponent(new XVelocityComponent(random.nextDouble() * 40 - 20));
+                entity.addComponent(new YVelocityComponent(random.nextDouble() * 40 - 20));
+            }
+            if (random.nextInt(3) == 0) {
+                entity.addComponent(new XAccelerationComponent(random.nextDouble() - 0.5));
+                entity.addComponent(new YAccelerationComponent(random.nextDouble() - 0.5));
+            }
+            if (random.nextInt(2) == 0) {
+                entity.addComponent(new HealthComponent(random.nextDouble() * 4 - 1));
+            }
+            if (random.nextInt(5) == 0) {
+                entity.addComponent(new DestroyComponent(false));
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private Engine createEngine(List<Entity> entities) {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        for (Entity entity : entities) {
+            level.addEntity(entity);
+        }
+        Entity player = new Entity();
+        player.addComponent(new LivesComponent(3.0));
+        level.addEntity(player);
+        return new Engine(level);
+    }
+
+    private String valueOf(Entity entity, Class<? extends Component> clazz) {
+        if (!entity.hasComponents(clazz)) {
+            return "-";
+        }
+        return Double.toString(((DoubleComponent) entity.getComponent(clazz)).getDouble());
+    }
+
+    // Marks every third Entity with a ValueComponent through forEachEntity()
+    private static class MarkingSystem extends VoogaSystem {
+        MarkingSystem(Engine engine) {
+            super(Collections.singletonList(X_POSITION_COMPONENT_CLASS), engine);
+        }
+
+        @Override
+        protected void run() {
+            forEachEntity(e -> {
+                if (isMarked(e)) {
+                    addComponent(e, new ValueComponent(1.0));
+                }
+            });
+        }
+
+        static boolean isMarked(Entity entity) {
+            return entity.getComponent(NAME_COMPONENT_CLASS).getValue().hashCode() % 3 == 0;
+        }
+    }
+}
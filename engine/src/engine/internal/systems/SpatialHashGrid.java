@@ -0,0 +1,172 @@
+package engine.internal.systems;
+
+import java.util.Arrays;
+
+/**
+ * @author engine
+ * <p>
+ * Uniform-grid broadphase used by CollisionSystem. Every game loop the bounding boxes of all collidable Entities are
+ * inserted under the grid cells they overlap; two Entities become a candidate pair only if they share at least one
+ * cell. Cells are not stored in a map: each (cell, Entity) entry is packed into a long, all entries are sorted, and
+ * every run of equal cells yields its pairs. Pairs are then sorted and deduplicated, so each candidate pair is reported
+ * exactly once and in ascending (first, second) order, whatever the number of cells the two Entities share.
+ * <p>
+ * Boxes are inclusive on all edges, like Node.intersects(): two boxes touching along a cell border land in the same
+ * cell. Entities covering too many cells (or with non-finite bounds) are kept aside and paired with everyone.
+ */
+final class SpatialHashGrid {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    private final double myCellSize;
+    private final int myMaxCellsPerEntity;
+    private long[] myEntries;
+    private int myEntryCount;
+    private int[] myOversized;
+    private int myOversizedCount;
+    private int myIndexCount;
+    private long[] myPairs;
+    private int myPairCount;
+
+    /**
+     * @param cellSize edge length of one grid cell
+     * @param maxCellsPerEntity number of cells above which an Entity is paired with every other Entity instead
+     */
+    SpatialHashGrid(double cellSize, int maxCellsPerEntity) {
+        myCellSize = cellSize;
+        myMaxCellsPerEntity = maxCellsPerEntity;
+        myEntries = new long[INITIAL_CAPACITY];
+        myOversized = new int[INITIAL_CAPACITY];
+        myPairs = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Remove every inserted box, keeping the buffers for the next game loop
+     */
+    void clear() {
+        myEntryCount = 0;
+        myOversizedCount = 0;
+        myIndexCount = 0;
+        myPairCount = 0;
+    }
+
+    /**
+     * Insert the bounding box of an Entity
+     * @param index non-negative index identifying the Entity, reported back in candidate pairs
+     * @param minX left edge of the box
+     * @param minY top edge of the box
+     * @param maxX right edge of the box
+     * @param maxY bottom edge of the box
+     */
+    void insert(int index, double minX, double minY, double maxX, double maxY) {
+        myIndexCount = Math.max(myIndexCount, index + 1);
+        double firstColumn = Math.floor(minX / myCellSize);
+        double firstRow = Math.floor(minY / myCellSize);
+        double lastColumn = Math.floor(maxX / myCellSize);
+        double lastRow = Math.floor(maxY / myCellSize);
+        double cells = (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+        if (!(cells <= myMaxCellsPerEntity)) {
+            myOversized = ensureCapacity(myOversized, myOversizedCount + 1);
+            myOversized[myOversizedCount++] = index;
+            return;
+        }
+        for (long column = (long) firstColumn; column <= lastColumn; column++) {
+            for (long row = (long) firstRow; row <= lastRow; row++) {
+                myEntries = ensureCapacity(myEntries, myEntryCount + 1);
+                myEntries[myEntryCount++] = ((long) hash(column, row) << 32) | index;
+            }
+        }
+    }
+
+    /**
+     * Report a pair found outside the grid (e.g. against boxes kept in another structure), so that it is sorted and
+     * deduplicated together with the pairs of the grid
+     * @param a index of one Entity
+     * @param b index of the other Entity
+     */
+    void addCandidatePair(int a, int b) {
+        addPair(a, b);
+    }
+
+    /**
+     * Compute the candidate pairs among all inserted boxes, merged with the pairs reported through addCandidatePair()
+     * since the last clear()
+     * @return number of candidate pairs, accessible through getFirst() and getSecond()
+     */
+    int findCandidatePairs() {
+        Arrays.sort(myEntries, 0, myEntryCount);
+        int start = 0;
+        while (start < myEntryCount) {
+            int end = start + 1;
+            while (end < myEntryCount && cellOf(myEntries[end]) == cellOf(myEntries[start])) {
+                end++;
+            }
+            for (int a = start; a < end; a++) {
+                for (int b = a + 1; b < end; b++) {
+                    addPair(indexOf(myEntries[a]), indexOf(myEntries[b]));
+                }
+            }
+            start = end;
+        }
+        for (int k = 0; k < myOversizedCount; k++) {
+            for (int other = 0; other < myIndexCount; other++) {
+                addPair(myOversized[k], other);
+            }
+        }
+        Arrays.sort(myPairs, 0, myPairCount);
+        int unique = 0;
+        for (int k = 0; k < myPairCount; k++) {
+            if (unique == 0 || myPairs[k] != myPairs[unique - 1]) {
+                myPairs[unique++] = myPairs[k];
+            }
+        }
+        myPairCount = unique;
+        return myPairCount;
+    }
+
+    /**
+     * @param k index of a candidate pair
+     * @return the smaller Entity index of the pair
+     */
+    int getFirst(int k) {
+        return (int) (myPairs[k] >>> 32);
+    }
+
+    /**
+     * @param k index of a candidate pair
+     * @return the larger Entity index of the pair
+     */
+    int getSecond(int k) {
+        return indexOf(myPairs[k]);
+    }
+
+    private void addPair(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        myPairs = ensureCapacity(myPairs, myPairCount + 1);
+        myPairs[myPairCount++] = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    // Distinct cells may share a hash; that only adds candidates, which the narrowphase then rejects
+    private static int hash(long column, long row) {
+        long h = column * 0x9E3779B97F4A7C15L + row * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int cellOf(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int indexOf(long entry) {
+        return (int) (entry & INDEX_MASK);
+    }
+
+    private static long[] ensureCapacity(long[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    private static int[] ensureCapacity(int[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+}
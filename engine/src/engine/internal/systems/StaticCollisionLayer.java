@@ -0,0 +1,105 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+
+import java.util.Arrays;
+
+/**
+ * @author engine
+ * <p>
+ * The resting collidable Entities of a level (no velocity or acceleration Components and not displaced since their
+ * last position change) kept in a BoundingVolumeHierarchy across game loops. CollisionSystem offers the resting
+ * Entities of every game loop in order; the hierarchy is only rebuilt when that sequence of Entities or any of their
+ * boxes differs from the one it was built from, i.e. when a static Entity is added, removed or actually moved.
+ */
+final class StaticCollisionLayer {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final BoundingVolumeHierarchy myHierarchy;
+    private int mySize;
+    private int myBuiltSize;
+    private boolean myDirty;
+    private Entity[] myEntities;
+    private int[] myIndices;
+    private double[] myMinX;
+    private double[] myMinY;
+    private double[] myMaxX;
+    private double[] myMaxY;
+
+    StaticCollisionLayer() {
+        myHierarchy = new BoundingVolumeHierarchy();
+        myEntities = new Entity[INITIAL_CAPACITY];
+        myIndices = new int[INITIAL_CAPACITY];
+        myMinX = new double[INITIAL_CAPACITY];
+        myMinY = new double[INITIAL_CAPACITY];
+        myMaxX = new double[INITIAL_CAPACITY];
+        myMaxY = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Start collecting the resting Entities of a new game loop
+     */
+    void begin() {
+        mySize = 0;
+        myDirty = false;
+    }
+
+    /**
+     * Offer the next resting Entity of the current game loop
+     * @param entity the resting Entity
+     * @param index index of the Entity in the current game loop, reported back by getIndex()
+     */
+    void offer(Entity entity, int index, double minX, double minY, double maxX, double maxY) {
+        if (mySize == myEntities.length) {
+            grow();
+        }
+        int slot = mySize++;
+        myIndices[slot] = index;
+        if (slot >= myBuiltSize || myEntities[slot] != entity || myMinX[slot] != minX || myMinY[slot] != minY
+                || myMaxX[slot] != maxX || myMaxY[slot] != maxY) {
+            myDirty = true;
+            myEntities[slot] = entity;
+            myMinX[slot] = minX;
+            myMinY[slot] = minY;
+            myMaxX[slot] = maxX;
+            myMaxY[slot] = maxY;
+        }
+    }
+
+    /**
+     * Finish collecting, rebuilding the hierarchy only if the resting Entities changed since it was last built
+     */
+    void end() {
+        if (myDirty || mySize != myBuiltSize) {
+            Arrays.fill(myEntities, mySize, myEntities.length, null);
+            myHierarchy.build(mySize, myMinX, myMinY, myMaxX, myMaxY);
+            myBuiltSize = mySize;
+        }
+    }
+
+    /**
+     * Find the resting Entities whose boxes overlap a query box
+     * @return number of Entities found, whose indices are accessible through getIndex()
+     */
+    int query(double minX, double minY, double maxX, double maxY) {
+        return myHierarchy.query(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @param k index between 0 and the count returned by the last query()
+     * @return index of the k-th Entity found, as offered in the current game loop
+     */
+    int getIndex(int k) {
+        return myIndices[myHierarchy.getResult(k)];
+    }
+
+    private void grow() {
+        int capacity = myEntities.length * 2;
+        myEntities = Arrays.copyOf(myEntities, capacity);
+        myIndices = Arrays.copyOf(myIndices, capacity);
+        myMinX = Arrays.copyOf(myMinX, capacity);
+        myMinY = Arrays.copyOf(myMinY, capacity);
+        myMaxX = Arrays.copyOf(myMaxX, capacity);
+        myMaxY = Arrays.copyOf(myMaxY, capacity);
+    }
+}
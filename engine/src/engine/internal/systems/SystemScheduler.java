@@ -0,0 +1,194 @@
+package engine.internal.systems;
+
+import engine.external.Engine;
+import engine.external.component.Component;
+import javafx.scene.input.KeyCode;
+import voogasalad.util.reflection.ReflectionException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * @author engine
+ *
+ * Runs the Systems of an Engine on every game loop. Every System may declare in SystemComponentAccess.properties the
+ * Component classes it reads and writes on top of its required Components. Two Systems conflict when one writes a
+ * Component class the other reads or writes, and every conflicting pair becomes an edge of a dependency graph pointing
+ * from the earlier to the later System in update order. The Systems are then grouped into waves by their depth in that
+ * graph: a System goes into the wave right after the latest wave holding a System it depends on, so two Systems without
+ * a path between them may share a wave however far apart they are in update order. Waves run one after another, and
+ * the Systems of a wave run concurrently on the common fork/join pool; every System still runs after all earlier
+ * Systems it conflicts with, so the game sees the same Component values as in a plain run in update order.
+ *
+ * Systems without a declaration, e.g. EventHandlerSystem whose Actions may touch any Component, always form a wave of
+ * their own and run on the thread calling Engine.updateState. While a System shares its wave, the Components it
+ * attaches through VoogaSystem.addComponent are buffered and attached once the whole wave has finished, System by
+ * System in update order, so every later System sees exactly the state the sequential order would have produced.
+ *
+ * The end of every wave is a sync point: once its Components are attached, the scheduler runs the sync action handed
+ * in by Engine, which plays back the structural changes the wave recorded in the Engine's CommandBuffer.
+ */
+public class SystemScheduler {
+    private static final String READS_KEY = ".Reads";
+    private static final String WRITES_KEY = ".Writes";
+    private static final String SEPARATOR = ",";
+
+    private final List<List<VoogaSystem>> myWaves;
+    private final boolean myParallel;
+    private final Runnable mySyncPoint;
+
+    /**
+     * Build the dependency graph of a set of Systems and group them into waves by their depth in it
+     * @param systems every System of the Engine, in update order
+     * @param accessResources Component classes each System reads and writes, keyed by System class name
+     * @param parallel false to run every System on the calling thread, one after another
+     * @param syncPoint action to run after every wave, on the calling thread
+     */
+    public SystemScheduler(List<VoogaSystem> systems, ResourceBundle accessResources, boolean parallel,
+                           Runnable syncPoint) {
+        myParallel = parallel;
+        mySyncPoint = syncPoint;
+        myWaves = new ArrayList<>();
+        List<Access> accesses = new ArrayList<>();
+        for (VoogaSystem system : systems) {
+            accesses.add(readAccess(system, accessResources));
+        }
+        int[] depths = findDepths(buildDependencies(accesses));
+        for (int k = 0; k < systems.size(); k++) {
+            while (myWaves.size() <= depths[k]) {
+                myWaves.add(new ArrayList<>());
+            }
+            myWaves.get(depths[k]).add(systems.get(k));
+        }
+    }
+
+    /**
+     * Run every System once, wave after wave
+     * @param inputs Collection of keyCodes received by Runner and then passed in by Engine
+     */
+    public void update(Collection<KeyCode> inputs) {
+        for (List<VoogaSystem> wave : myWaves) {
+            if (!myParallel || wave.size() == 1) {
+                for (VoogaSystem system : wave) {
+                    system.update(inputs);
+                }
+            } else {
+                runConcurrently(wave, inputs);
+            }
+            mySyncPoint.run();
+        }
+    }
+
+    /**
+     * @return the waves of Systems, in the order they run; Systems of the same wave are kept in update order and may
+     * run concurrently
+     */
+    public List<List<VoogaSystem>> getWaves() {
+        List<List<VoogaSystem>> waves = new ArrayList<>();
+        for (List<VoogaSystem> wave : myWaves) {
+            waves.add(Collections.unmodifiableList(wave));
+        }
+        return Collections.unmodifiableList(waves);
+    }
+
+    private void runConcurrently(List<VoogaSystem> wave, Collection<KeyCode> inputs) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (VoogaSystem system : wave) {
+            system.deferComponentChanges();
+            tasks.add(ForkJoinTask.adapt(() -> system.update(inputs)));
+        }
+        try {
+            ForkJoinTask.invokeAll(tasks);
+        } finally {
+            for (VoogaSystem system : wave) {
+                system.applyDeferredComponentChanges();
+            }
+        }
+    }
+
+    // Length of the longest path of dependencies ending at each System; dependencies always point from an earlier to a
+    // later System in update order, so one pass in that order finds every depth. An undeclared System conflicts with
+    // every other, so it ends up alone in a wave, after all earlier Systems and before all later ones
+    private int[] findDepths(boolean[][] dependsOn) {
+        int[] depths = new int[dependsOn.length];
+        for (int later = 0; later < dependsOn.length; later++) {
+            for (int earlier = 0; earlier < later; earlier++) {
+                if (dependsOn[later][earlier]) {
+                    depths[later] = Math.max(depths[later], depths[earlier] + 1);
+                }
+            }
+        }
+        return depths;
+    }
+
+    // dependsOn[later][earlier] is set when the two Systems conflict and so have to keep their update order
+    private boolean[][] buildDependencies(List<Access> accesses) {
+        boolean[][] dependsOn = new boolean[accesses.size()][accesses.size()];
+        for (int later = 0; later < accesses.size(); later++) {
+            for (int earlier = 0; earlier < later; earlier++) {
+                dependsOn[later][earlier] = accesses.get(earlier).conflictsWith(accesses.get(later));
+            }
+        }
+        return dependsOn;
+    }
+
+    private Access readAccess(VoogaSystem system, ResourceBundle accessResources) {
+        String name = system.getClass().getSimpleName();
+        if (!accessResources.containsKey(name + WRITES_KEY)) {
+            return new Access();
+        }
+        Set<Class<? extends Component>> reads = new HashSet<>(system.getRequiredComponents());
+        if (accessResources.containsKey(name + READS_KEY)) {
+            reads.addAll(retrieveComponentClazz(accessResources.getString(name + READS_KEY)));
+        }
+        return new Access(reads, retrieveComponentClazz(accessResources.getString(name + WRITES_KEY)));
+    }
+
+    private Set<Class<? extends Component>> retrieveComponentClazz(String componentNames) throws ReflectionException {
+        Set<Class<? extends Component>> components = new HashSet<>();
+        for (String component : componentNames.split(SEPARATOR)) {
+            if (component.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                components.add((Class) Class.forName(Engine.COMPONENTS_PACKAGE_PATH + component.trim()));
+            } catch (ClassNotFoundException e) {
+                throw new ReflectionException(e, "Component " + Engine.COMPONENTS_PACKAGE_PATH + component + " not found");
+            }
+        }
+        return components;
+    }
+
+    // Component classes one System reads and writes; an undeclared System may read and write anything
+    private static class Access {
+        private final Set<Class<? extends Component>> myReads;
+        private final Set<Class<? extends Component>> myWrites;
+
+        Access() {
+            this(null, null);
+        }
+
+        Access(Set<Class<? extends Component>> reads, Set<Class<? extends Component>> writes) {
+            myReads = reads;
+            myWrites = writes;
+        }
+
+        boolean isDeclared() {
+            return myWrites != null;
+        }
+
+        boolean conflictsWith(Access other) {
+            if (!isDeclared() || !other.isDeclared()) {
+                return true;
+            }
+            return !Collections.disjoint(myWrites, other.myReads) || !Collections.disjoint(myWrites, other.myWrites)
+                    || !Collections.disjoint(myReads, other.myWrites);
+        }
+    }
+}
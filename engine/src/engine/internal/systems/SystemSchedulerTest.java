@@ -0,0 +1,201 @@
+package engine.internal.systems;
+
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.Level;
+import engine.external.actions.NumericAction;
+import engine.external.actions.ValueAction;
+import engine.external.component.*;
+import engine.external.conditions.StringEqualToCondition;
+import engine.external.events.AnyCollisionEvent;
+import engine.external.events.Event;
+
+import javafx.scene.input.KeyCode;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.TreeSet;
+
+/**
+ * @author engine
+ * Tests that SystemScheduler groups the shipped Systems into waves by their Component conflicts rather than by their
+ * neighbours in update order, and that running the waves concurrently leaves the game exactly as a plain run of the
+ * Systems in update order does
+ */
+public class SystemSchedulerTest {
+    private static final long SEED = 20190426L;
+    private static final int ENTITIES = 120;
+    private static final int LOOPS = 30;
+    private static final double SIZE = 20.0;
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+    private static final ResourceBundle ORDER_RESOURCES = ResourceBundle.getBundle("SystemUpdateOrder");
+    private static final ResourceBundle REQUIRED_RESOURCES = ResourceBundle.getBundle("SystemRequiredComponents");
+    private static final ResourceBundle ACCESS_RESOURCES = ResourceBundle.getBundle("SystemComponentAccess");
+    private static final String SAVE_GAME_SYSTEM = "SaveGameSystem";
+    private static final String EVENT_HANDLER_SYSTEM = "EventHandlerSystem";
+
+    /**
+     * Test that the shipped declarations let CollisionSystem share a wave with LivesSystem, and that MovementSystem and
+     * HealthSystem, which both write DestroyComponent, still run one after the other
+     */
+    @Test
+    public void testShippedSystemsShareWave() {
+        List<VoogaSystem> systems = createSystems(createEngine(new Random(SEED)));
+        SystemScheduler scheduler = new SystemScheduler(systems, ACCESS_RESOURCES, true, () -> { });
+
+        List<List<VoogaSystem>> waves = scheduler.getWaves();
+
+        assertEquals(Arrays.asList(LivesSystem.class, CollisionSystem.class),
+                classesOf(waves.get(waveOf(waves, LivesSystem.class))));
+        assertTrue(waveOf(waves, MovementSystem.class) > waveOf(waves, CollisionSystem.class));
+        assertTrue(waveOf(waves, HealthSystem.class) > waveOf(waves, MovementSystem.class));
+        assertEquals(systems.size() - 1, waves.size());
+    }
+
+    /**
+     * Test that game loops run wave by wave, the shared wave concurrently, leave every Entity with the same Components
+     * and values as game loops running every System on its own in update order
+     */
+    @Test
+    public void testConcurrentWavesMatchSequentialRun() {
+        Engine sequential = createEngine(new Random(SEED));
+        Engine concurrent = createEngine(new Random(SEED));
+        List<String> expected = run(sequential, new SystemScheduler(createSystems(sequential), new ListResourceBundle() {
+            @Override
+            protected Object[][] getContents() {
+                return new Object[0][];
+            }
+        }, false, () -> sequential.getCommandBuffer().playback(sequential)));
+        List<String> actual = run(concurrent, new SystemScheduler(createSystems(concurrent), ACCESS_RESOURCES, true,
+                () -> concurrent.getCommandBuffer().playback(concurrent)));
+
+        assertEquals(expected, actual);
+    }
+
+    // Run the game loops as Engine.updateState does, and describe the game after each of them
+    private List<String> run(Engine engine, SystemScheduler scheduler) {
+        CollisionSystem collision = null;
+        for (List<VoogaSystem> wave : scheduler.getWaves()) {
+            for (VoogaSystem system : wave) {
+                if (system instanceof CollisionSystem) {
+                    collision = (CollisionSystem) system;
+                }
+            }
+        }
+        List<String> states = new ArrayList<>();
+        for (int loop = 0; loop < LOOPS; loop++) {
+            scheduler.update(NO_INPUTS);
+            collision.adjustCollidedEntities();
+            for (Entity entity : engine.getEntities()) {
+                states.add(loop + " " + describe(entity));
+            }
+        }
+        return states;
+    }
+
+    private String describe(Entity entity) {
+        Collection<String> components = new TreeSet<>();
+        for (Class<? extends Component> clazz : entity.getComponentMap().keySet()) {
+            Object value = entity.getComponent(clazz).getValue();
+            components.add(clazz.getSimpleName() + "=" + (value instanceof Collection ? "" : value));
+        }
+        return components.toString();
+    }
+
+    // Crowds of moving, colliding Entities, some of them dying or leaving the screen, and a player out of lives
+    private Engine createEngine(Random random) {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        for (int k = 0; k < ENTITIES; k++) {
+            Entity entity = new Entity();
+            entity.addComponent(new NameComponent("entity" + k));
+            entity.addComponent(new GroupComponent("crowd"));
+            entity.addComponent(new XPositionComponent(random.nextDouble() * 400));
+            entity.addComponent(new YPositionComponent(random.nextDouble() * 300));
+            entity.addComponent(new ZPositionComponent(0.0));
+            entity.addComponent(new XVelocityComponent(random.nextDouble() * 20 - 10 + (k % 10 == 0 ? 100 : 0)));
+            entity.addComponent(new YVelocityComponent(random.nextDouble() * 20 - 10));
+            entity.addComponent(new WidthComponent(SIZE));
+            entity.addComponent(new HeightComponent(SIZE));
+            entity.addComponent(new CollisionComponent(true));
+            entity.addComponent(new HealthComponent(k % 7 == 0 ? -1.0 : 1.0));
+            entity.addComponent(new ValueComponent(0.0));
+            level.addEntity(entity);
+        }
+        Entity player = new Entity();
+        player.addComponent(new NameComponent("player"));
+        player.addComponent(new LivesComponent(-1.0));
+        level.addEntity(player);
+        Event bump = new AnyCollisionEvent("crowd", true);
+        bump.addConditions(new StringEqualToCondition(GroupComponent.class, "crowd"));
+        bump.addActions(new ValueAction(NumericAction.ModifyType.RELATIVE, 1.0));
+        level.addEvent(bump);
+        return new Engine(level);
+    }
+
+    // The shipped Systems in update order, built as Engine builds its own
+    private List<VoogaSystem> createSystems(Engine engine) {
+        List<VoogaSystem> systems = new ArrayList<>();
+        for (int order = 0; order < ORDER_RESOURCES.keySet().size(); order++) {
+            String name = ORDER_RESOURCES.getString(String.valueOf(order));
+            if (name.equals(SAVE_GAME_SYSTEM)) {
+                continue;
+            }
+            Collection<Class<? extends Component>> required = new ArrayList<>();
+            for (String component : REQUIRED_RESOURCES.getString(name).split(",")) {
+                required.add(forName(Engine.COMPONENTS_PACKAGE_PATH + component.trim()));
+            }
+            try {
+                Class<?> clazz = forName(getClass().getPackageName() + "." + name);
+                if (name.equals(EVENT_HANDLER_SYSTEM)) {
+                    systems.add((VoogaSystem) clazz.getConstructor(Collection.class, Engine.class, Collection.class)
+                            .newInstance(required, engine, engine.getEvents()));
+                } else {
+                    systems.add((VoogaSystem) clazz.getConstructor(Collection.class, Engine.class)
+                            .newInstance(required, engine));
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return systems;
+    }
+
+    private <T> Class<T> forName(String name) {
+        try {
+            return (Class<T>) Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int waveOf(List<List<VoogaSystem>> waves, Class<? extends VoogaSystem> clazz) {
+        for (int k = 0; k < waves.size(); k++) {
+            for (VoogaSystem system : waves.get(k)) {
+                if (system.getClass() == clazz) {
+                    return k;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private List<Class<?>> classesOf(List<VoogaSystem> wave) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (VoogaSystem system : wave) {
+            classes.add(system.getClass());
+        }
+        return classes;
+    }
+}
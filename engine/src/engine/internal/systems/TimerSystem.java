@@ -1,7 +1,6 @@
 package engine.internal.systems;
 
 import engine.external.Engine;
-import engine.external.Entity;
 import engine.external.component.Component;
 import engine.external.component.TimerComponent;
 
@@ -10,6 +9,9 @@ import java.util.Collection;
 /**
  * The TimerSystem updates the timerComponent of each entity containing one on each call to update
  * While the timerComponent's value is 0, the system no longer updates it.
+ *
+ * On the Engine's live view, an update is a single tick of the Engine's TimerWheel, from which the timers derive their
+ * values; only the timers reaching 0 on that tick are visited.
  */
 public class TimerSystem extends VoogaSystem {
     private static final double timerStep = -1.0;
@@ -27,15 +29,20 @@ public class TimerSystem extends VoogaSystem {
     }
 
     /**
-     * Loops through all Entities with a TimerComponent, and updates the timerComponent as long as the value is not 0.
+     * Advances the Engine's TimerWheel by one tick; when running on an explicit collection of Entities, loops through
+     * them instead, and updates each timerComponent as long as the value is not 0.
      */
     @Override
     protected void run() {
-        for(Entity entity:this.getEntities()){
+        if (isRunningOnView()) {
+            myEngine.getTimerWheel().advance();
+            return;
+        }
+        forEachEntity(entity -> {
             if(entity.hasComponents(TIMER_COMPONENT_CLASS) &&  !entity.getComponent(TimerComponent.class).getValue().equals(timerZero)){
                 Component timerComponent = entity.getComponent(TimerComponent.class);
                 timerComponent.setValue((double) timerComponent.getValue() + timerStep);
             }
-        }
+        });
     }
 }
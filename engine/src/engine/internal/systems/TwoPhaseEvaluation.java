@@ -0,0 +1,128 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+import engine.external.IEventEngine;
+import engine.external.events.Event;
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author engine
+ *
+ * Two-phase evaluation of the Events of a Level, kept by EventHandlerSystem for Levels that select it through
+ * Level.setTwoPhaseEvents. Events are added in dispatch order; adding an Event checks its inputs and prepares its
+ * candidate Entities one after another (name and group Conditions, missing Components), which is the only state change
+ * before the Actions run.
+ *
+ * The first phase then tests the Conditions of every (Event, Entity) pair against the unchanged game state, in parallel
+ * chunks on the common fork/join pool once there are at least as many pairs as the threshold handed in by
+ * EventHandlerSystem, i.e. TwoPhaseMatchThreshold of EngineSettings; selecting two-phase evaluation is what turns this
+ * on for a Level, whatever ParallelSystems says (see ParallelLoop). The second phase runs the Actions of every
+ * match on the calling thread, Event by Event in dispatch order and Entity by Entity in candidate order, so an Action
+ * never changes which Entities matched. An IEventEngine that is not an Event cannot be split in two phases; it is
+ * executed as a whole at its place in the second phase.
+ */
+final class TwoPhaseEvaluation {
+    private final List<IEventEngine> myEvents;
+    private final List<List<Entity>> myCandidates;
+    private final int myThreshold;
+    private int[] myStart;
+    private boolean[] myMatches;
+
+    /**
+     * @param threshold smallest number of (Event, Entity) pairs matched in parallel chunks, or ParallelLoop.NEVER
+     */
+    TwoPhaseEvaluation(int threshold) {
+        myThreshold = threshold;
+        myEvents = new ArrayList<>();
+        myCandidates = new ArrayList<>();
+        myStart = new int[1];
+        myMatches = new boolean[0];
+    }
+
+    /**
+     * Queue an Event for this game loop
+     * @param event Event dispatched for the pressed keys
+     * @param candidates Entities the Event may apply to, in order
+     * @param inputs KeyCodes pressed on this game loop
+     */
+    void add(IEventEngine event, List<Entity> candidates, Collection<KeyCode> inputs) {
+        if (!(event instanceof Event)) {
+            myEvents.add(event);
+            myCandidates.add(new ArrayList<>(candidates));
+            return;
+        }
+        Event authored = (Event) event;
+        if (!authored.inputsMet(inputs)) {
+            return;
+        }
+        List<Entity> prepared = new ArrayList<>();
+        for (Entity entity : candidates) {
+            if (authored.prepare(entity)) {
+                prepared.add(entity);
+            }
+        }
+        myEvents.add(authored);
+        myCandidates.add(prepared);
+    }
+
+    /**
+     * Match every queued Event, run the Actions of the matches and forget the queue
+     * @param inputs KeyCodes pressed on this game loop, for Events executed as a whole
+     */
+    void run(Collection<KeyCode> inputs) {
+        try {
+            match();
+            commit(inputs);
+        } finally {
+            myEvents.clear();
+            myCandidates.clear();
+        }
+    }
+
+    private void match() {
+        int count = myEvents.size();
+        if (myStart.length < count + 1) {
+            myStart = new int[count + 1];
+        }
+        int total = 0;
+        for (int k = 0; k < count; k++) {
+            myStart[k] = total;
+            if (myEvents.get(k) instanceof Event) {
+                total += myCandidates.get(k).size();
+            }
+        }
+        myStart[count] = total;
+        if (myMatches.length < total) {
+            myMatches = new boolean[total];
+        }
+        ParallelLoop.forEachChunk(total, myThreshold, (chunk, from, to) -> {
+            int k = 0;
+            for (int i = from; i < to; i++) {
+                while (i >= myStart[k + 1]) {
+                    k++;
+                }
+                myMatches[i] = ((Event) myEvents.get(k)).matches(myCandidates.get(k).get(i - myStart[k]));
+            }
+        });
+    }
+
+    private void commit(Collection<KeyCode> inputs) {
+        for (int k = 0; k < myEvents.size(); k++) {
+            IEventEngine event = myEvents.get(k);
+            List<Entity> candidates = myCandidates.get(k);
+            if (!(event instanceof Event)) {
+                event.execute(candidates, inputs);
+                continue;
+            }
+            for (int i = myStart[k]; i < myStart[k + 1]; i++) {
+                if (myMatches[i]) {
+                    ((Event) event).commit(candidates.get(i - myStart[k]));
+                }
+            }
+        }
+    }
+}
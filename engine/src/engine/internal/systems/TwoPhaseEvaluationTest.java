@@ -0,0 +1,84 @@
+package engine.internal.systems;
+
+import engine.external.Entity;
+import engine.external.actions.HealthAction;
+import engine.external.actions.NumericAction;
+import engine.external.actions.XPositionAction;
+import engine.external.component.*;
+import engine.external.conditions.GreaterThanCondition;
+import engine.external.events.Event;
+
+import javafx.scene.input.KeyCode;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author engine
+ * Tests that TwoPhaseEvaluation matches every Event against the game state from before any Action, and that matching
+ * in parallel chunks finds the same matches as matching in one plain loop
+ */
+public class TwoPhaseEvaluationTest {
+    private static final int ENTITIES = 3000;
+    private static final double MOVED = 42.0;
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+
+    /**
+     * Test that an Event whose Conditions an earlier Event's Actions break still runs on the Entities it matched
+     * before, with the pairs matched in chunks or not
+     */
+    @Test
+    public void testChunkedMatchesMatchSequential() {
+        List<String> sequential = runEvents(ParallelLoop.NEVER);
+        List<String> chunked = runEvents(1);
+
+        assertEquals(sequential, chunked);
+        List<Entity> entities = createEntities();
+        for (int k = 0; k < ENTITIES; k++) {
+            double health = ((DoubleComponent) entities.get(k).getComponent(HealthComponent.class)).getDouble();
+            assertEquals(health > 0 ? "-1.0 " + MOVED : health + " 0.0", sequential.get(k));
+        }
+    }
+
+    // Health and x position of every Entity after a hurting Event and a moving Event, both matching healthy Entities
+    private List<String> runEvents(int threshold) {
+        List<Entity> entities = createEntities();
+        Event hurt = new Event();
+        hurt.addConditions(new GreaterThanCondition(HealthComponent.class, 0.0));
+        hurt.addActions(new HealthAction(NumericAction.ModifyType.ABSOLUTE, -1.0));
+        Event move = new Event();
+        move.addConditions(new GreaterThanCondition(HealthComponent.class, 0.0));
+        move.addActions(new XPositionAction(NumericAction.ModifyType.ABSOLUTE, MOVED));
+        TwoPhaseEvaluation evaluation = new TwoPhaseEvaluation(threshold);
+
+        evaluation.add(hurt, entities, NO_INPUTS);
+        evaluation.add(move, entities, NO_INPUTS);
+        evaluation.run(NO_INPUTS);
+
+        List<String> state = new ArrayList<>();
+        for (Entity entity : entities) {
+            state.add(((DoubleComponent) entity.getComponent(HealthComponent.class)).getDouble() + " "
+                    + ((DoubleComponent) entity.getComponent(XPositionComponent.class)).getDouble());
+        }
+        return state;
+    }
+
+    // The same random Entities on every call, about half of them healthy
+    private List<Entity> createEntities() {
+        Random random = new Random(17);
+        List<Entity> entities = new ArrayList<>();
+        for (int k = 0; k < ENTITIES; k++) {
+            Entity entity = new Entity();
+            entity.addComponent(new NameComponent("entity" + k));
+            entity.addComponent(new XPositionComponent(0.0));
+            entity.addComponent(new HealthComponent(random.nextDouble() * 2 - 1));
+            entities.add(entity);
+        }
+        return entities;
+    }
+}
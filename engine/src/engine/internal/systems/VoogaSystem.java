@@ -1,15 +1,23 @@
 package engine.internal.systems;
 
+import engine.external.Archetype;
 import engine.external.Entity;
+import engine.external.EntityView;
 import engine.external.Engine;
 import engine.external.component.*;
 
 import javafx.scene.input.KeyCode;
-import voogasalad.util.reflection.Reflection;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author Hsingchih Tang
@@ -47,12 +55,15 @@ public abstract class VoogaSystem {
     static final Class<? extends Component> LIVES_COMPONENT_CLASS = LivesComponent.class;
     static final Class<? extends Component> SCORE_COMPONENT_CLASS = ScoreComponent.class;
 
-    static final String GET_OLD_VALUE = "getOldValue";
-
 
     private Collection<Class<? extends Component>> myRequiredComponents;
-    private Collection<Entity> myEntities;
+    private EntityView myView;
+    private List<Entity> myEntities;
+    private boolean myRunningOnView;
     private Collection<KeyCode> myInputs;
+    private ComponentChanges myDeferredChanges;
+    private final ThreadLocal<ComponentChanges> myChunkChanges = new ThreadLocal<>();
+    private int myParallelThreshold = ParallelLoop.CONFIGURED_THRESHOLD;
     Engine myEngine;
 
 
@@ -66,11 +77,27 @@ public abstract class VoogaSystem {
         myInputs = new ArrayList<>();
         myRequiredComponents = requiredComponents;
         myEngine = engine;
+        myView = engine.createView(requiredComponents);
+    }
+
+    /**
+     * Call expected to be made from Engine on every game loop
+     * Uses the live view of matching Entities that Engine maintains for this System, so Entities are not re-filtered
+     * unless their set of Components has changed since the last game loop. Call run() to execute own special operations
+     * on the Entities and user input KeyCodes.
+     * @param inputs Collection of keyCodes received by Runner and then passed in by Engine
+     */
+    public void update(Collection<KeyCode> inputs) {
+        myEntities = myView.getEntities();
+        myRunningOnView = true;
+        myInputs = toKeySet(inputs);
+        run();
     }
 
     /**
-     * Generic call expected to be made from Engine on every game loop
-     * Receives the most up-to-date collection of Entities currently existing in the Game and user input KeyCodes
+     * Generic call for running this System on an explicit collection of Entities (e.g. the copies handed to
+     * SaveGameSystem) rather than on the live view maintained by Engine
+     * Receives a collection of Entities and user input KeyCodes
      * received on the frontend, filters the Entities to only interact with those equipped with required Components
      * to prepare for next-step processing. Call run() to execute own special operations on the Entities and user
      * input KeyCodes. Clear up the input KeyCodes after this System is done within current game loop.
@@ -79,7 +106,8 @@ public abstract class VoogaSystem {
      */
     public void update(Collection<Entity> entities, Collection<KeyCode> inputs) {
         myEntities = new ArrayList<>();
-        myInputs = new ArrayList<>(inputs);
+        myRunningOnView = false;
+        myInputs = toKeySet(inputs);
 
         for (Entity e: entities) {
             if (filter(e)) {
@@ -89,6 +117,16 @@ public abstract class VoogaSystem {
         run();
     }
 
+    // Systems only read the inputs, so an EnumSet handed in by Engine is shared by all Systems instead of copied
+    private Collection<KeyCode> toKeySet(Collection<KeyCode> inputs) {
+        if (inputs instanceof EnumSet) {
+            return inputs;
+        }
+        EnumSet<KeyCode> keys = EnumSet.noneOf(KeyCode.class);
+        keys.addAll(inputs);
+        return keys;
+    }
+
     /**
      * Verify whether an Entity is equipped with all the required Components in order to be handled by a System
      * @param e Entity to verify
@@ -105,12 +143,176 @@ public abstract class VoogaSystem {
 
     /**
      * Allow concrete Systems to retrieve the private Collection of Entities stored in the super System
-     * @return Collection of Entities held in the System
+     * @return Collection of Entities held in the System, in the order the System visits them
      */
-    protected Collection<Entity> getEntities() {
+    protected List<Entity> getEntities() {
         return myEntities;
     }
 
+    /**
+     * Allow concrete Systems to walk the Component columns of every Archetype matching the required Components,
+     * instead of going through the matching Entities one lookup at a time
+     * @return Archetypes of the running game whose Entities carry all Components required by this System
+     */
+    protected Collection<Archetype> getArchetypes() {
+        return myView.getArchetypes();
+    }
+
+    /**
+     * Column-walking Systems may only use getArchetypes() when the current update runs on the live view; an update on
+     * an explicit collection of Entities (see update(Collection, Collection)) has to go through getEntities()
+     * @return true if getEntities() holds exactly the Entities of getArchetypes() for the current update
+     */
+    protected boolean isRunningOnView() {
+        return myRunningOnView;
+    }
+
+    /**
+     * Attach a Component to an Entity on behalf of this System. The Component is recorded in the Engine's
+     * CommandBuffer and attached at the next sync point; while SystemScheduler runs this System concurrently with other
+     * Systems, or while forEachEntity() runs in parallel chunks, it is buffered until all of them have finished. Either
+     * way concrete Systems must not expect to read back a Component they have just attached within the same run
+     * @param entity the Entity to attach the Component to
+     * @param component the Component to attach, replacing any Component of the same class
+     */
+    protected void addComponent(Entity entity, Component<?> component) {
+        ComponentChanges chunkChanges = myChunkChanges.get();
+        if (chunkChanges != null) {
+            chunkChanges.add(entity, component);
+        } else if (myDeferredChanges != null) {
+            myDeferredChanges.add(entity, component);
+        } else if (myRunningOnView) {
+            myEngine.getCommandBuffer().addComponent(entity, component);
+        } else {
+            entity.addComponent(component);
+        }
+    }
+
+    /**
+     * Detach a Component class from an Entity on behalf of this System, at the next sync point (see CommandBuffer).
+     * Only for Systems that run on their own
+     * @param entity the Entity to detach the Component from
+     * @param componentClass class of the Component to detach
+     */
+    protected void removeComponent(Entity entity, Class<? extends Component> componentClass) {
+        if (myRunningOnView) {
+            myEngine.getCommandBuffer().removeComponent(entity, componentClass);
+        } else {
+            entity.removeComponent(componentClass);
+        }
+    }
+
+    /**
+     * Add an Entity to the running game on behalf of this System, at the next sync point (see CommandBuffer). Only for
+     * Systems that run on their own
+     * @param entity the Entity to add
+     */
+    protected void addEntity(Entity entity) {
+        myEngine.getCommandBuffer().addEntity(entity);
+    }
+
+    /**
+     * Remove an Entity from the running game on behalf of this System, at the next sync point (see CommandBuffer).
+     * Only for Systems that run on their own
+     * @param entity the Entity to remove
+     */
+    protected void removeEntity(Entity entity) {
+        myEngine.getCommandBuffer().removeEntity(entity);
+    }
+
+    /**
+     * Destroy an Entity on behalf of this System, at the next sync point (see CommandBuffer and Engine.destroyEntity).
+     * Only for Systems that run on their own
+     * @param entity the Entity to destroy
+     */
+    protected void destroyEntity(Entity entity) {
+        myEngine.getCommandBuffer().destroyEntity(entity);
+    }
+
+    /**
+     * Set from how many Entities on the loops of this System run in parallel chunks (see ParallelLoop); Systems start
+     * out with the ParallelEntityThreshold of EngineSettings, or never split their loops with ParallelSystems off
+     * @param entities smallest loop to split, or Integer.MAX_VALUE to never split
+     */
+    public void setParallelThreshold(int entities) {
+        myParallelThreshold = entities;
+    }
+
+    /**
+     * @return smallest loop this System splits into parallel chunks
+     */
+    int getParallelThreshold() {
+        return myParallelThreshold;
+    }
+
+    /**
+     * Apply an action to every Entity held in this System, in parallel chunks on the common fork/join pool once there
+     * are at least as many of them as the parallel threshold of this System (see setParallelThreshold()), and as a
+     * plain loop otherwise. The action must only touch the Components of the Entity it is handed, and attach Components through
+     * addComponent(); those are attached after all chunks have finished, in the order of getEntities()
+     * @param action what to do with each Entity
+     */
+    protected void forEachEntity(Consumer<Entity> action) {
+        List<Entity> entities = myEntities;
+        int chunks = ParallelLoop.chunkCount(entities.size(), myParallelThreshold);
+        if (chunks == 1) {
+            entities.forEach(action);
+            return;
+        }
+        ComponentChanges[] changes = new ComponentChanges[chunks];
+        ParallelLoop.forEachChunk(entities.size(), myParallelThreshold, (chunk, from, to) -> {
+            changes[chunk] = new ComponentChanges();
+            myChunkChanges.set(changes[chunk]);
+            try {
+                for (int k = from; k < to; k++) {
+                    action.accept(entities.get(k));
+                }
+            } finally {
+                myChunkChanges.remove();
+            }
+        });
+        for (ComponentChanges chunkChanges : changes) {
+            for (int k = 0; k < chunkChanges.size(); k++) {
+                addComponent(chunkChanges.getEntity(k), chunkChanges.getComponent(k));
+            }
+        }
+    }
+
+    /**
+     * @return Component classes required for an Entity to be processed by this System
+     */
+    Collection<Class<? extends Component>> getRequiredComponents() {
+        return Collections.unmodifiableCollection(myRequiredComponents);
+    }
+
+    // Buffer the Components attached through addComponent() until applyDeferredComponentChanges() is called
+    void deferComponentChanges() {
+        myDeferredChanges = new ComponentChanges();
+    }
+
+    // Attach the buffered Components in the order this System would have attached them running on its own: Entity by
+    // Entity in the order of the live view as it is now, after the Systems before it have applied their changes
+    void applyDeferredComponentChanges() {
+        ComponentChanges changes = myDeferredChanges;
+        myDeferredChanges = null;
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        Map<Entity, Integer> positions = new IdentityHashMap<>();
+        List<Entity> viewed = myView.getEntities();
+        for (int k = 0; k < viewed.size(); k++) {
+            positions.put(viewed.get(k), k);
+        }
+        Integer[] order = new Integer[changes.size()];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, Comparator.comparingInt(k -> positions.getOrDefault(changes.getEntity(k), Integer.MAX_VALUE)));
+        for (int k : order) {
+            changes.getEntity(k).addComponent(changes.getComponent(k));
+        }
+    }
+
     /**
      * Allow concrete Systems to retrieve the private Collection of KeyCodes (user inputs) stored in the super System
      * @return Collection of Keycodes held in the System
@@ -130,16 +332,24 @@ public abstract class VoogaSystem {
     }
 
     /**
-     * Wrapper method for retrieving the value stored in a Component by calling the specified method
-     * @param componentClazz class type of the target Component
+     * Typed accessor for the current value of a DoubleComponent, read without boxing
+     * @param componentClazz class type of the target Component, which must extend DoubleComponent
+     * @param entity the target Entity whose Component value we want to retrieve
+     * @return the current value of the Component
+     */
+    protected double getDouble(Class<? extends Component> componentClazz, Entity entity){
+        return ((DoubleComponent) entity.getComponent(componentClazz)).getDouble();
+    }
+
+    /**
+     * Typed accessor for the previous value of a Component with one-step history,
+     * e.g. the previous XPosition value stored in XPositionComponent
+     * @param componentClazz class type of the target Component, which must implement HistoryComponent
      * @param entity the target Entity whose Component value we want to retrieve
-     * @param method name of the method that should be called to retrieve the Component value
-     *               e.g. "getOldValue" on XPositionComponent for retrieving the previous XPosition value
-     * @return the value stored at a desired field of the Component accessible via the method specified by the String argument
+     * @return the value the Component held before its last change
      */
-    protected Object getComponentValue(Class<? extends Component> componentClazz,Entity entity, String method){
-        return Reflection.callMethod(entity.getComponent(componentClazz),method);
+    protected double getOldDouble(Class<? extends Component> componentClazz, Entity entity){
+        return ((HistoryComponent) entity.getComponent(componentClazz)).getOldDouble();
     }
-    
 
 }
@@ -0,0 +1,115 @@
+package engine.internal.systems;
+
+import engine.external.Archetype;
+import engine.external.Engine;
+import engine.external.Entity;
+import engine.external.Level;
+import engine.external.component.*;
+
+import javafx.scene.input.KeyCode;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author engine
+ * Tests that the structural changes a System makes through addComponent() and removeComponent() are deferred until
+ * the System has finished, and then land in the order of the Entities of the System
+ */
+public class VoogaSystemTest {
+    private static final int ENTITIES = 50;
+    private static final List<KeyCode> NO_INPUTS = Collections.emptyList();
+
+    /**
+     * Test that a System running on its own changes nothing while it runs, and that its changes are applied at the
+     * next sync point in the order it made them, i.e. the order of its Entities
+     */
+    @Test
+    public void testRecordedChangesLandInViewOrder() {
+        Engine engine = createEngine();
+        RelabelingSystem relabeling = new RelabelingSystem(engine, false);
+        relabeling.update(NO_INPUTS);
+        List<Entity> viewed = new ArrayList<>(relabeling.getEntities());
+        assertEquals(ENTITIES, entitiesWith(engine, HealthComponent.class).size());
+        assertEquals(0, entitiesWith(engine, ValueComponent.class).size());
+
+        engine.updateState(NO_INPUTS);
+
+        assertEquals(0, entitiesWith(engine, HealthComponent.class).size());
+        assertEquals(viewed, entitiesWith(engine, ValueComponent.class));
+    }
+
+    /**
+     * Test that Components a System attaches while SystemScheduler runs it with other Systems land in the order of its
+     * Entities, even when the System attaches them in another order
+     */
+    @Test
+    public void testDeferredChangesLandInViewOrder() {
+        Engine engine = createEngine();
+        RelabelingSystem relabeling = new RelabelingSystem(engine, true);
+        relabeling.deferComponentChanges();
+        relabeling.update(NO_INPUTS);
+        List<Entity> viewed = new ArrayList<>(relabeling.getEntities());
+        assertEquals(0, entitiesWith(engine, ValueComponent.class).size());
+
+        relabeling.applyDeferredComponentChanges();
+
+        assertEquals(viewed, entitiesWith(engine, ValueComponent.class));
+    }
+
+    // Entities of one Archetype, so that the order they reach another Archetype in is the order they were changed in
+    private Engine createEngine() {
+        Level level = new Level();
+        level.setWidth(800);
+        level.setHeight(600);
+        for (int k = 0; k < ENTITIES; k++) {
+            Entity entity = new Entity();
+            entity.addComponent(new NameComponent("entity" + k));
+            entity.addComponent(new XPositionComponent((double) k));
+            entity.addComponent(new HealthComponent(1.0));
+            level.addEntity(entity);
+        }
+        Entity player = new Entity();
+        player.addComponent(new LivesComponent(3.0));
+        level.addEntity(player);
+        return new Engine(level);
+    }
+
+    private List<Entity> entitiesWith(Engine engine, Class<? extends Component> clazz) {
+        List<Entity> entities = new ArrayList<>();
+        for (Archetype archetype : engine.getArchetypes(Collections.singletonList(clazz))) {
+            for (int row = 0; row < archetype.size(); row++) {
+                entities.add(archetype.getEntity(row));
+            }
+        }
+        return entities;
+    }
+
+    // Swaps the HealthComponent of every Entity for a ValueComponent, in the order of its Entities; backwards, it only
+    // attaches the ValueComponents, starting from the last Entity, since removeComponent() is only for Systems running
+    // on their own
+    private static class RelabelingSystem extends VoogaSystem {
+        private final boolean myBackwards;
+
+        RelabelingSystem(Engine engine, boolean backwards) {
+            super(Collections.singletonList(X_POSITION_COMPONENT_CLASS), engine);
+            myBackwards = backwards;
+        }
+
+        @Override
+        protected void run() {
+            List<Entity> entities = getEntities();
+            for (int k = 0; k < entities.size(); k++) {
+                Entity entity = entities.get(myBackwards ? entities.size() - 1 - k : k);
+                if (!myBackwards) {
+                    removeComponent(entity, HEALTH_COMPONENT_CLASS);
+                }
+                addComponent(entity, new ValueComponent(1.0));
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package runner.internal;
 import engine.external.Engine;
 import engine.external.Entity;
 import engine.external.Level;
+import engine.external.RenderSnapshot;
+import engine.external.Simulation;
 import engine.external.actions.NumericAction;
 import engine.external.actions.SoundAction;
 import engine.external.actions.ValueAction;
@@ -45,6 +47,7 @@ public class LevelRunner {
     private Group myGroup;
     private Scene myScene;
     private Engine myEngine;
+    private Simulation mySimulation;
     private Timeline myAnimation;
     private static final int FRAMES_PER_SECOND = 60;
     private static final int MILLISECOND_DELAY = 1000 / FRAMES_PER_SECOND;
@@ -95,6 +98,7 @@ public class LevelRunner {
         myHUD = new HeadsUpDisplay(width);
         myEntities = myEngine.updateState(myCurrentKeys);
         if(score!=null && lives!=null)keepScoreAndLives(score, lives);
+        if(myEngine.isSimulationThreadEnabled()) mySimulation = new Simulation(myEngine);
         myAudioManager = new AudioManager(5);
         myLevelChanger = playNext;
         myAnimation = new Timeline();
@@ -154,6 +158,7 @@ public class LevelRunner {
         myStage = stage;
         myStage.setOnCloseRequest(windowEvent -> {
             myAnimation.stop();
+            if (mySimulation != null) mySimulation.shutdown();
         });
         myStage.setResizable(false);
         myGroup = new Group();
@@ -185,11 +190,28 @@ public class LevelRunner {
     }
 
     private void step (double elapsedTime) {
+        if (mySimulation != null) {
+            stepSimulation();
+            return;
+        }
         myEntities = myEngine.updateState(myCurrentKeys);
 
         updateGUI();
     }
 
+    // The entities belong to the simulation thread while it runs a game loop; until it is done, only the systems that
+    // draw the latest snapshot are updated, and the next game loop is requested once the others have caught up
+    private void stepSimulation() {
+        boolean idle = mySimulation.isIdle();
+        if (idle) myEntities = myEngine.getEntities();
+        myGroup.getChildren().retainAll(myPause, myLabel, myHudBackground, myImageViewBackground);
+        for(RunnerSystem system : mySystems){
+            if (idle || system.drawsSnapshot()) system.update(myEntities);
+        }
+        if (idle) mySimulation.requestTick(myCurrentKeys);
+        if (canPause) updateButtonsAndHUD();
+    }
+
     private void updateGUI(){
         myGroup.getChildren().retainAll(myPause, myLabel, myHudBackground, myImageViewBackground);
         for(RunnerSystem system : mySystems){
@@ -213,6 +235,14 @@ public class LevelRunner {
         return myEntities;
     }
 
+    /**
+     * Gets the snapshot to draw when the engine runs on a simulation thread
+     * @return latest RenderSnapshot, or null if the engine runs on the JavaFX thread
+     */
+    public RenderSnapshot getRenderSnapshot(){
+        return mySimulation == null ? null : mySimulation.getLatestSnapshot();
+    }
+
     /**
      * Gets the engine being used to create level
      * @return Engine
@@ -1,18 +1,37 @@
 package runner.internal.runnerSystems;
 
+import data.external.DataManager;
 import engine.external.Entity;
+import engine.external.RenderSnapshot;
 import engine.external.component.*;
 import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import runner.internal.LevelRunner;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * System that shows the ImageViews
+ * When the engine runs on a simulation thread, the system draws the latest render snapshot instead, with ImageViews of
+ * its own that are kept from one frame to the next
  * @author Louis Jensen
  */
 public class ImageDisplaySystem extends RunnerSystem {
+    private static final double FRONT = 1.0;
+
     private Group myGroup;
+    private LevelRunner myLevelRunner;
+    private Group mySnapshotLayer;
+    private RenderSnapshot myDrawnSnapshot;
+    private Map<Long, ImageView> mySnapshotViews;
+    private Map<String, Image> myImages;
+    private DataManager myDataManager;
 
     /**
      * Constructor for ImageDisplaySystem
@@ -23,6 +42,31 @@ public class ImageDisplaySystem extends RunnerSystem {
     public ImageDisplaySystem (Collection<Class<? extends Component>> requiredComponents, LevelRunner levelRunner, Group group) {
         super(requiredComponents, levelRunner);
         myGroup = group;
+        myLevelRunner = levelRunner;
+        mySnapshotLayer = new Group();
+        mySnapshotViews = new HashMap<>();
+        myImages = new HashMap<>();
+    }
+
+    /**
+     * Draws the latest render snapshot if the level runs on a simulation thread, the ImageViews of the entities otherwise
+     * @param entities - Collection of the entities gotten from the LevelRunner
+     */
+    @Override
+    public void update(Collection<Entity> entities) {
+        if (drawsSnapshot()) {
+            displaySnapshot(myLevelRunner.getRenderSnapshot());
+            return;
+        }
+        super.update(entities);
+    }
+
+    /**
+     * @return true if the level runs on a simulation thread
+     */
+    @Override
+    public boolean drawsSnapshot() {
+        return myLevelRunner.getRenderSnapshot() != null;
     }
 
     /**
@@ -49,4 +93,53 @@ public class ImageDisplaySystem extends RunnerSystem {
         }
         myGroup.getChildren().add(image);
     }
-}
\ No newline at end of file
+
+    // The LevelRunner clears the group on every frame; the layer of snapshot ImageViews is only rebuilt when a new
+    // snapshot has been published, entities in front (z of 1) after the others
+    private void displaySnapshot(RenderSnapshot snapshot) {
+        myGroup.getChildren().add(mySnapshotLayer);
+        if (snapshot == myDrawnSnapshot) {
+            return;
+        }
+        myDrawnSnapshot = snapshot;
+        Map<Long, ImageView> views = new HashMap<>();
+        List<Node> back = new ArrayList<>();
+        List<Node> front = new ArrayList<>();
+        for (int k = 0; k < snapshot.size(); k++) {
+            Image image = getImage(snapshot.getSprite(k));
+            if (image == null) {
+                continue;
+            }
+            long key = ((long) snapshot.getGeneration(k) << Integer.SIZE) | snapshot.getId(k);
+            ImageView view = mySnapshotViews.get(key);
+            if (view == null) {
+                view = new ImageView();
+            }
+            if (view.getImage() != image) {
+                view.setImage(image);
+            }
+            view.setX(snapshot.getX(k));
+            view.setY(snapshot.getY(k));
+            view.setFitWidth(snapshot.getWidth(k));
+            view.setFitHeight(snapshot.getHeight(k));
+            view.setOpacity(snapshot.getOpacity(k));
+            views.put(key, view);
+            (snapshot.getZ(k) == FRONT ? front : back).add(view);
+        }
+        back.addAll(front);
+        mySnapshotLayer.getChildren().setAll(back);
+        mySnapshotViews = views;
+    }
+
+    // Images are loaded once per sprite; null if the sprite cannot be found
+    private Image getImage(String sprite) {
+        if (!myImages.containsKey(sprite)) {
+            if (myDataManager == null) {
+                myDataManager = new DataManager();
+            }
+            InputStream imageStream = myDataManager.loadImage(sprite);
+            myImages.put(sprite, imageStream == null ? null : new Image(imageStream));
+        }
+        return myImages.get(sprite);
+    }
+}
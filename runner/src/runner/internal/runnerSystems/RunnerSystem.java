@@ -53,6 +53,15 @@ public abstract class RunnerSystem {
         return entity.hasComponents(myRequiredComponents);
     }
 
+    /**
+     * Whether the system only draws the LevelRunner's latest render snapshot, and may therefore be updated while the
+     * engine is busy on its simulation thread
+     * @return false unless the system never touches the entities
+     */
+    public boolean drawsSnapshot() {
+        return false;
+    }
+
     /**
      * Abstract method to be implemented differently by each system
      */
@@ -13,6 +13,9 @@ import java.util.Collection;
  */
 public class ScoringSystem extends RunnerSystem {
     private HeadsUpDisplay myHUD;
+    private LevelRunner myLevelRunner;
+    private Component<?> myDisplayedScore;
+    private long myLastChangeTick;
 
     /**
      * Constructor for ScoringSystem
@@ -23,22 +26,31 @@ public class ScoringSystem extends RunnerSystem {
     public ScoringSystem (Collection<Class<? extends Component>> requiredComponents, LevelRunner levelRunner, HeadsUpDisplay hud) {
         super(requiredComponents, levelRunner);
         myHUD = hud;
+        myLevelRunner = levelRunner;
+        myLastChangeTick = Long.MIN_VALUE;
     }
 
     /**
-     * Updates the Score value in the HUD
+     * Updates the Score value in the HUD, if it has changed since the last game loop
      */
     @Override
     public void run() {
+        long changeTick = myLevelRunner.getEngine().getChangeTick();
         for(Entity entity:this.getEntities()){
             if(entity.hasComponents(ScoreComponent.class)){
                 displayScore(entity);
                 break;
             }
         }
+        myLastChangeTick = changeTick;
     }
 
     private void displayScore(Entity entity) {
-        myHUD.updateScore((Double) entity.getComponent(ScoreComponent.class).getValue());
+        Component<?> score = entity.getComponent(ScoreComponent.class);
+        if (score == myDisplayedScore && !score.hasChangedSince(myLastChangeTick)) {
+            return;
+        }
+        myDisplayedScore = score;
+        myHUD.updateScore((Double) score.getValue());
     }
 }
@@ -0,0 +1,80 @@
+package voogasalad.example.reflection;
+
+import voogasalad.util.reflection.Reflection;
+
+
+// rough timing of Reflection calls against direct calls: warm cache, cleared cache, and plain Java
+// the first rounds include JIT warm-up, so compare the numbers of the last round
+public class ReflectionBenchmark {
+    private static final String COUNTER = "voogasalad.example.reflection.Counter";
+    private static final int ROUNDS = 3;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+    private static final int COLD_ITERATIONS = 20_000;
+
+    public static void main (String[] args) {
+        Counter c = new Counter();
+        // keep results alive so the JIT cannot drop the calls
+        long sink = 0;
+
+        for (int k = 0; k < WARMUP; k++) {
+            c.next(2);
+            Reflection.callMethod(c, "next", 2);
+            sink += ((Counter)Reflection.createInstance(COUNTER, "Hello", 13)).getValue();
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("round " + round);
+            sink += runRound(c);
+        }
+        System.out.println("(" + (sink + c.getValue()) + ")");
+    }
+
+    private static long runRound (Counter c) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int k = 0; k < ITERATIONS; k++) {
+            c.next(2);
+        }
+        report("direct next(int)", start, ITERATIONS);
+
+        start = System.nanoTime();
+        for (int k = 0; k < ITERATIONS; k++) {
+            Reflection.callMethod(c, "next", 2);
+        }
+        report("cached callMethod", start, ITERATIONS);
+
+        start = System.nanoTime();
+        for (int k = 0; k < COLD_ITERATIONS; k++) {
+            Reflection.clearCache();
+            Reflection.callMethod(c, "next", 2);
+        }
+        report("uncached callMethod", start, COLD_ITERATIONS);
+
+        start = System.nanoTime();
+        for (int k = 0; k < ITERATIONS; k++) {
+            // Reflection resolves ("Hello", 13) to the first matching constructor, which is the varargs one
+            sink += new Counter("Hello", new int[] { 13 }).getValue();
+        }
+        report("direct new Counter(String, int...)", start, ITERATIONS);
+
+        start = System.nanoTime();
+        for (int k = 0; k < ITERATIONS; k++) {
+            sink += ((Counter)Reflection.createInstance(COUNTER, "Hello", 13)).getValue();
+        }
+        report("cached createInstance", start, ITERATIONS);
+
+        start = System.nanoTime();
+        for (int k = 0; k < COLD_ITERATIONS; k++) {
+            Reflection.clearCache();
+            sink += ((Counter)Reflection.createInstance(COUNTER, "Hello", 13)).getValue();
+        }
+        report("uncached createInstance", start, COLD_ITERATIONS);
+        return sink;
+    }
+
+    private static void report (String label, long start, int iterations) {
+        double nanos = (System.nanoTime() - start) / (double)iterations;
+        System.out.println(String.format("%-32s %8.1f ns/op", label, nanos));
+    }
+}
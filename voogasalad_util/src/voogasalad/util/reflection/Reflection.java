@@ -1,10 +1,17 @@
 package voogasalad.util.reflection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -12,6 +19,11 @@ import java.lang.reflect.Modifier;
  *
  * It simplifies some of Java's reflection API and fixes some issues.
  *
+ * Lookups are cached: classes by name, and resolved constructors and methods by declaring class, member name and the
+ * classes of the actual parameters, each held as a MethodHandle. Only the first call for a given combination scans the
+ * declared members; repeated calls go straight to the cached handle. The cache is safe to use from several threads;
+ * call clearCache() if classes are reloaded or redefined while the program runs.
+ *
  * @author Robert C. Duvall
  */
 public class Reflection {
@@ -21,7 +33,22 @@ public class Reflection {
     private static final String NO_MATCHING_PUBLIC_CONSTRUCTOR = "No matching public constructor for %s";
     private static final String NO_PUBLIC_DEFAULT_CONSTRUCTOR = "No public default constructor for %s";
     private static final String INCORRECTLY_NAMED_CLASS = "Incorrectly named class %s";
+    private static final String CONSTRUCTOR = "<init>";
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final Map<String, Class<?>> CLASSES = new ConcurrentHashMap<>();
+    private static final Map<MemberKey, Invoker> INVOKERS = new ConcurrentHashMap<>();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
 
+    /**
+     * Forget every cached class, constructor and method, e.g. after classes have been reloaded.
+     * Later calls resolve their targets again.
+     */
+    public static void clearCache () {
+        CLASSES.clear();
+        INVOKERS.clear();
+    }
 
     /**
      * Given a String representing the fully qualified name of a class, returns
@@ -29,7 +56,13 @@ public class Reflection {
      */
     public static Object createInstance (String className) throws ReflectionException {
         try {
-            return Class.forName(className).getDeclaredConstructor().newInstance();
+            Class<?> c = forName(className);
+            MemberKey key = new MemberKey(c, CONSTRUCTOR, true, NO_ARGS);
+            Invoker invoker = INVOKERS.get(key);
+            if (invoker == null) {
+                invoker = cache(key, new Invoker(c.getDeclaredConstructor(), 0));
+            }
+            return invoker.invoke(null, NO_ARGS);
         }
         catch (ClassNotFoundException e) {
             throw new ReflectionException(e, INCORRECTLY_NAMED_CLASS, className);
@@ -46,14 +79,21 @@ public class Reflection {
      */
     public static Object createInstance (String name, Object ... args) throws ReflectionException {
         try {
-            Class<?> c = Class.forName(name);
-            for (Constructor<?> current : c.getDeclaredConstructors()) {
-                Class<?>[] formals = current.getParameterTypes();
-                if (typesMatch(current, formals, args)) {
-                    return current.newInstance(convertArgs(current, formals, args));
+            Class<?> c = forName(name);
+            MemberKey key = new MemberKey(c, CONSTRUCTOR, false, args);
+            Invoker invoker = INVOKERS.get(key);
+            if (invoker == null) {
+                for (Constructor<?> current : c.getDeclaredConstructors()) {
+                    if (typesMatch(current, current.getParameterTypes(), args)) {
+                        invoker = cache(key, new Invoker(current, args.length));
+                        break;
+                    }
                 }
             }
-            throw new ReflectionException(NO_MATCHING_PUBLIC_CONSTRUCTOR, name);
+            if (invoker == null) {
+                throw new ReflectionException(NO_MATCHING_PUBLIC_CONSTRUCTOR, name);
+            }
+            return invoker.invoke(null, args);
         }
         catch (ClassNotFoundException e) {
             throw new ReflectionException(e, INCORRECTLY_NAMED_CLASS, name);
@@ -70,8 +110,12 @@ public class Reflection {
      */
     public static Object callMethod (Object target, String name) throws ReflectionException {
         try {
-            Method toCall = target.getClass().getDeclaredMethod(name, new Class[0]);
-            return toCall.invoke(target, new Object[0]);
+            MemberKey key = new MemberKey(target.getClass(), name, true, NO_ARGS);
+            Invoker invoker = INVOKERS.get(key);
+            if (invoker == null) {
+                invoker = cache(key, new Invoker(target.getClass().getDeclaredMethod(name, new Class[0]), 0));
+            }
+            return invoker.invoke(target, NO_ARGS);
         }
         catch (Exception e) {
             throw new ReflectionException(e, NO_MATCHING_PUBLIC_METHOD, name, target.getClass().getName());
@@ -85,15 +129,20 @@ public class Reflection {
      */
     public static Object callMethod (Object target, String name, Object ... args) throws ReflectionException {
         try {
-            for (Method current : target.getClass().getDeclaredMethods()) {
-                if (name.equals(current.getName())) {
-                    Class<?>[] formals = current.getParameterTypes();
-                    if (typesMatch(current, formals, args)) {
-                        return current.invoke(target, convertArgs(current, formals, args));
+            MemberKey key = new MemberKey(target.getClass(), name, false, args);
+            Invoker invoker = INVOKERS.get(key);
+            if (invoker == null) {
+                for (Method current : target.getClass().getDeclaredMethods()) {
+                    if (name.equals(current.getName()) && typesMatch(current, current.getParameterTypes(), args)) {
+                        invoker = cache(key, new Invoker(current, args.length));
+                        break;
                     }
                 }
             }
-            throw new ReflectionException(NO_MATCHING_PUBLIC_METHOD, name, target.getClass().getName());
+            if (invoker == null) {
+                throw new ReflectionException(NO_MATCHING_PUBLIC_METHOD, name, target.getClass().getName());
+            }
+            return invoker.invoke(target, args);
         }
         catch (Exception e) {
             throw new ReflectionException(e, NO_MATCHING_PUBLIC_METHOD, name, target.getClass().getName());
@@ -124,6 +173,22 @@ public class Reflection {
         return results;
     }
 
+    // Class.forName, remembered
+    private static Class<?> forName (String name) throws ClassNotFoundException {
+        Class<?> c = CLASSES.get(name);
+        if (c == null) {
+            c = Class.forName(name);
+            CLASSES.put(name, c);
+        }
+        return c;
+    }
+
+    // keep the first invoker resolved for a key, in case several threads resolved it at the same time
+    private static Invoker cache (MemberKey key, Invoker invoker) {
+        Invoker previous = INVOKERS.putIfAbsent(key, invoker);
+        return previous == null ? invoker : previous;
+    }
+
     // are parameters of compatible types and in same order?
     private static boolean typesMatch (Member function, Class<?>[] formals, Object[] actuals) {
         if ((actuals.length == formals.length) || (actuals.length >= formals.length && isVarArgs(function))) {
@@ -206,4 +271,105 @@ public class Reflection {
     private static boolean isAssignableFrom (Class<?> formal, Class<?> arg) {
         return formal.isAssignableFrom(arg);
     }
+
+    // identifies a resolved member: whether a member matches only depends on the classes of the actual parameters
+    private static final class MemberKey {
+        private final Class<?> myClass;
+        private final String myName;
+        private final boolean myExact;
+        private final Class<?>[] myArgTypes;
+        private final int myHash;
+
+        private MemberKey (Class<?> clss, String name, boolean exact, Object[] args) {
+            myClass = clss;
+            myName = name;
+            myExact = exact;
+            myArgTypes = new Class<?>[args.length];
+            for (int k = 0; k < args.length; k++) {
+                myArgTypes[k] = (args[k] == null) ? null : args[k].getClass();
+            }
+            myHash = 31 * (31 * (31 * clss.hashCode() + name.hashCode()) + Boolean.hashCode(exact)) + Arrays.hashCode(myArgTypes);
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (!(other instanceof MemberKey)) {
+                return false;
+            }
+            MemberKey key = (MemberKey)other;
+            return myClass == key.myClass && myExact == key.myExact && myName.equals(key.myName) && Arrays.equals(myArgTypes, key.myArgTypes);
+        }
+
+        @Override
+        public int hashCode () {
+            return myHash;
+        }
+    }
+
+    // a resolved constructor or method, called through a MethodHandle taking (target, Object[] args)
+    // the handle is specific to the number of actual parameters, so trailing varargs are collected by the handle itself;
+    // falls back to plain reflection for members the handle lookup is not allowed to see,
+    // so the same members are accessible as without the cache
+    private static final class Invoker {
+        private final Member myMember;
+        private final Class<?>[] myFormals;
+        private final MethodHandle myHandle;
+
+        private Invoker (Constructor<?> constructor, int numActuals) {
+            myMember = constructor;
+            myFormals = constructor.getParameterTypes();
+            MethodHandle handle;
+            try {
+                handle = spread(LOOKUP.unreflectConstructor(constructor), numActuals);
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            catch (IllegalAccessException e) {
+                handle = null;
+            }
+            myHandle = handle;
+        }
+
+        private Invoker (Method method, int numActuals) {
+            myMember = method;
+            myFormals = method.getParameterTypes();
+            MethodHandle handle;
+            try {
+                handle = spread(LOOKUP.unreflect(method), numActuals);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+            }
+            catch (IllegalAccessException e) {
+                handle = null;
+            }
+            myHandle = handle;
+        }
+
+        // (T, P1..Pn)R becomes (Object, Object[])Object, so every call site can use invokeExact
+        private MethodHandle spread (MethodHandle handle, int numActuals) {
+            MethodHandle fixed = handle.asFixedArity();
+            if (((Executable)myMember).isVarArgs()) {
+                int numVarArgs = numActuals - myFormals.length + 1;
+                fixed = fixed.asCollector(myFormals[myFormals.length - 1], numVarArgs);
+            }
+            return fixed.asType(fixed.type().generic()).asSpreader(Object[].class, numActuals);
+        }
+
+        // same contract as Method.invoke: exceptions thrown by the member come wrapped in an InvocationTargetException
+        private Object invoke (Object target, Object[] actuals) throws Exception {
+            if (myHandle == null) {
+                Object[] args = convertArgs(myMember, myFormals, actuals);
+                if (myMember instanceof Constructor) {
+                    return ((Constructor<?>)myMember).newInstance(args);
+                }
+                return ((Method)myMember).invoke(target, args);
+            }
+            try {
+                return (Object)myHandle.invokeExact(target, actuals);
+            }
+            catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
 }